@@ -0,0 +1,102 @@
+package binairo.bench;
+
+import binairo.modele.EtatBinairo;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opérations du modèle appelées à chaque coup par l'interface.
+ *
+ * Suggestions et violations sont tenues en cache entre deux coups : elles sont donc
+ * mesurées après un coup (coup, requête, annulation), comme dans le jeu ; mesurer
+ * l'appel seul ne mesurerait que la lecture du cache.
+ * Chaque invocation joue sur la grille suivante du jeu fixe, dans une case vide tournante.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EtatBinairoBench {
+
+    @Param({"6", "8", "10", "12", "14"})
+    public int taille;
+
+    private EtatBinairo[] grilles;
+    private int[][] vides;
+    private int courante;
+    private int coup;
+
+    @Setup
+    public void preparer() {
+        List<EtatBinairo> liste = GrillesBench.charger(taille);
+        grilles = liste.toArray(new EtatBinairo[0]);
+        vides = new int[grilles.length][];
+        for (int n = 0; n < grilles.length; n++) {
+            int[] cases = new int[taille * taille];
+            int nb = 0;
+            for (int i = 0; i < taille; i++) {
+                for (int j = 0; j < taille; j++) {
+                    if (grilles[n].getValeur(i, j) == EtatBinairo.VIDE) cases[nb++] = i * taille + j;
+                }
+            }
+            vides[n] = Arrays.copyOf(cases, nb);
+            // Construit les index paresseux avant la mesure
+            grilles[n].estValide();
+            grilles[n].getSuggestion();
+        }
+    }
+
+    private EtatBinairo suivante() {
+        courante = (courante + 1) % grilles.length;
+        return grilles[courante];
+    }
+
+    private int caseSuivante() {
+        int[] cases = vides[courante];
+        coup = (coup + 1) % cases.length;
+        return cases[coup];
+    }
+
+    @Benchmark
+    public boolean estValide() {
+        return suivante().estValide();
+    }
+
+    @Benchmark
+    public boolean setValeurAnnulerCoup() {
+        EtatBinairo etat = suivante();
+        int k = caseSuivante();
+        etat.setValeur(k / taille, k % taille, coup & 1);
+        return etat.annulerCoup();
+    }
+
+    @Benchmark
+    public int[] getSuggestion() {
+        EtatBinairo etat = suivante();
+        int k = caseSuivante();
+        etat.setValeur(k / taille, k % taille, coup & 1);
+        int[] suggestion = etat.getSuggestion();
+        etat.annulerCoup();
+        return suggestion;
+    }
+
+    @Benchmark
+    public List<String> getViolations() {
+        EtatBinairo etat = suivante();
+        int k = caseSuivante();
+        etat.setValeur(k / taille, k % taille, coup & 1);
+        List<String> violations = etat.getViolations();
+        etat.annulerCoup();
+        return violations;
+    }
+
+    @Benchmark
+    public EtatBinairo copie() {
+        return new EtatBinairo(suivante());
+    }
+}
@@ -0,0 +1,41 @@
+package binairo.bench;
+
+import binairo.modele.EtatBinairo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Jeu de grilles fixe des benchmarks (ressource {@code grilles.txt}, format
+ * {@link EtatBinairo#toLigne()}) : les mesures portent toujours sur les mêmes grilles.
+ */
+final class GrillesBench {
+    private static final String RESSOURCE = "grilles.txt";
+
+    private GrillesBench() { }
+
+    static List<EtatBinairo> charger(int taille) {
+        List<EtatBinairo> grilles = new ArrayList<>();
+        try (InputStream flux = GrillesBench.class.getResourceAsStream(RESSOURCE)) {
+            if (flux == null) throw new IllegalStateException("Ressource absente: " + RESSOURCE);
+            BufferedReader lecteur = new BufferedReader(new InputStreamReader(flux, StandardCharsets.UTF_8));
+            String ligne;
+            while ((ligne = lecteur.readLine()) != null) {
+                ligne = ligne.trim();
+                if (ligne.isEmpty() || ligne.startsWith("#")) continue;
+                EtatBinairo grille = EtatBinairo.depuisTexte(ligne);
+                if (grille.getTaille() == taille) grilles.add(grille);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        if (grilles.isEmpty()) throw new IllegalArgumentException("Aucune grille de taille " + taille);
+        return grilles;
+    }
+}
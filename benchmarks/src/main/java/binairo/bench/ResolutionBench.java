@@ -0,0 +1,48 @@
+package binairo.bench;
+
+import binairo.modele.EtatBinairo;
+import binairo.recherche.ConfigurationCSP;
+import binairo.recherche.MoteurBinairoCSP;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MoteurBinairoCSP#resoudre} pour chaque combinaison d'heuristiques comparée
+ * par l'interface ({@link ConfigurationCSP#standards()}), au format de
+ * {@link ConfigurationCSP#depuisTexte}. Une invocation résout la grille suivante du
+ * jeu fixe de sa taille.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResolutionBench {
+
+    @Param({"6", "8", "10", "12", "14"})
+    public int taille;
+
+    @Param({"simple", "mrv", "mrv+degree", "mrv+degree+lcv", "mrv+degree+lcv+fc",
+            "mrv+degree+lcv+ac3", "mrv+degree+lcv+fc+ac3", "mrv+degree+lcv+fc+ac3+ac4"})
+    public String configuration;
+
+    private EtatBinairo[] grilles;
+    private MoteurBinairoCSP moteur;
+    private int courante;
+
+    @Setup
+    public void preparer() {
+        List<EtatBinairo> liste = GrillesBench.charger(taille);
+        grilles = liste.toArray(new EtatBinairo[0]);
+        moteur = ConfigurationCSP.depuisTexte(configuration).creerMoteur();
+    }
+
+    @Benchmark
+    public EtatBinairo resoudre() {
+        courante = (courante + 1) % grilles.length;
+        return moteur.resoudre(grilles[courante]);
+    }
+}
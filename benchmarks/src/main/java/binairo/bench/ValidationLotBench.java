@@ -0,0 +1,72 @@
+package binairo.bench;
+
+import binairo.modele.EtatBinairo;
+import binairo.modele.GrilleBinaire;
+import binairo.modele.LotGrilles;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation de nombreuses grilles : lot entier ({@link LotGrilles#valider}) contre une
+ * grille à la fois ({@link GrilleBinaire#estValide()}, puis lecture et
+ * {@link EtatBinairo#estValide()} comme le faisaient les outils de corpus).
+ * Temps par grille. Le lot est vectoriel dans ce fork ; pour la version scalaire :
+ *   java -jar benchmarks.jar ValidationLotBench -jvmArgsAppend -Dbinairo.vectoriel=false
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class ValidationLotBench {
+    private static final int LOT = 4096;
+
+    @Param({"6", "8", "10", "14"})
+    public int taille;
+
+    private LotGrilles lot;
+    private boolean[] valides;
+    private GrilleBinaire[] grilles;
+    private String[] lignes;
+    private int courante;
+
+    @Setup
+    public void preparer() {
+        List<EtatBinairo> jeu = GrillesBench.charger(taille);
+        lot = new LotGrilles(taille, LOT);
+        valides = new boolean[LOT];
+        grilles = new GrilleBinaire[LOT];
+        lignes = new String[jeu.size()];
+        for (int g = 0; g < LOT; g++) {
+            lot.ajouter(jeu.get(g % jeu.size()));
+            grilles[g] = GrilleBinaire.depuis(jeu.get(g % jeu.size()));
+        }
+        for (int n = 0; n < jeu.size(); n++) lignes[n] = jeu.get(n).toLigne();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOT)
+    public boolean[] lot() {
+        lot.valider(valides);
+        return valides;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOT)
+    public int grilleBinaire() {
+        int nb = 0;
+        for (GrilleBinaire g : grilles) {
+            if (g.estValide()) nb++;
+        }
+        return nb;
+    }
+
+    @Benchmark
+    public boolean lectureEtatBinairo() {
+        courante = (courante + 1) % lignes.length;
+        return EtatBinairo.depuisTexte(lignes[courante]).estValide();
+    }
+}
@@ -0,0 +1,293 @@
+package binairo.analyse;
+
+import binairo.modele.EtatBinairo;
+import binairo.modele.GrilleBinaire;
+import binairo.modele.ReglesLigne;
+
+import java.util.Arrays;
+
+/**
+ * Évalue la difficulté d'une grille en la résolvant uniquement par déductions
+ * "humaines", en essayant toujours la règle la plus simple d'abord
+ * (voir {@link RegleDeduction}).
+ *
+ * La propagation est incrémentale : chaque niveau de règle tient sa propre liste
+ * de lignes à réexaminer, et seules la ligne et la colonne d'une case déduite y sont
+ * remises. Une ligne qui n'a rien donné pour un niveau n'est plus relue tant qu'elle
+ * ne change pas, sauf pour l'unicité : une ligne qui se complète est remise dans
+ * la file d'unicité avec toutes les lignes ouvertes de même orientation, qui peuvent
+ * désormais lui être identiques. Les essais partent du point fixe courant : seules la
+ * ligne et la colonne de la case supposée sont à propager.
+ *
+ * Une instance n'est pas partagée entre threads.
+ */
+public class EvaluateurDifficulte {
+    public static final int PROFONDEUR_ESSAI_MAX = 2;
+
+    // Niveaux propagés par files de lignes (l'essai et erreur est traité à part)
+    private static final int NB_NIVEAUX_LIGNE = RegleDeduction.ESSAI_ERREUR.ordinal();
+
+    private int taille;
+    private long plein;
+    private int[] histogramme;
+    private int profondeurEssaiMax;
+    private int essaisPonderes;
+    // Résultat de appliquer() : {forcées à 0, forcées à 1}, consommé aussitôt
+    private final long[] forcees = new long[2];
+
+    // Grilles et files réutilisées, une par profondeur d'essai
+    private GrilleBinaire[] copies;
+    private FileLignes[] files;
+
+    /**
+     * Lignes à réexaminer pour chaque niveau de règle.
+     */
+    private static class FileLignes {
+        final boolean[][] sales;
+        final int[] nbSales = new int[NB_NIVEAUX_LIGNE];
+
+        FileLignes(int nbLignes) {
+            sales = new boolean[NB_NIVEAUX_LIGNE][nbLignes];
+        }
+
+        void marquer(int k) {
+            for (int n = 0; n < NB_NIVEAUX_LIGNE; n++) {
+                if (!sales[n][k]) {
+                    sales[n][k] = true;
+                    nbSales[n]++;
+                }
+            }
+        }
+
+        void marquerCase(int i, int j, int taille) {
+            marquer(i);
+            marquer(taille + j);
+        }
+
+        void marquer(int niveau, int k) {
+            if (!sales[niveau][k]) {
+                sales[niveau][k] = true;
+                nbSales[niveau]++;
+            }
+        }
+
+        void vider() {
+            for (int n = 0; n < NB_NIVEAUX_LIGNE; n++) {
+                Arrays.fill(sales[n], false);
+                nbSales[n] = 0;
+            }
+        }
+    }
+
+    public EvaluationDifficulte evaluer(EtatBinairo enonce) {
+        return evaluer(GrilleBinaire.depuis(enonce));
+    }
+
+    public EvaluationDifficulte evaluer(GrilleBinaire enonce) {
+        preparer(enonce.getTaille());
+        histogramme = new int[RegleDeduction.values().length];
+        profondeurEssaiMax = 0;
+        essaisPonderes = 0;
+
+        GrilleBinaire g = new GrilleBinaire(enonce);
+        FileLignes file = files[0];
+        file.vider();
+        for (int k = 0; k < 2 * taille; k++) {
+            file.marquer(k);
+        }
+        boolean resolue = deduire(g, file, PROFONDEUR_ESSAI_MAX, histogramme) && g.estComplete();
+        return new EvaluationDifficulte(histogramme, profondeurEssaiMax, essaisPonderes, resolue);
+    }
+
+    private void preparer(int nouvelleTaille) {
+        if (files != null && taille == nouvelleTaille) return;
+        taille = nouvelleTaille;
+        plein = ReglesLigne.plein(taille);
+        copies = new GrilleBinaire[PROFONDEUR_ESSAI_MAX + 1];
+        files = new FileLignes[PROFONDEUR_ESSAI_MAX + 1];
+        for (int p = 0; p <= PROFONDEUR_ESSAI_MAX; p++) {
+            copies[p] = new GrilleBinaire(taille);
+            files[p] = new FileLignes(2 * taille);
+        }
+    }
+
+    /**
+     * Déduit tout ce qui est possible avec les règles de ligne puis, si besoin, avec des
+     * essais de profondeur au plus {@code profondeurMax}.
+     * @param histo histogramme à compléter, ou null pendant un essai
+     * @return faux si une contradiction est atteinte
+     */
+    private boolean deduire(GrilleBinaire g, FileLignes file, int profondeurMax, int[] histo) {
+        while (true) {
+            if (!propagerLignes(g, file, histo)) return false;
+            if (g.estComplete() || profondeurMax == 0) return true;
+
+            // Essai et erreur : la plus petite profondeur qui produit une déduction
+            boolean progres = false;
+            for (int p = 1; p <= profondeurMax && !progres; p++) {
+                progres = essayer(g, file, p, histo);
+            }
+            if (!progres) return true;
+        }
+    }
+
+    /**
+     * Cherche une case dont une valeur mène à une contradiction avec des déductions
+     * de profondeur p-1, et y place l'autre valeur.
+     */
+    private boolean essayer(GrilleBinaire g, FileLignes file, int p, int[] histo) {
+        GrilleBinaire copie = copies[p];
+        FileLignes fileEssai = files[p];
+        for (int i = 0; i < taille; i++) {
+            long vides = plein & ~g.masqueRemplies(i);
+            while (vides != 0) {
+                int j = Long.numberOfTrailingZeros(vides);
+                vides &= vides - 1;
+                for (int valeur = 0; valeur <= 1; valeur++) {
+                    copie.restaurer(g);
+                    copie.placer(i, j, valeur);
+                    fileEssai.vider();
+                    marquerCase(copie, i, j, fileEssai);
+                    if (!deduire(copie, fileEssai, p - 1, null)) {
+                        g.placer(i, j, 1 - valeur);
+                        marquerCase(g, i, j, file);
+                        if (histo != null) {
+                            histo[RegleDeduction.ESSAI_ERREUR.ordinal()]++;
+                            profondeurEssaiMax = Math.max(profondeurEssaiMax, p);
+                            essaisPonderes += p;
+                        }
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Applique les règles de ligne jusqu'au point fixe, la plus simple d'abord :
+     * après chaque déduction on revient au premier niveau.
+     */
+    private boolean propagerLignes(GrilleBinaire g, FileLignes file, int[] histo) {
+        int niveau = 0;
+        while (niveau < NB_NIVEAUX_LIGNE) {
+            if (file.nbSales[niveau] == 0) {
+                niveau++;
+                continue;
+            }
+            boolean deduit = false;
+            boolean[] sales = file.sales[niveau];
+            for (int k = 0; k < 2 * taille && !deduit; k++) {
+                if (!sales[k]) continue;
+                sales[k] = false;
+                file.nbSales[niveau]--;
+
+                if (!appliquer(g, k, niveau)) return false;
+                int nb = placer(g, k, forcees[0], EtatBinairo.ZERO, file) + placer(g, k, forcees[1], EtatBinairo.UN, file);
+                if (nb > 0) {
+                    if (histo != null) histo[niveau] += nb;
+                    deduit = true;
+                }
+            }
+            if (deduit) niveau = 0;
+        }
+        return true;
+    }
+
+    private int placer(GrilleBinaire g, int k, long masque, int valeur, FileLignes file) {
+        int nb = 0;
+        while (masque != 0) {
+            int pos = Long.numberOfTrailingZeros(masque);
+            masque &= masque - 1;
+            int i = k < taille ? k : pos, j = k < taille ? pos : k - taille;
+            g.placer(i, j, valeur);
+            marquerCase(g, i, j, file);
+            nb++;
+        }
+        return nb;
+    }
+
+    /**
+     * Remet la ligne et la colonne d'une case placée dans toutes les files ; si l'une
+     * d'elles est désormais complète, les lignes ouvertes de même orientation sont
+     * remises dans la file d'unicité.
+     */
+    private void marquerCase(GrilleBinaire g, int i, int j, FileLignes file) {
+        file.marquerCase(i, j, taille);
+        if (g.masqueRemplies(i) == plein) marquerOuvertes(g, 0, file);
+        if (g.masqueRemplies(taille + j) == plein) marquerOuvertes(g, taille, file);
+    }
+
+    private void marquerOuvertes(GrilleBinaire g, int debut, FileLignes file) {
+        int niveau = RegleDeduction.UNICITE_LIGNES.ordinal();
+        for (int k = debut; k < debut + taille; k++) {
+            if (g.masqueRemplies(k) != plein) file.marquer(niveau, k);
+        }
+    }
+
+    /**
+     * Applique une règle de ligne ; les cases forcées sont rangées dans {@link #forcees}.
+     * @return faux en cas de contradiction
+     */
+    private boolean appliquer(GrilleBinaire g, int k, int niveau) {
+        long remplies = g.masqueRemplies(k), uns = g.masqueUns(k);
+        long zeros = remplies & ~uns, vides = plein & ~remplies;
+        if (!ReglesLigne.estCoherente(uns, remplies, taille) || g.estDupliquee(k)) return false;
+
+        long versZero = 0, versUn = 0;
+        if (vides != 0) {
+            RegleDeduction regle = RegleDeduction.values()[niveau];
+            switch (regle) {
+                case PAIRES_SANDWICHS:
+                    versZero = ReglesLigne.creeTriplet(uns, plein) & vides;
+                    versUn = ReglesLigne.creeTriplet(zeros, plein) & vides;
+                    break;
+                case EQUILIBRE:
+                    if (Long.bitCount(uns) == taille / 2) versZero = vides;
+                    if (Long.bitCount(zeros) == taille / 2) versUn = vides;
+                    break;
+                default:
+                    // Anticipation : supposer chaque valeur dans chaque case vide et
+                    // propager dans la ligne seule ; une contradiction force l'autre valeur
+                    boolean unicite = regle == RegleDeduction.UNICITE_LIGNES;
+                    long reste = vides;
+                    while (reste != 0) {
+                        long bit = reste & -reste;
+                        reste &= reste - 1;
+                        if (meneAContradiction(g, k, uns, remplies | bit, unicite)) versUn |= bit;
+                        if (meneAContradiction(g, k, uns | bit, remplies | bit, unicite)) versZero |= bit;
+                    }
+            }
+        }
+        forcees[0] = versZero;
+        forcees[1] = versUn;
+        return (versZero & versUn) == 0;
+    }
+
+    /**
+     * Propage paires, sandwichs et équilibre dans une ligne hypothétique.
+     * Avec {@code unicite}, une ligne complétée identique à une ligne complète existante
+     * est aussi une contradiction.
+     */
+    private boolean meneAContradiction(GrilleBinaire g, int k, long uns, long remplies, boolean unicite) {
+        while (true) {
+            if (!ReglesLigne.estCoherente(uns, remplies, taille)) return true;
+            long vides = plein & ~remplies;
+            if (vides == 0) return unicite && egaleLigneComplete(g, k, uns);
+            long versZero = ReglesLigne.interdites(uns, vides, taille);
+            long versUn = ReglesLigne.interdites(remplies & ~uns, vides, taille);
+            if ((versZero & versUn) != 0) return true;
+            if ((versZero | versUn) == 0) return false;
+            remplies |= versZero | versUn;
+            uns |= versUn;
+        }
+    }
+
+    private boolean egaleLigneComplete(GrilleBinaire g, int k, long uns) {
+        int debut = k < taille ? 0 : taille;
+        for (int autre = debut; autre < debut + taille; autre++) {
+            if (autre != k && g.masqueRemplies(autre) == plein && g.masqueUns(autre) == uns) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,90 @@
+package binairo.analyse;
+
+/**
+ * Résultat de l'évaluation d'une grille : histogramme des règles nécessaires,
+ * profondeur d'essai maximale et score.
+ */
+public class EvaluationDifficulte {
+
+    public enum Niveau { FACILE, MOYEN, DIFFICILE, EXPERT, DIABOLIQUE }
+
+    private final int[] histogramme;
+    private final int profondeurEssaiMax;
+    private final int essaisPonderes;
+    private final boolean resolue;
+
+    /**
+     * @param essaisPonderes somme des profondeurs de tous les essais effectués
+     */
+    public EvaluationDifficulte(int[] histogramme, int profondeurEssaiMax, int essaisPonderes, boolean resolue) {
+        this.histogramme = histogramme.clone();
+        this.profondeurEssaiMax = profondeurEssaiMax;
+        this.essaisPonderes = essaisPonderes;
+        this.resolue = resolue;
+    }
+
+    /**
+     * Nombre de cases déduites avec la règle donnée.
+     */
+    public int getNombre(RegleDeduction regle) {
+        return histogramme[regle.ordinal()];
+    }
+
+    /**
+     * Profondeur maximale d'essai et erreur utilisée (0 si aucun essai).
+     */
+    public int getProfondeurEssaiMax() {
+        return profondeurEssaiMax;
+    }
+
+    /**
+     * Faux si la grille n'a pas pu être terminée par déduction (ou est contradictoire).
+     */
+    public boolean estResolue() {
+        return resolue;
+    }
+
+    /**
+     * Règle la plus difficile utilisée, ou null si la grille était déjà complète.
+     */
+    public RegleDeduction getRegleMax() {
+        for (int r = histogramme.length - 1; r >= 0; r--) {
+            if (histogramme[r] > 0) return RegleDeduction.values()[r];
+        }
+        return null;
+    }
+
+    /**
+     * Somme des poids des déductions ; un essai compte autant de fois que sa profondeur.
+     */
+    public int getScore() {
+        int score = essaisPonderes * RegleDeduction.ESSAI_ERREUR.getPoids();
+        for (RegleDeduction r : RegleDeduction.values()) {
+            if (r != RegleDeduction.ESSAI_ERREUR) score += histogramme[r.ordinal()] * r.getPoids();
+        }
+        return score;
+    }
+
+    public Niveau getNiveau() {
+        if (!resolue || profondeurEssaiMax > 1) return Niveau.DIABOLIQUE;
+        RegleDeduction max = getRegleMax();
+        if (max == null) return Niveau.FACILE;
+        switch (max) {
+            case PAIRES_SANDWICHS:
+            case EQUILIBRE: return Niveau.FACILE;
+            case EQUILIBRE_ADJACENCE: return Niveau.MOYEN;
+            case UNICITE_LIGNES: return Niveau.DIFFICILE;
+            default: return Niveau.EXPERT;
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(getNiveau()).append(" (score ").append(getScore()).append(")");
+        for (RegleDeduction r : RegleDeduction.values()) {
+            sb.append(' ').append(histogramme[r.ordinal()]);
+        }
+        return sb.toString();
+    }
+}
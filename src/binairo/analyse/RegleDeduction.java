@@ -0,0 +1,31 @@
+package binairo.analyse;
+
+/**
+ * Niveaux de déduction "humaine", du plus simple au plus coûteux.
+ */
+public enum RegleDeduction {
+    PAIRES_SANDWICHS("Paires et sandwichs", 1),
+    EQUILIBRE("Complétion de l'équilibre", 2),
+    EQUILIBRE_ADJACENCE("Anticipation équilibre + adjacence", 4),
+    UNICITE_LIGNES("Élimination par unicité des lignes", 8),
+    ESSAI_ERREUR("Essai et erreur", 20);
+
+    private final String libelle;
+    private final int poids;
+
+    RegleDeduction(String libelle, int poids) {
+        this.libelle = libelle;
+        this.poids = poids;
+    }
+
+    public String getLibelle() {
+        return libelle;
+    }
+
+    /**
+     * Contribution d'une déduction de ce niveau au score de difficulté.
+     */
+    public int getPoids() {
+        return poids;
+    }
+}
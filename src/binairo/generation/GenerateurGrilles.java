@@ -0,0 +1,131 @@
+package binairo.generation;
+
+import binairo.modele.GrilleBinaire;
+import binairo.recherche.EvenementsRecherche;
+import binairo.recherche.MoteurBinairoRapide;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Générateur de grilles à solution unique.
+ *
+ * Une grille complète valide est d'abord tirée au hasard (moteur rapide avec ordre
+ * des valeurs aléatoire), puis les indices sont retirés dans un ordre aléatoire tant
+ * que la solution reste unique. Retirer la case c d'un énoncé à solution unique S
+ * garde l'unicité si et seulement si l'énoncé avec c forcée à l'opposé de S[c]
+ * n'a pas de solution : un seul test de satisfiabilité suffit par case.
+ * Ce test est borné en nœuds : si la preuve d'unicité coûte trop cher, l'indice
+ * est conservé (l'énoncé reste unique, avec un indice de plus).
+ *
+ * Le résultat ne dépend que de la graine et de la suite des appels.
+ * Une génération s'abandonne en interrompant son thread : elle lève alors
+ * {@link CancellationException}.
+ * Une instance n'est pas partagée entre threads.
+ */
+public class GenerateurGrilles {
+    private final SplittableRandom aleatoire;
+    private final MoteurBinairoRapide moteurAleatoire = new MoteurBinairoRapide();
+    private final MoteurBinairoRapide verificateur = new MoteurBinairoRapide();
+
+    public GenerateurGrilles(long graine) {
+        this(new SplittableRandom(graine));
+    }
+
+    public GenerateurGrilles(SplittableRandom aleatoire) {
+        this.aleatoire = aleatoire;
+        this.moteurAleatoire.setAleatoire(aleatoire);
+    }
+
+    // Budget de nœuds d'un test d'unicité : 4 par case, plafonné pour les grandes
+    // grilles où une preuve longue coûte plus cher que l'indice qu'elle retirerait
+    private static final int BUDGET_VERIFICATION_PAR_CASE = 4;
+    private static final long BUDGET_VERIFICATION_MAX = 256;
+
+    /**
+     * Nombre d'indices visé pour les grilles de jeu : environ un tiers des cases.
+     */
+    public static int indicesParDefaut(int taille) {
+        return taille * taille / 3;
+    }
+
+    /**
+     * Tire une grille complète valide au hasard.
+     * La recherche aléatoire a une distribution de coût à queue lourde : elle est
+     * relancée plutôt que de s'enliser. Une tentative qui aboutit coûte moins de n²
+     * nœuds, et au-delà de 32 seule une tentative sur dix environ aboutit : le budget
+     * croît donc lentement (de n²/8 par échec) pour garder des tentatives courtes.
+     */
+    public GrilleBinaire genererSolution(int taille) {
+        GrilleBinaire vide = new GrilleBinaire(taille);
+        long budget = (long) taille * taille;
+        long increment = Math.max(1, budget / 8);
+        for (int tentative = 1; ; tentative++) {
+            moteurAleatoire.setLimiteNoeuds(budget);
+            GrilleBinaire solution = moteurAleatoire.resoudre(vide);
+            if (solution != null) return solution;
+            verifierInterruption();
+            if (!moteurAleatoire.estInterrompu()) {
+                throw new IllegalStateException("Aucune grille complète de taille " + taille);
+            }
+            EvenementsRecherche.redemarrage("budget de nœuds épuisé", tentative, budget);
+            budget += increment;
+        }
+    }
+
+    /**
+     * Génère un énoncé à solution unique en retirant des indices jusqu'à atteindre
+     * la cible. Si la cible ne peut pas être atteinte sans perdre l'unicité, l'énoncé
+     * retourné est minimal (aucun indice ne peut plus être retiré).
+     * @param indicesCible nombre d'indices souhaité, 0 pour un énoncé minimal
+     */
+    public GrilleGeneree generer(int taille, int indicesCible) {
+        if (indicesCible < 0 || indicesCible > taille * taille) {
+            throw new IllegalArgumentException("Nombre d'indices invalide: " + indicesCible);
+        }
+        GrilleBinaire solution = genererSolution(taille);
+        GrilleBinaire enonce = new GrilleBinaire(solution);
+        GrilleBinaire essai = new GrilleBinaire(taille);
+
+        verificateur.setLimiteNoeuds(Math.min((long) BUDGET_VERIFICATION_PAR_CASE * taille * taille, BUDGET_VERIFICATION_MAX));
+        int[] ordre = melangerCases(taille * taille);
+        int nbIndices = taille * taille;
+        for (int k = 0; k < ordre.length && nbIndices > indicesCible; k++) {
+            verifierInterruption();
+            int i = ordre[k] / taille, j = ordre[k] % taille;
+            int valeur = enonce.get(i, j);
+
+            enonce.effacer(i, j);
+            essai.restaurer(enonce);
+            essai.placer(i, j, 1 - valeur);
+            if (verificateur.resoudre(essai) == null && !verificateur.estInterrompu()) {
+                nbIndices--;
+            } else {
+                enonce.placer(i, j, valeur);
+            }
+        }
+        return new GrilleGeneree(enonce.versEtat(), solution.versEtat(), nbIndices);
+    }
+
+    /**
+     * Un moteur interrompu rend null comme un budget épuisé : sans ce contrôle, la
+     * boucle de relance tournerait indéfiniment sur un thread interrompu.
+     */
+    private static void verifierInterruption() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Génération interrompue");
+        }
+    }
+
+    private int[] melangerCases(int nb) {
+        int[] ordre = new int[nb];
+        for (int k = 0; k < nb; k++) ordre[k] = k;
+        for (int k = nb - 1; k > 0; k--) {
+            int l = aleatoire.nextInt(k + 1);
+            int tmp = ordre[k];
+            ordre[k] = ordre[l];
+            ordre[l] = tmp;
+        }
+        return ordre;
+    }
+}
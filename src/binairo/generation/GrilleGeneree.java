@@ -0,0 +1,30 @@
+package binairo.generation;
+
+import binairo.modele.EtatBinairo;
+
+/**
+ * Grille produite par le générateur : l'énoncé (indices) et son unique solution.
+ */
+public class GrilleGeneree {
+    private final EtatBinairo enonce;
+    private final EtatBinairo solution;
+    private final int nbIndices;
+
+    public GrilleGeneree(EtatBinairo enonce, EtatBinairo solution, int nbIndices) {
+        this.enonce = enonce;
+        this.solution = solution;
+        this.nbIndices = nbIndices;
+    }
+
+    public EtatBinairo getEnonce() {
+        return enonce;
+    }
+
+    public EtatBinairo getSolution() {
+        return solution;
+    }
+
+    public int getNbIndices() {
+        return nbIndices;
+    }
+}
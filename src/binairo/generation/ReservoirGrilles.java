@@ -0,0 +1,189 @@
+package binairo.generation;
+
+import binairo.modele.EtatBinairo;
+import binairo.recherche.MoteurBinairoRapide;
+import binairo.recherche.OrdonnanceurRecherche;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Réserve de grilles prêtes à jouer, une file bornée par taille, remplie en arrière-plan
+ * sur la voie de fond de l'{@link OrdonnanceurRecherche}. Le remplissage avance d'une
+ * grille par tâche et se resoumet tant qu'une file n'est pas pleine : il ne garde pas de
+ * thread pendant que la réserve est pleine et cède la place aux tâches interactives.
+ * {@link #prendre(int)} est instantané tant que la file n'est pas vide ; sinon la grille
+ * est générée sur place.
+ *
+ * La réserve peut être sauvegardée et rechargée pour être pleine dès le démarrage ;
+ * les grilles rechargées sont revérifiées (solution unique) avant d'être servies.
+ */
+public class ReservoirGrilles {
+    private final Map<Integer, BlockingQueue<EtatBinairo>> files = new LinkedHashMap<>();
+    private final GenerateurGrilles generateurFond;
+    private final GenerateurGrilles generateurDirect;
+    // Une seule tâche de remplissage à la fois : le générateur de fond n'est pas partagé
+    private final AtomicBoolean remplissage = new AtomicBoolean();
+    private volatile Executor executeur;
+    private volatile boolean arrete;
+
+    /**
+     * @param tailles  tailles gardées en réserve
+     * @param capacite nombre de grilles prêtes par taille
+     */
+    public ReservoirGrilles(int[] tailles, int capacite, long graine) {
+        for (int taille : tailles) {
+            files.put(taille, new ArrayBlockingQueue<>(capacite));
+        }
+        this.generateurFond = new GenerateurGrilles(graine);
+        this.generateurDirect = new GenerateurGrilles(graine ^ 0x5DEECE66DL);
+    }
+
+    /**
+     * Démarre le remplissage sur la voie de fond de l'ordonnanceur global.
+     */
+    public void demarrer() {
+        demarrer(OrdonnanceurRecherche.global().executeur(OrdonnanceurRecherche.Voie.FOND));
+    }
+
+    /**
+     * Démarre le remplissage sur un exécuteur donné, une tâche par grille.
+     */
+    public synchronized void demarrer(Executor executeur) {
+        if (this.executeur != null) return;
+        this.executeur = executeur;
+        relancer();
+    }
+
+    public void arreter() {
+        arrete = true;
+    }
+
+    /**
+     * Retourne une grille de la taille demandée : depuis la réserve si possible,
+     * sinon générée immédiatement.
+     */
+    public EtatBinairo prendre(int taille) {
+        BlockingQueue<EtatBinairo> file = files.get(taille);
+        EtatBinairo grille = file == null ? null : file.poll();
+        if (grille != null) {
+            relancer();
+            return new EtatBinairo(grille);
+        }
+        synchronized (generateurDirect) {
+            return generateurDirect.generer(taille, GenerateurGrilles.indicesParDefaut(taille)).getEnonce();
+        }
+    }
+
+    /**
+     * Nombre de grilles prêtes pour une taille.
+     */
+    public int getDisponibles(int taille) {
+        BlockingQueue<EtatBinairo> file = files.get(taille);
+        return file == null ? 0 : file.size();
+    }
+
+    /**
+     * Soumet une tâche de remplissage s'il manque des grilles et qu'aucune n'est en cours.
+     * Une soumission refusée (file de l'exécuteur pleine) sera retentée au prochain
+     * {@link #prendre(int)}.
+     */
+    private void relancer() {
+        Executor cible = executeur;
+        if (cible == null || arrete || estPlein() || !remplissage.compareAndSet(false, true)) return;
+        try {
+            cible.execute(this::remplirUne);
+        } catch (RejectedExecutionException ex) {
+            remplissage.set(false);
+        }
+    }
+
+    private void remplirUne() {
+        try {
+            // La file la moins remplie est servie en premier
+            Map.Entry<Integer, BlockingQueue<EtatBinairo>> cible = null;
+            for (Map.Entry<Integer, BlockingQueue<EtatBinairo>> e : files.entrySet()) {
+                if (e.getValue().remainingCapacity() > 0
+                        && (cible == null || e.getValue().size() < cible.getValue().size())) {
+                    cible = e;
+                }
+            }
+            if (cible == null || arrete) return;
+            int taille = cible.getKey();
+            cible.getValue().offer(generateurFond.generer(taille, GenerateurGrilles.indicesParDefaut(taille)).getEnonce());
+        } finally {
+            remplissage.set(false);
+        }
+        relancer();
+    }
+
+    private boolean estPlein() {
+        for (BlockingQueue<EtatBinairo> file : files.values()) {
+            if (file.remainingCapacity() > 0) return false;
+        }
+        return true;
+    }
+
+    // --- Persistance ---
+
+    /**
+     * Sauvegarde les grilles prêtes (une par ligne, format {@link EtatBinairo#toLigne()}).
+     */
+    public void sauvegarder(Path fichier) throws IOException {
+        List<String> lignes = new ArrayList<>();
+        for (BlockingQueue<EtatBinairo> file : files.values()) {
+            for (EtatBinairo grille : file) {
+                lignes.add(grille.toLigne());
+            }
+        }
+        Path temporaire = fichier.resolveSibling(fichier.getFileName() + ".tmp");
+        try (BufferedWriter sortie = Files.newBufferedWriter(temporaire, StandardCharsets.UTF_8)) {
+            for (String ligne : lignes) {
+                sortie.write(ligne);
+                sortie.newLine();
+            }
+        }
+        Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Recharge des grilles sauvegardées. Les lignes illisibles, de taille non gérée ou
+     * dont la solution n'est pas unique sont ignorées ; un fichier absent aussi.
+     * @return le nombre de grilles ajoutées
+     */
+    public int charger(Path fichier) throws IOException {
+        if (!Files.exists(fichier)) return 0;
+        MoteurBinairoRapide verificateur = new MoteurBinairoRapide();
+        int nb = 0;
+        try (BufferedReader entree = Files.newBufferedReader(fichier, StandardCharsets.UTF_8)) {
+            String ligne;
+            while ((ligne = entree.readLine()) != null) {
+                EtatBinairo grille;
+                try {
+                    grille = EtatBinairo.depuisTexte(ligne);
+                } catch (IllegalArgumentException ex) {
+                    continue;
+                }
+                BlockingQueue<EtatBinairo> file = files.get(grille.getTaille());
+                if (file != null && verificateur.compterSolutions(grille, 2) == 1 && file.offer(grille)) {
+                    nb++;
+                }
+            }
+        }
+        return nb;
+    }
+}
@@ -1,22 +1,46 @@
 package binairo.gui;
 
+import binairo.generation.ReservoirGrilles;
 import binairo.modele.EtatBinairo;
+import binairo.outils.BancEssai;
+import binairo.recherche.BudgetsTaille;
+import binairo.recherche.ConfigurationCSP;
+import binairo.recherche.MoteurBinairoAbstrait;
+import binairo.recherche.LecteurTrace;
 import binairo.recherche.MoteurBinairoCSP;
+import binairo.recherche.ObservateurRecherche;
+import binairo.recherche.OrdonnanceurRecherche;
+import binairo.recherche.OrdonnanceurRecherche.Voie;
+import binairo.recherche.TraceRecherche;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.Random;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
 
 public class ApplicationBinairo extends JFrame {
     private EtatBinairo etatCourant;
     private EtatBinairo etatInitial; // Store initial state
-    private JButton[][] boutonsGrille;
-    private JPanel panneauGrille;
-    private MoteurBinairoCSP moteurCSP;
+    private PanneauGrille panneauGrille;
+    // Calculs longs hors de l'EDT, un à la fois, avec avancement et annulation
+    private SuiviTaches suivi;
+    // Affichage en direct de la recherche, relevé une trentaine de fois par seconde
+    private static final int PERIODE_VISUALISATION_MS = 33;
+    private Timer visualisation;
+    // Résolubilité revérifiée en arrière-plan après chaque modification
+    private SurveillanceResolubilite surveillance;
+    // Grilles pré-générées en arrière-plan, conservées entre deux lancements
+    private ReservoirGrilles reservoir;
+    private static final Path FICHIER_RESERVOIR = Paths.get(System.getProperty("user.home"), ".binairo-reservoir.txt");
     private int tailleGrille = 6; // Défaut
 
     // Options CSP
     private JCheckBox cbMRV, cbDegree, cbLCV, cbFC, cbAC3, cbAC4;
+    private JCheckBox cbVisualiser;
 
     public ApplicationBinairo() {
         super("Jeu Binairo - CSP");
@@ -24,11 +48,11 @@ public class ApplicationBinairo extends JFrame {
         setSize(1000, 700);
         setLocationRelativeTo(null);
 
-        moteurCSP = new MoteurBinairoCSP();
         etatCourant = new EtatBinairo(tailleGrille);
         etatInitial = new EtatBinairo(etatCourant); // Store initial state
 
         initialiserComposants();
+        demarrerReservoir();
        
        
     }
@@ -39,7 +63,11 @@ public class ApplicationBinairo extends JFrame {
         // Panneau Haut: 4 boutons principaux uniquement
         JPanel panneauControles = new JPanel(new FlowLayout(FlowLayout.LEFT));
 
-        String[] tailles = { "6x6", "8x8", "10x10" };
+        int[] taillesSupportees = BudgetsTaille.taillesSupportees();
+        String[] tailles = new String[taillesSupportees.length];
+        for (int k = 0; k < tailles.length; k++) {
+            tailles[k] = taillesSupportees[k] + "x" + taillesSupportees[k];
+        }
         JComboBox<String> comboTaille = new JComboBox<>(tailles);
         comboTaille.setSelectedIndex(0);
         comboTaille.addActionListener(e -> {
@@ -47,7 +75,7 @@ public class ApplicationBinairo extends JFrame {
             tailleGrille = Integer.parseInt(s.split("x")[0]);
             etatCourant = new EtatBinairo(tailleGrille);
             etatInitial = new EtatBinairo(etatCourant); // Store initial state
-            reconstruireGrilleUI();
+            mettreAJourGrilleUI();
         });
 
         JButton btnGenerer = new JButton("Générer");
@@ -63,6 +91,9 @@ public class ApplicationBinairo extends JFrame {
         panneauControles.add(btnResoudre);
         panneauControles.add(btnReset);
         panneauControles.add(btnComparer);
+        surveillance = new SurveillanceResolubilite();
+        panneauControles.add(Box.createHorizontalStrut(10));
+        panneauControles.add(surveillance);
 
         add(panneauControles, BorderLayout.NORTH);
 
@@ -80,13 +111,18 @@ public class ApplicationBinairo extends JFrame {
 
         JButton btnSauvegarder = new JButton("Sauvegarder");
         JButton btnCharger = new JButton("Charger");
+        JButton btnRejouer = new JButton("Rejouer une trace");
         btnSauvegarder.setMaximumSize(new Dimension(180, 30));
         btnCharger.setMaximumSize(new Dimension(180, 30));
+        btnRejouer.setMaximumSize(new Dimension(180, 30));
         btnSauvegarder.setAlignmentX(Component.LEFT_ALIGNMENT);
         btnCharger.setAlignmentX(Component.LEFT_ALIGNMENT);
+        btnRejouer.setAlignmentX(Component.LEFT_ALIGNMENT);
         sectionFichier.add(btnSauvegarder);
         sectionFichier.add(Box.createRigidArea(new Dimension(0, 5)));
         sectionFichier.add(btnCharger);
+        sectionFichier.add(Box.createRigidArea(new Dimension(0, 5)));
+        sectionFichier.add(btnRejouer);
 
         // Section Aide
         JPanel sectionAide = new JPanel();
@@ -116,6 +152,7 @@ public class ApplicationBinairo extends JFrame {
         cbFC = new JCheckBox("FC", false);
         cbAC3 = new JCheckBox("AC-3", false);
         cbAC4 = new JCheckBox("AC-4", false);
+        cbVisualiser = new JCheckBox("Visualiser la recherche", false);
 
         panneauOptions.add(cbMRV);
         panneauOptions.add(cbDegree);
@@ -123,6 +160,7 @@ public class ApplicationBinairo extends JFrame {
         panneauOptions.add(cbFC);
         panneauOptions.add(cbAC3);
         panneauOptions.add(cbAC4);
+        panneauOptions.add(cbVisualiser);
 
         // Ajouter toutes les sections au panneau gauche
         panneauGauche.add(sectionFichier);
@@ -135,10 +173,18 @@ public class ApplicationBinairo extends JFrame {
         add(panneauGauche, BorderLayout.WEST);
 
         // Panneau Centre: Grille
-        panneauGrille = new JPanel();
-        reconstruireGrilleUI();
+        panneauGrille = new PanneauGrille();
+        panneauGrille.setEcouteurCase(this::jouerCase);
+        mettreAJourGrilleUI();
         add(panneauGrille, BorderLayout.CENTER);
 
+        suivi = new SuiviTaches();
+        for (Component action : new Component[]{comboTaille, btnGenerer, btnVerifier, btnResoudre,
+                btnReset, btnComparer, btnCharger, btnRejouer}) {
+            suivi.ajouterAction(action);
+        }
+        add(suivi, BorderLayout.SOUTH);
+
         // Actions des boutons
         btnGenerer.addActionListener(e -> genererGrilleAleatoire());
 
@@ -172,7 +218,7 @@ public class ApplicationBinairo extends JFrame {
                     etatCourant = EtatBinairo.charger(fileChooser.getSelectedFile().getAbsolutePath());
                     etatInitial = new EtatBinairo(etatCourant); // Store initial state when loading
                     tailleGrille = etatCourant.getTaille();
-                    reconstruireGrilleUI();
+                    mettreAJourGrilleUI();
                     JOptionPane.showMessageDialog(this,
                             "Grille chargée avec succès:\n" + fileChooser.getSelectedFile().getName(),
                             "Chargement Réussi", JOptionPane.INFORMATION_MESSAGE);
@@ -184,6 +230,8 @@ public class ApplicationBinairo extends JFrame {
             }
         });
 
+        btnRejouer.addActionListener(e -> rejouerTrace());
+
         btnVerifier.addActionListener(e -> {
             StringBuilder message = new StringBuilder();
             message.append("=== VÉRIFICATION ===\n\n");
@@ -206,46 +254,31 @@ public class ApplicationBinairo extends JFrame {
 
             JOptionPane.showMessageDialog(this, message.toString(),
                     "Vérification", JOptionPane.INFORMATION_MESSAGE);
-            // Vérification de la résolubilité dans un thread séparé
-            new Thread(() -> {
-                EtatBinairo copie = new EtatBinairo(etatCourant);
-                moteurCSP.configurer(true, true, true, false, false, false);
-                EtatBinairo solution = moteurCSP.resoudre(copie);
-
-                SwingUtilities.invokeLater(() -> {
-                    String result = solution != null
-                            ? "✓ La grille est RÉSOLUBLE\n(solution trouvée en " + moteurCSP.getTempsExecution() + "ms)"
-                            : "✗ La grille est NON RÉSOLUBLE\n(aucune solution trouvée)";
-                    JOptionPane.showMessageDialog(this, result,
-                            "Résolubilité",
-                            solution != null ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.WARNING_MESSAGE);
-                });
-            }).start();
-            
-        });
-
-        btnAide.addActionListener(e -> {
-            int[] suggestion = etatCourant.getSuggestion();
-            if (suggestion != null) {
-                String message = String.format(
-                    "Suggestion trouvée!\n\nPosition: Ligne %d, Colonne %d\nValeur: %d\n\nVoulez-vous appliquer cette suggestion?",
-                    suggestion[0] + 1, suggestion[1] + 1, suggestion[2]
-                );
-                
-                int response = JOptionPane.showConfirmDialog(this, message,
-                        "Suggestion", JOptionPane.YES_NO_OPTION);
-                
-                if (response == JOptionPane.YES_OPTION) {
-                    etatCourant.setValeur(suggestion[0], suggestion[1], suggestion[2]);
-                    mettreAJourGrilleUI();
-                }
-            } else {
+            if (surveillance.getSolutionConnue() != null) {
                 JOptionPane.showMessageDialog(this,
-                        "Aucune suggestion évidente trouvée.\nEssayez l'analyse manuelle ou utilisez la vérification.",
-                        "Pas de Suggestion", JOptionPane.INFORMATION_MESSAGE);
+                        "✓ La grille est RÉSOLUBLE\n(solution déjà trouvée par la vérification automatique)",
+                        "Résolubilité", JOptionPane.INFORMATION_MESSAGE);
+                return;
             }
+            // Vérification de la résolubilité hors de l'EDT
+            MoteurBinairoAbstrait moteur = BudgetsTaille.moteurPour(tailleGrille,
+                    ConfigurationCSP.parDefaut().creerMoteur());
+            EtatBinairo copie = new EtatBinairo(etatCourant);
+            suivi.lancer("Vérification de la résolubilité", Voie.INTERACTIVE, progression -> {
+                progression.suivre(moteur);
+                return moteur.resoudre(copie);
+            }, solution -> {
+                String result = solution != null
+                        ? "✓ La grille est RÉSOLUBLE\n(solution trouvée en " + moteur.getTempsExecution() + "ms)"
+                        : "✗ La grille est NON RÉSOLUBLE\n(aucune solution trouvée)";
+                JOptionPane.showMessageDialog(this, result,
+                        "Résolubilité",
+                        solution != null ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.WARNING_MESSAGE);
+            });
         });
 
+        btnAide.addActionListener(e -> demanderSuggestion(btnAide));
+
         btnRetour.addActionListener(e -> {
             if (etatCourant.annulerCoup()) {
                 mettreAJourGrilleUI();
@@ -257,59 +290,80 @@ public class ApplicationBinairo extends JFrame {
 
         btnResoudre.addActionListener(e -> {
             java.util.List<String> algosActifs = new java.util.ArrayList<>();
-            if (cbMRV.isSelected())
-                algosActifs.add("MVR");
-            if (cbDegree.isSelected())
-                algosActifs.add("Degree");
-            if (cbLCV.isSelected())
-                algosActifs.add("LCV");
-            if (cbFC.isSelected())
-                algosActifs.add("FC");
-            if (cbAC3.isSelected())
-                algosActifs.add("AC-3");
-            if (cbAC4.isSelected())
-                algosActifs.add("AC-4");
+            if (tailleGrille > BudgetsTaille.TAILLE_MAX_CSP) {
+                algosActifs.add("Propagation + sondage (grande grille)");
+            } else {
+                if (cbMRV.isSelected())
+                    algosActifs.add("MVR");
+                if (cbDegree.isSelected())
+                    algosActifs.add("Degree");
+                if (cbLCV.isSelected())
+                    algosActifs.add("LCV");
+                if (cbFC.isSelected())
+                    algosActifs.add("FC");
+                if (cbAC3.isSelected())
+                    algosActifs.add("AC-3");
+                if (cbAC4.isSelected())
+                    algosActifs.add("AC-4");
+            }
 
             String algosUtilises = algosActifs.isEmpty() ? "Aucun (backtracking simple)"
                     : String.join(", ", algosActifs);
 
+            // Un moteur neuf par tâche : une recherche annulée peut finir son nœud
+            // pendant que la suivante démarre
+            MoteurBinairoCSP moteurCSP = new MoteurBinairoCSP();
             moteurCSP.configurer(cbMRV.isSelected(), cbDegree.isSelected(), cbLCV.isSelected(),
                     cbFC.isSelected(), cbAC3.isSelected(), cbAC4.isSelected());
+            MoteurBinairoAbstrait moteur = BudgetsTaille.moteurPour(tailleGrille, moteurCSP);
+            EtatBinairo solutionConnue = surveillance.getSolutionConnue();
+            if (moteur != moteurCSP && solutionConnue != null) {
+                // Grande grille déjà résolue par la vérification automatique
+                etatCourant = new EtatBinairo(solutionConnue);
+                mettreAJourGrilleUI();
+                JOptionPane.showMessageDialog(this,
+                        "✓ SOLUTION TROUVÉE!\n\n  • Reprise de la vérification automatique\n  • Algorithmes: " + algosUtilises + "\n",
+                        "Solution Trouvée", JOptionPane.INFORMATION_MESSAGE);
+                return;
+            }
+            EtatBinairo copie = new EtatBinairo(etatCourant);
+            ObservateurRecherche observateur = null;
+            if (cbVisualiser.isSelected() && moteur == moteurCSP) {
+                observateur = new ObservateurRecherche();
+                moteurCSP.setObservateur(observateur);
+            }
 
-            JOptionPane.showMessageDialog(this,
-                    "RÉSOLUTION CSP EN COURS\n\n" +
-                            "Algorithmes: " + algosUtilises + "\n" +
-                            "Taille: " + tailleGrille + "x" + tailleGrille + "\n\n" +
-                            "Veuillez patienter...",
-                    "Résolution CSP", JOptionPane.INFORMATION_MESSAGE);
-
-            new Thread(() -> {
-                EtatBinairo solution = moteurCSP.resoudre(new EtatBinairo(etatCourant));
-                SwingUtilities.invokeLater(() -> {
-                    StringBuilder result = new StringBuilder();
-                    if (solution != null) {
-                        etatCourant = solution;
-                        mettreAJourGrilleUI();
-                        result.append("✓ SOLUTION TROUVÉE!\n\n");
-                        result.append("  • Temps: ").append(moteurCSP.getTempsExecution()).append(" ms\n");
-                        result.append("  • Nœuds: ").append(moteurCSP.getNoeudsExplores()).append("\n");
-                        result.append("  • Algorithmes: ").append(algosUtilises).append("\n");
-
-                        // Afficher le rapport de comparaison
-                        
-
-                        JOptionPane.showMessageDialog(this, result.toString(),
-                                "Solution Trouvée", JOptionPane.INFORMATION_MESSAGE);
-                    } else {
-                        result.append("✗ AUCUNE SOLUTION!\n\n");
-                        result.append("  • Temps: ").append(moteurCSP.getTempsExecution()).append(" ms\n");
-                        result.append("  • Nœuds: ").append(moteurCSP.getNoeudsExplores()).append("\n");
-
-                        JOptionPane.showMessageDialog(this, result.toString(),
-                                "Aucune Solution", JOptionPane.WARNING_MESSAGE);
-                    }
-                });
-            }).start();
+            boolean lancee = suivi.lancer("Résolution " + tailleGrille + "x" + tailleGrille + " (" + algosUtilises + ")",
+                    Voie.INTERACTIVE, progression -> {
+                progression.suivre(moteur);
+                return moteur.resoudre(copie);
+            }, solution -> {
+                StringBuilder result = new StringBuilder();
+                if (solution != null) {
+                    etatCourant = solution;
+                    mettreAJourGrilleUI();
+                    result.append("✓ SOLUTION TROUVÉE!\n\n");
+                    result.append("  • Temps: ").append(moteur.getTempsExecution()).append(" ms\n");
+                    result.append("  • Nœuds: ").append(moteur.getNoeudsExplores()).append("\n");
+                    result.append(ressources(moteur));
+                    result.append("  • Algorithmes: ").append(algosUtilises).append("\n");
+
+                    // Afficher le rapport de comparaison
+                    
+
+                    JOptionPane.showMessageDialog(this, result.toString(),
+                            "Solution Trouvée", JOptionPane.INFORMATION_MESSAGE);
+                } else {
+                    result.append("✗ AUCUNE SOLUTION!\n\n");
+                    result.append("  • Temps: ").append(moteur.getTempsExecution()).append(" ms\n");
+                    result.append("  • Nœuds: ").append(moteur.getNoeudsExplores()).append("\n");
+                    result.append(ressources(moteur));
+
+                    JOptionPane.showMessageDialog(this, result.toString(),
+                            "Aucune Solution", JOptionPane.WARNING_MESSAGE);
+                }
+            });
+            if (lancee && observateur != null) visualiser(observateur);
         });
 
         // Add action listener for reset button
@@ -337,195 +391,218 @@ public class ApplicationBinairo extends JFrame {
         }
     }
 
-    // New method to compare different CSP methods
+    private static String ressources(MoteurBinairoAbstrait moteur) {
+        return String.format(Locale.FRANCE, "  • CPU: %.1f ms | Mémoire allouée: %,d Ko%n",
+                moteur.getTempsCpu() / 1e6, moteur.getOctetsAlloues() / 1024);
+    }
+
+    /**
+     * Calcule une suggestion sur une copie de la grille, dans la voie interactive de
+     * l'ordonnanceur : une recherche de la comparaison en cours est suspendue le temps du calcul au lieu
+     * de disputer le processeur à l'EDT. Le résultat est ignoré si la grille a changé entre-temps.
+     */
+    private void demanderSuggestion(JButton btnAide) {
+        EtatBinairo grille = etatCourant;
+        EtatBinairo copie = new EtatBinairo(grille);
+        String avant = copie.toLigne();
+        btnAide.setEnabled(false);
+        try {
+            OrdonnanceurRecherche.global().soumettre(Voie.INTERACTIVE, () -> {
+                int[] suggestion = null;
+                try {
+                    suggestion = copie.getSuggestion();
+                } finally {
+                    int[] resultat = suggestion;
+                    SwingUtilities.invokeLater(() -> {
+                        btnAide.setEnabled(true);
+                        if (etatCourant == grille && avant.equals(etatCourant.toLigne())) {
+                            afficherSuggestion(resultat);
+                        }
+                    });
+                }
+            });
+        } catch (java.util.concurrent.RejectedExecutionException ex) {
+            btnAide.setEnabled(true);
+        }
+    }
+
+    private void afficherSuggestion(int[] suggestion) {
+        if (suggestion != null) {
+            String message = String.format(
+                "Suggestion trouvée!\n\nPosition: Ligne %d, Colonne %d\nValeur: %d\n\nVoulez-vous appliquer cette suggestion?",
+                suggestion[0] + 1, suggestion[1] + 1, suggestion[2]
+            );
+
+            int response = JOptionPane.showConfirmDialog(this, message,
+                    "Suggestion", JOptionPane.YES_NO_OPTION);
+
+            if (response == JOptionPane.YES_OPTION) {
+                etatCourant.setValeur(suggestion[0], suggestion[1], suggestion[2]);
+                mettreAJourGrilleUI();
+            }
+        } else {
+            JOptionPane.showMessageDialog(this,
+                    "Aucune suggestion évidente trouvée.\nEssayez l'analyse manuelle ou utilisez la vérification.",
+                    "Pas de Suggestion", JOptionPane.INFORMATION_MESSAGE);
+        }
+    }
+
+    // Comparaison des méthodes CSP sur la grille courante, par le banc d'essai
+    private static final int COMPARAISON_ECHAUFFEMENT = 2;
+    private static final int COMPARAISON_REPETITIONS = 5;
+    private static final long COMPARAISON_DELAI_MS = 10_000;
+
     private void comparerMethodes() {
-        JOptionPane.showMessageDialog(this,
-                "Comparaison des méthodes CSP en cours...\n\n" +
-                "Cette opération peut prendre quelques secondes.",
-                "Comparaison", JOptionPane.INFORMATION_MESSAGE);
-
-        new Thread(() -> {
-            // Configuration des différentes méthodes à comparer
-            Object[][] configurations = {
-                {false, false, false, false, false, false, "Backtracking simple"},
-                {true, false, false, false, false, false, "MRV seulement"},
-                {true, true, false, false, false, false, "MRV + Degree"},
-                {true, true, true, false, false, false, "MRV + Degree + LCV"},
-                {true, true, true, true, false, false, "+ Forward Checking"},
-                {true, true, true, false, true, false, "+ AC-3"},
-                {true, true, true, true, true, false, "Toutes sauf AC-4"},
-                {true, true, true, true, true, true, "Toutes méthodes"}
-            };
+        EtatBinairo grille = new EtatBinairo(etatCourant);
+        int taille = tailleGrille;
+        suivi.lancer("Comparaison des méthodes", Voie.FOND, progression -> {
+            java.util.List<ConfigurationCSP> configurations = ConfigurationCSP.standards();
+            int[] numero = {0};
+            BancEssai banc = new BancEssai(COMPARAISON_ECHAUFFEMENT, COMPARAISON_REPETITIONS, 1, COMPARAISON_DELAI_MS);
+            java.util.List<BancEssai.Resultat> resultats = banc.mesurer(configurations,
+                    java.util.Collections.singletonList(grille),
+                    c -> progression.setEtape(c.getNom() + " (" + ++numero[0] + "/" + configurations.size() + ")"));
 
             StringBuilder rapport = new StringBuilder();
             rapport.append("=== COMPARAISON DES MÉTHODES CSP ===\n\n");
-            rapport.append("Grille: ").append(tailleGrille).append("x").append(tailleGrille).append("\n\n");
-
-            for (Object[] config : configurations) {
-                boolean mrv = (boolean) config[0];
-                boolean degree = (boolean) config[1];
-                boolean lcv = (boolean) config[2];
-                boolean fc = (boolean) config[3];
-                boolean ac3 = (boolean) config[4];
-                boolean ac4 = (boolean) config[5];
-                String nom = (String) config[6];
-
-                moteurCSP.configurer(mrv, degree, lcv, fc, ac3, ac4);
-                EtatBinairo copie = new EtatBinairo(etatCourant);
-                EtatBinairo solution = moteurCSP.resoudre(copie);
-
-                rapport.append(String.format("%-25s | ", nom));
-                if (solution != null) {
-                    rapport.append(String.format("✓ %6d ms | %6d nœuds", 
-                        moteurCSP.getTempsExecution(), moteurCSP.getNoeudsExplores()));
-                } else {
-                    rapport.append(String.format("✗ %6d ms | %6d nœuds", 
-                        moteurCSP.getTempsExecution(), moteurCSP.getNoeudsExplores()));
-                }
-                rapport.append("\n");
-            }
+            rapport.append("Grille: ").append(taille).append("x").append(taille).append("\n\n");
+            BancEssai.ecrireTexte(resultats, rapport);
 
             rapport.append("\nLégende:\n");
-            rapport.append("• ✓ : Solution trouvée\n");
-            rapport.append("• ✗ : Aucune solution trouvée\n");
-            rapport.append("• Temps en millisecondes\n");
-            rapport.append("• Nœuds : nombre de nœuds explorés\n");
-
-            final String rapportFinal = rapport.toString();
-            SwingUtilities.invokeLater(() -> {
-                JTextArea textArea = new JTextArea(rapportFinal);
-                textArea.setEditable(false);
-                textArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
-                JScrollPane scrollPane = new JScrollPane(textArea);
-                scrollPane.setPreferredSize(new Dimension(600, 400));
-                
-                JOptionPane.showMessageDialog(this, scrollPane,
-                        "Rapport de Comparaison", JOptionPane.INFORMATION_MESSAGE);
-            });
-        }).start();
+            rapport.append("• ").append(COMPARAISON_ECHAUFFEMENT).append(" résolutions d'échauffement, puis ")
+                    .append(COMPARAISON_REPETITIONS).append(" mesurées par méthode\n");
+            rapport.append("• Temps en millisecondes (médiane, p90, p99, écart type)\n");
+            rapport.append("• nœuds/s : nœuds explorés par seconde\n");
+            rapport.append("• CPU : temps CPU moyen d'une résolution (ms) ; alloué : mémoire allouée par résolution\n");
+            rapport.append("• résolu : part des résolutions abouties (délai ").append(COMPARAISON_DELAI_MS / 1000).append(" s)\n");
+            rapport.append("• Corpus complet : binairo.outils.BancEssai (CSV ou JSON)\n");
+            return rapport.toString();
+        }, rapportFinal -> {
+            JTextArea textArea = new JTextArea(rapportFinal);
+            textArea.setEditable(false);
+            textArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
+            JScrollPane scrollPane = new JScrollPane(textArea);
+            scrollPane.setPreferredSize(new Dimension(760, 400));
+
+            JOptionPane.showMessageDialog(this, scrollPane,
+                    "Rapport de Comparaison", JOptionPane.INFORMATION_MESSAGE);
+        });
     }
 
-    private void reconstruireGrilleUI() {
-        panneauGrille.removeAll();
-        panneauGrille.setLayout(new GridLayout(tailleGrille, tailleGrille, 2, 2));
-        panneauGrille.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
-        boutonsGrille = new JButton[tailleGrille][tailleGrille];
-
-        for (int i = 0; i < tailleGrille; i++) {
-            for (int j = 0; j < tailleGrille; j++) {
-                JButton btn = new JButton();
-                btn.setFont(new Font("Arial", Font.BOLD, 24));
-                final int r = i;
-                final int c = j;
-
-                btn.addActionListener(e -> {
-                    Integer val = etatCourant.getValeur(r, c);
-                    if (val == null || val == EtatBinairo.VIDE) {
-                        etatCourant.setValeur(r, c, 0);
-                    } else if (val == 0) {
-                        etatCourant.setValeur(r, c, 1);
-                    } else {
-                        etatCourant.setValeur(r, c, EtatBinairo.VIDE);
-                    }
-                    mettreAJourBouton(r, c);
-                });
-
-                boutonsGrille[i][j] = btn;
-                panneauGrille.add(btn);
+    /**
+     * Affiche la recherche en cours : l'instantané déposé par le moteur est relevé
+     * à chaque tic, et la grille revient à l'état courant quand la tâche se termine.
+     */
+    private void visualiser(ObservateurRecherche observateur) {
+        visualisation = new Timer(PERIODE_VISUALISATION_MS, e -> {
+            if (!suivi.estOccupe()) {
+                ((Timer) e.getSource()).stop();
+                visualisation = null;
+                mettreAJourGrilleUI();
+                return;
             }
-        }
-        mettreAJourGrilleUI();
-        panneauGrille.revalidate();
-        panneauGrille.repaint();
+            ObservateurRecherche.Instantane instantane = observateur.relever();
+            if (instantane != null) panneauGrille.afficherEtape(instantane.getEtat());
+        });
+        visualisation.start();
     }
 
-    private void mettreAJourGrilleUI() {
-        for (int i = 0; i < tailleGrille; i++) {
-            for (int j = 0; j < tailleGrille; j++) {
-                mettreAJourBouton(i, j);
+    // Rythme du rejeu d'une trace : une décision par milliseconde
+    private static final long REJEU_PAUSE_MS = 1;
+
+    /**
+     * Rejoue dans la grille une trace enregistrée par {@link TraceRecherche} (première
+     * recherche du fichier), au rythme de {@link #REJEU_PAUSE_MS} par décision.
+     * À la fin, la grille de départ de la trace est chargée avec l'état final.
+     */
+    private void rejouerTrace() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Rejouer une trace de recherche");
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        Path fichier = fileChooser.getSelectedFile().toPath();
+
+        ObservateurRecherche observateur = new ObservateurRecherche();
+        // En fond : le rejeu dort presque tout le temps et n'a pas à suspendre les autres calculs
+        boolean lancee = suivi.lancer("Rejeu de " + fichier.getFileName(), Voie.FOND, progression -> {
+            try (LecteurTrace lecteur = LecteurTrace.ouvrir(fichier)) {
+                long decisions = 0;
+                LecteurTrace.Type type;
+                while ((type = lecteur.suivant()) != null && type != LecteurTrace.Type.FIN) {
+                    if (type != LecteurTrace.Type.DECISION) continue;
+                    lecteur.publier(observateur, ++decisions);
+                    progression.setEtape(decisions + " décisions, profondeur " + lecteur.getProfondeur());
+                    Thread.sleep(REJEU_PAUSE_MS);
+                }
+                if (lecteur.getDepart() == null) throw new IOException("Trace sans recherche");
+                return new EtatBinairo[]{lecteur.getDepart(), new EtatBinairo(lecteur.getEtat())};
             }
-        }
+        }, grilles -> {
+            etatInitial = grilles[0];
+            etatCourant = grilles[1];
+            tailleGrille = etatCourant.getTaille();
+            mettreAJourGrilleUI();
+        });
+        if (lancee) visualiser(observateur);
     }
 
-    private void mettreAJourBouton(int i, int j) {
-        Integer val = etatCourant.getValeur(i, j);
-        JButton bouton = boutonsGrille[i][j];
-        
+    /**
+     * Clic sur une case : vide → 0 → 1 → vide. Seules la case et celles dont le statut
+     * de conflit change sont redessinées.
+     */
+    private void jouerCase(int r, int c) {
+        // La grille affichée est celle de la recherche en cours
+        if (visualisation != null) return;
+        Integer val = etatCourant.getValeur(r, c);
         if (val == null || val == EtatBinairo.VIDE) {
-            bouton.setText("");
-            bouton.setBackground(Color.WHITE);
-            bouton.setForeground(Color.BLACK);
+            etatCourant.setValeur(r, c, 0);
+        } else if (val == 0) {
+            etatCourant.setValeur(r, c, 1);
         } else {
-            bouton.setText(val.toString());
-            if (val == 0) {
-                bouton.setBackground(new Color(200, 220, 255)); // Bleu clair pour 0
-                bouton.setForeground(Color.BLUE);
-            } else {
-                bouton.setBackground(new Color(255, 200, 200)); // Rouge clair pour 1
-                bouton.setForeground(Color.RED);
-            }
+            etatCourant.setValeur(r, c, EtatBinairo.VIDE);
         }
+        panneauGrille.rafraichirCase(r, c);
+        surveillance.signalerModification(etatCourant);
+    }
 
-        // Marquer les cases initiales (non modifiables) différemment
-        Integer valInitial = etatInitial.getValeur(i, j);
-        if (valInitial != null && valInitial != EtatBinairo.VIDE) {
-            bouton.setBorder(BorderFactory.createLineBorder(Color.DARK_GRAY, 2));
-            bouton.setFont(new Font("Arial", Font.BOLD, 24));
-        } else {
-            bouton.setBorder(BorderFactory.createLineBorder(Color.LIGHT_GRAY, 1));
-        }
+    private void mettreAJourGrilleUI() {
+        panneauGrille.afficher(etatCourant, etatInitial);
+        surveillance.signalerModification(etatCourant);
     }
 
-    private void genererGrilleAleatoire() {
-        int maxTentatives = 100;
-        int tentatives = 0;
-        
-        JOptionPane.showMessageDialog(this,
-                "Génération d'une grille résoluble en cours...\nVeuillez patienter.",
-                "Génération", JOptionPane.INFORMATION_MESSAGE);
-        
-        while (tentatives < maxTentatives) {
-            etatCourant = new EtatBinairo(tailleGrille);
-            Random rand = new Random();
-            int nbCases = tailleGrille * tailleGrille / 4;
-
-            // Générer une grille valide
-            for (int k = 0; k < nbCases; k++) {
-                int r = rand.nextInt(tailleGrille);
-                int c = rand.nextInt(tailleGrille);
-                int v = rand.nextInt(2);
-                
-                if (etatCourant.getValeur(r, c) == EtatBinairo.VIDE) {
-                    etatCourant.setValeur(r, c, v);
-                    if (!etatCourant.estValide()) {
-                        etatCourant.annulerCoup();
-                    }
-                }
+    private void demarrerReservoir() {
+        // Tailles courantes jusqu'au 20x20 ; au-delà, générées à la demande
+        reservoir = new ReservoirGrilles(new int[]{6, 8, 10, 12, 14, 16, 20}, 8, System.nanoTime());
+        // Rechargement et remplissage hors de l'EDT, en fond
+        OrdonnanceurRecherche.global().soumettre(Voie.FOND, () -> {
+            try {
+                reservoir.charger(FICHIER_RESERVOIR);
+            } catch (IOException ex) {
+                System.err.println("Réserve de grilles ignorée: " + ex.getMessage());
             }
+            reservoir.demarrer();
+        });
 
-            // Vérifier si la grille est résoluble
-            EtatBinairo copie = new EtatBinairo(etatCourant);
-            moteurCSP.configurer(true, true, true, false, false, false);
-            EtatBinairo solution = moteurCSP.resoudre(copie);
-            
-            if (solution != null) {
-                etatInitial = new EtatBinairo(etatCourant);
-                mettreAJourGrilleUI();
-                
-                return;
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                reservoir.arreter();
+                try {
+                    reservoir.sauvegarder(FICHIER_RESERVOIR);
+                } catch (IOException ex) {
+                    System.err.println("Sauvegarde de la réserve impossible: " + ex.getMessage());
+                }
             }
-            
-            tentatives++;
-        }
-        
-        // Si on n'a pas trouvé de grille résoluble, utiliser celle qu'on a
-        etatInitial = new EtatBinairo(etatCourant);
-        mettreAJourGrilleUI();
-        
-        JOptionPane.showMessageDialog(this,
-                "Attention: La grille générée pourrait être difficile à résoudre.\n" +
-                "Aucune grille résoluble n'a été trouvée après " + maxTentatives + " tentatives.",
-                "Génération", JOptionPane.WARNING_MESSAGE);
+        });
+    }
+
+    private void genererGrilleAleatoire() {
+        // Grille à solution unique prise dans la réserve, ou générée hors de l'EDT si elle est vide
+        int taille = tailleGrille;
+        suivi.lancer("Génération " + taille + "x" + taille, Voie.INTERACTIVE, progression -> reservoir.prendre(taille), grille -> {
+            etatCourant = grille;
+            etatInitial = new EtatBinairo(etatCourant);
+            mettreAJourGrilleUI();
+        });
     }
 
     public static void main(String[] args) {
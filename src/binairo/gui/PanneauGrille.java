@@ -0,0 +1,263 @@
+package binairo.gui;
+
+import binairo.modele.EtatBinairo;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Grille dessinée dans un seul composant, à la place d'une matrice de boutons.
+ *
+ * Chaque combinaison (valeur, bordure) est rendue une fois par taille de case dans une
+ * petite image opaque. La grille entière est tenue dans une image hors écran où seules
+ * les cases dont l'apparence a changé sont recopiées ; peindre le composant revient à
+ * recopier la partie visible de cette image. Un changement de case ne repeint que son
+ * rectangle. Un clic est converti en (ligne, colonne) et transmis à l'{@link EcouteurCase}.
+ */
+public class PanneauGrille extends JComponent {
+
+    public interface EcouteurCase {
+        void caseCliquee(int ligne, int colonne);
+    }
+
+    private static final int MARGE = 10;
+    private static final Color FOND_VIDE = Color.WHITE;
+    private static final Color FOND_ZERO = new Color(200, 220, 255);
+    private static final Color FOND_UN = new Color(255, 200, 200);
+    private static final Color BORD_INITIAL = Color.DARK_GRAY;
+    private static final Color BORD_LIBRE = Color.LIGHT_GRAY;
+    private static final Color BORD_CONFLIT = Color.RED;
+
+    private EtatBinairo etat;
+    private EtatBinairo etatInitial;
+    private long[] conflits = new long[0];
+    private EcouteurCase ecouteur;
+
+    // Géométrie courante, recalculée quand le composant ou la grille change de taille
+    private int taille;
+    private int cote;
+    private int espace;
+    private int origineX, origineY;
+    private int largeurCalculee = -1, hauteurCalculee = -1, tailleCalculee = -1;
+
+    // Cases pré-rendues pour le côté courant : [valeur + 1][bordure]
+    private static final int BORD_LIBRE_IDX = 0, BORD_INITIAL_IDX = 1, BORD_CONFLIT_IDX = 2;
+    private Image[][] tuiles;
+    private int coteTuiles = -1;
+
+    // Grille rendue hors écran et apparence de chaque case dans ce rendu (-1 : à dessiner)
+    private BufferedImage rendu;
+    private byte[] apparences = new byte[0];
+
+    public PanneauGrille() {
+        setOpaque(true);
+        setBackground(UIManager.getColor("Panel.background"));
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                if (etat == null || ecouteur == null || !SwingUtilities.isLeftMouseButton(e)) return;
+                calculerGeometrie();
+                int colonne = Math.floorDiv(e.getX() - origineX, cote);
+                int ligne = Math.floorDiv(e.getY() - origineY, cote);
+                if (ligne >= 0 && ligne < taille && colonne >= 0 && colonne < taille) {
+                    ecouteur.caseCliquee(ligne, colonne);
+                }
+            }
+        });
+    }
+
+    public void setEcouteurCase(EcouteurCase ecouteur) {
+        this.ecouteur = ecouteur;
+    }
+
+    /**
+     * Affiche une grille (après génération, chargement, résolution...) : tout est redessiné.
+     */
+    public void afficher(EtatBinairo etat, EtatBinairo etatInitial) {
+        this.etat = etat;
+        this.etatInitial = etatInitial;
+        this.conflits = etat.getCasesEnConflit();
+        if (etat.getTaille() != taille) {
+            taille = etat.getTaille();
+            tailleCalculee = -1;
+        }
+        if (preparerRendu()) {
+            dessinerTout();
+        }
+        repaint();
+    }
+
+    /**
+     * Après un coup sur (i, j) : redessine la case, puis les cases dont le statut
+     * de conflit a changé.
+     */
+    public void rafraichirCase(int i, int j) {
+        long[] anciens = conflits;
+        conflits = etat.getCasesEnConflit();
+        if (!preparerRendu()) return;
+        Graphics2D g = rendu.createGraphics();
+        repaindreCase(g, i, j);
+        for (int l = 0; l < conflits.length; l++) {
+            long change = conflits[l] ^ (l < anciens.length ? anciens[l] : 0);
+            for (; change != 0; change &= change - 1) {
+                repaindreCase(g, l, Long.numberOfTrailingZeros(change));
+            }
+        }
+        g.dispose();
+    }
+
+    /**
+     * Affiche une étape d'une recherche en cours (même taille, même énoncé) : seules
+     * les cases qui diffèrent de l'image précédente sont redessinées et repeintes.
+     */
+    public void afficherEtape(EtatBinairo etape) {
+        if (etat == null || etape.getTaille() != taille) {
+            afficher(etape, etatInitial);
+            return;
+        }
+        etat = etape;
+        conflits = etape.getCasesEnConflit();
+        if (!preparerRendu()) return;
+        Graphics2D g = rendu.createGraphics();
+        for (int i = 0; i < taille; i++) {
+            for (int j = 0; j < taille; j++) {
+                repaindreCase(g, i, j);
+            }
+        }
+        g.dispose();
+    }
+
+    private void repaindreCase(Graphics2D g, int i, int j) {
+        if (dessinerCase(g, i, j)) {
+            repaint(origineX + j * cote, origineY + i * cote, cote, cote);
+        }
+    }
+
+    /**
+     * Met à jour la géométrie, les tuiles et l'image hors écran (recréée, et toutes ses
+     * cases marquées à dessiner, si le côté des cases a changé).
+     * @return faux tant que le composant n'a pas de taille
+     */
+    private boolean preparerRendu() {
+        if (etat == null) return false;
+        calculerGeometrie();
+        if (getWidth() <= 0 || getHeight() <= 0) return false;
+        preparerTuiles();
+        int largeur = cote * taille;
+        if (rendu == null || rendu.getWidth() != largeur || apparences.length != taille * taille) {
+            GraphicsConfiguration config = getGraphicsConfiguration();
+            rendu = config != null ? config.createCompatibleImage(largeur, largeur)
+                    : new BufferedImage(largeur, largeur, BufferedImage.TYPE_INT_RGB);
+            apparences = new byte[taille * taille];
+            Arrays.fill(apparences, (byte) -1);
+            dessinerTout();
+        }
+        return true;
+    }
+
+    private void dessinerTout() {
+        Graphics2D g = rendu.createGraphics();
+        for (int i = 0; i < taille; i++) {
+            for (int j = 0; j < taille; j++) {
+                dessinerCase(g, i, j);
+            }
+        }
+        g.dispose();
+    }
+
+    /**
+     * Recopie la tuile de la case dans le rendu si son apparence a changé.
+     * @return vrai si la case a été redessinée
+     */
+    private boolean dessinerCase(Graphics2D g, int i, int j) {
+        int valeur = etat.getValeur(i, j);
+        int bord = i < conflits.length && (conflits[i] >>> j & 1) != 0 ? BORD_CONFLIT_IDX
+                : etatInitial != null && etatInitial.getValeur(i, j) != EtatBinairo.VIDE ? BORD_INITIAL_IDX : BORD_LIBRE_IDX;
+        byte apparence = (byte) ((valeur + 1) * 3 + bord);
+        int k = i * taille + j;
+        if (apparences[k] == apparence) return false;
+        apparences[k] = apparence;
+        g.drawImage(tuiles[valeur + 1][bord], j * cote, i * cote, null);
+        return true;
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(600, 600);
+    }
+
+    private void calculerGeometrie() {
+        int largeur = getWidth(), hauteur = getHeight();
+        if (largeur == largeurCalculee && hauteur == hauteurCalculee && taille == tailleCalculee) return;
+        largeurCalculee = largeur;
+        hauteurCalculee = hauteur;
+        tailleCalculee = taille;
+        if (taille == 0) return;
+        cote = Math.max(4, (Math.min(largeur, hauteur) - 2 * MARGE) / taille);
+        espace = cote >= 24 ? 2 : cote >= 12 ? 1 : 0;
+        origineX = (largeur - cote * taille) / 2;
+        origineY = (hauteur - cote * taille) / 2;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g0) {
+        Graphics2D g = (Graphics2D) g0;
+        Rectangle zone = g.getClipBounds();
+        if (zone == null) zone = new Rectangle(0, 0, getWidth(), getHeight());
+        g.setColor(getBackground());
+        g.fillRect(zone.x, zone.y, zone.width, zone.height);
+        if (etat == null) return;
+
+        if (!preparerRendu()) return;
+        g.drawImage(rendu, origineX, origineY, null);
+    }
+
+    /**
+     * Rend une fois par côté de case les neuf tuiles possibles (vide, 0, 1) × (libre,
+     * initiale, en conflit) : le dessin d'une case se réduit alors à une copie d'image opaque.
+     */
+    private void preparerTuiles() {
+        if (cote == coteTuiles) return;
+        coteTuiles = cote;
+        rendu = null;
+        int interieur = cote - espace;
+        Font police = new Font("Arial", Font.BOLD, Math.max(6, Math.min(24, interieur * 3 / 5)));
+        Color[] fonds = {FOND_VIDE, FOND_ZERO, FOND_UN};
+        Color[] bords = {BORD_LIBRE, BORD_INITIAL, BORD_CONFLIT};
+        int[] epaisseurs = {1, 2, 3};
+        GraphicsConfiguration config = getGraphicsConfiguration();
+
+        tuiles = new Image[3][3];
+        for (int v = 0; v < 3; v++) {
+            for (int b = 0; b < 3; b++) {
+                BufferedImage image = config != null
+                        ? config.createCompatibleImage(cote, cote)
+                        : new BufferedImage(cote, cote, BufferedImage.TYPE_INT_RGB);
+                Graphics2D g = image.createGraphics();
+                g.setColor(getBackground());
+                g.fillRect(0, 0, cote, cote);
+                g.setColor(fonds[v]);
+                g.fillRect(0, 0, interieur, interieur);
+                if (v > 0) {
+                    String texte = String.valueOf(v - 1);
+                    g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+                    g.setFont(police);
+                    g.setColor(v == 1 ? Color.BLUE : Color.RED);
+                    FontMetrics fm = g.getFontMetrics();
+                    g.drawString(texte, (interieur - fm.stringWidth(texte)) / 2,
+                            (interieur - fm.getHeight()) / 2 + fm.getAscent());
+                }
+                g.setColor(bords[b]);
+                for (int k = 0; k < epaisseurs[b] && 2 * k < interieur; k++) {
+                    g.drawRect(k, k, interieur - 1 - 2 * k, interieur - 1 - 2 * k);
+                }
+                g.dispose();
+                tuiles[v][b] = image;
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package binairo.gui;
+
+import binairo.recherche.MoteurBinairoAbstrait;
+import binairo.recherche.OrdonnanceurRecherche;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Barre d'état des calculs longs (génération, résolution, comparaison).
+ *
+ * Un calcul s'exécute dans un {@link SwingWorker}, soumis à une voie de
+ * l'{@link OrdonnanceurRecherche} global : interactive pour ce que l'utilisateur attend
+ * (résolution, vérification, génération), de fond pour les calculs de masse (comparaison),
+ * dont chacun des premiers suspend une recherche le temps de son exécution. L'EDT ne fait que lancer la tâche,
+ * afficher son avancement et recevoir le résultat. Une seule tâche tourne à la fois ;
+ * un nouveau lancement pendant qu'elle tourne est ignoré et les actions enregistrées
+ * sont désactivées jusqu'à la fin. Un minuteur Swing lit dix fois par seconde le nombre
+ * de nœuds du moteur publié dans la {@link Progression} et le temps écoulé.
+ * "Annuler" interrompt le thread de la tâche et demande l'arrêt du moteur en cours.
+ */
+public class SuiviTaches extends JPanel {
+
+    /**
+     * Calcul exécuté hors de l'EDT.
+     */
+    public interface Travail<T> {
+        T executer(Progression progression) throws Exception;
+    }
+
+    /**
+     * Avancement publié par la tâche et lu par le minuteur de l'EDT.
+     */
+    public static final class Progression {
+        private volatile MoteurBinairoAbstrait moteur;
+        private volatile String etape;
+
+        /**
+         * Moteur dont les nœuds sont affichés, et qu'"Annuler" arrête.
+         */
+        public void suivre(MoteurBinairoAbstrait moteur) {
+            this.moteur = moteur;
+        }
+
+        public void setEtape(String etape) {
+            this.etape = etape;
+        }
+    }
+
+    private static final int PERIODE_AFFICHAGE_MS = 100;
+
+    private final JLabel libelle = new JLabel("Prêt");
+    private final JProgressBar barre = new JProgressBar();
+    private final JButton btnAnnuler = new JButton("Annuler");
+    private final Timer minuteur;
+    private final List<Component> actions = new ArrayList<>();
+
+    private SwingWorker<?, ?> courant;
+    private Progression progression;
+    private String nomCourant;
+    private long debut;
+
+    public SuiviTaches() {
+        super(new BorderLayout(10, 0));
+        setBorder(BorderFactory.createEmptyBorder(4, 10, 4, 10));
+        barre.setPreferredSize(new Dimension(150, barre.getPreferredSize().height));
+        barre.setVisible(false);
+        btnAnnuler.setEnabled(false);
+        btnAnnuler.addActionListener(e -> annuler());
+
+        JPanel droite = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 0));
+        droite.add(barre);
+        droite.add(btnAnnuler);
+        add(libelle, BorderLayout.CENTER);
+        add(droite, BorderLayout.EAST);
+
+        minuteur = new Timer(PERIODE_AFFICHAGE_MS, e -> afficherAvancement());
+    }
+
+    /**
+     * Composant désactivé pendant qu'une tâche tourne.
+     */
+    public void ajouterAction(Component action) {
+        actions.add(action);
+    }
+
+    public boolean estOccupe() {
+        return courant != null;
+    }
+
+    /**
+     * Lance une tâche (à appeler depuis l'EDT).
+     * @param voie   voie de l'ordonnanceur qui exécute le calcul
+     * @param succes appelé sur l'EDT avec le résultat, sauf si la tâche est annulée
+     * @return faux si une tâche tourne déjà ou si la voie est saturée (le lancement est ignoré)
+     */
+    public <T> boolean lancer(String nom, OrdonnanceurRecherche.Voie voie, Travail<T> travail,
+                              Consumer<T> succes) {
+        if (courant != null) return false;
+        Progression p = new Progression();
+        SwingWorker<T, Void> worker = new SwingWorker<T, Void>() {
+            @Override
+            protected T doInBackground() throws Exception {
+                return travail.executer(p);
+            }
+
+            @Override
+            protected void done() {
+                terminer(this, succes);
+            }
+        };
+        courant = worker;
+        progression = p;
+        nomCourant = nom;
+        debut = System.nanoTime();
+        setActionsActives(false);
+        barre.setIndeterminate(true);
+        barre.setVisible(true);
+        btnAnnuler.setEnabled(true);
+        afficherAvancement();
+        minuteur.start();
+        try {
+            // Le SwingWorker est lui-même la tâche : son annulation interrompt le thread de la voie
+            OrdonnanceurRecherche.global().soumettre(voie, worker);
+        } catch (RejectedExecutionException ex) {
+            worker.cancel(false);
+            libelle.setText(nom + " : refusé, trop de calculs en attente");
+            return false;
+        }
+        return true;
+    }
+
+    private void annuler() {
+        if (courant == null) return;
+        MoteurBinairoAbstrait moteur = progression.moteur;
+        if (moteur != null) moteur.annuler();
+        courant.cancel(true);
+    }
+
+    private <T> void terminer(SwingWorker<T, Void> worker, Consumer<T> succes) {
+        // Après une annulation, done() est appelé tout de suite : le calcul peut encore
+        // finir son nœud en cours, mais il ne travaille que sur ses propres copies
+        if (worker != courant) return;
+        minuteur.stop();
+        long duree = (System.nanoTime() - debut) / 1_000_000;
+        String nom = nomCourant;
+        courant = null;
+        progression = null;
+        barre.setIndeterminate(false);
+        barre.setVisible(false);
+        btnAnnuler.setEnabled(false);
+        setActionsActives(true);
+
+        if (worker.isCancelled()) {
+            libelle.setText(nom + " : annulé après " + duree + " ms");
+            return;
+        }
+        T resultat;
+        try {
+            resultat = worker.get();
+        } catch (InterruptedException | CancellationException ex) {
+            libelle.setText(nom + " : annulé après " + duree + " ms");
+            return;
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof CancellationException) {
+                libelle.setText(nom + " : annulé après " + duree + " ms");
+                return;
+            }
+            libelle.setText(nom + " : échec");
+            JOptionPane.showMessageDialog(SwingUtilities.getWindowAncestor(this),
+                    "Erreur pendant " + nom.toLowerCase(Locale.ROOT) + ":\n" + cause,
+                    "Erreur", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        libelle.setText(nom + " : terminé en " + duree + " ms");
+        succes.accept(resultat);
+    }
+
+    private void afficherAvancement() {
+        if (progression == null) return;
+        StringBuilder texte = new StringBuilder(nomCourant);
+        String etape = progression.etape;
+        if (etape != null) texte.append(" — ").append(etape);
+        MoteurBinairoAbstrait moteur = progression.moteur;
+        if (moteur != null) {
+            // Lecture sans synchronisation : une valeur légèrement en retard suffit à l'affichage
+            texte.append(" — ").append(String.format(Locale.FRANCE, "%,d", moteur.getNoeudsExplores())).append(" nœuds");
+        }
+        texte.append(" — ").append((System.nanoTime() - debut) / 1_000_000).append(" ms");
+        String nouveau = texte.toString();
+        if (!nouveau.equals(libelle.getText())) libelle.setText(nouveau);
+    }
+
+    private void setActionsActives(boolean actives) {
+        for (Component action : actions) {
+            action.setEnabled(actives);
+        }
+    }
+}
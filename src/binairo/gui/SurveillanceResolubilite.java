@@ -0,0 +1,169 @@
+package binairo.gui;
+
+import binairo.modele.EtatBinairo;
+import binairo.recherche.BudgetsTaille;
+import binairo.recherche.ConfigurationCSP;
+import binairo.recherche.MoteurBinairoAbstrait;
+import binairo.recherche.OrdonnanceurRecherche;
+import binairo.recherche.ResolutionIncrementale;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Indicateur de résolubilité tenu à jour pendant la partie.
+ *
+ * Chaque modification de la grille relance un minuteur : la vérification ne part
+ * qu'après une pause de {@link #DELAI_PAUSE_MS} sans nouveau coup. Elle s'exécute dans
+ * la voie interactive de l'{@link OrdonnanceurRecherche}, une à la fois ; une
+ * vérification encore en cours quand la grille change est
+ * annulée, et un résultat arrivé pour une version périmée de la grille est ignoré
+ * (numéro de version). Tant que la dernière solution trouvée reste compatible avec
+ * les cases remplies, la grille est résoluble sans nouvelle recherche ; sinon la
+ * recherche repart de cette solution ({@link ResolutionIncrementale}).
+ *
+ * Toutes les méthodes publiques s'appellent depuis l'EDT.
+ */
+public class SurveillanceResolubilite extends JLabel {
+
+    public enum Statut {
+        RESOLUBLE("✓ Résoluble", new Color(0, 128, 0)),
+        NON_RESOLUBLE("✗ Non résoluble", Color.RED),
+        VERIFICATION("… Vérification", Color.GRAY),
+        INDETERMINE("? Indéterminé", Color.ORANGE.darker());
+
+        private final String libelle;
+        private final Color couleur;
+
+        Statut(String libelle, Color couleur) {
+            this.libelle = libelle;
+            this.couleur = couleur;
+        }
+    }
+
+    private static final int DELAI_PAUSE_MS = 300;
+    // Au-delà, la résolubilité reste indéterminée jusqu'au prochain coup
+    private static final long DELAI_VERIFICATION_MS = 5000;
+
+    private final Timer pause;
+
+    private EtatBinairo aVerifier;
+    private long version;
+    private Statut statut;
+    private EtatBinairo derniereSolution;
+
+    private Future<?> enCours;
+    // Utilisés sous ce verrou par les vérifications : une vérification annulée peut finir
+    // son nœud pendant que la suivante démarre sur un autre thread de la voie
+    private final Object verrouVerification = new Object();
+    private ResolutionIncrementale incrementale;
+    private MoteurBinairoAbstrait moteurComplet;
+    private int tailleIncrementale;
+
+    public SurveillanceResolubilite() {
+        setFont(getFont().deriveFont(Font.BOLD));
+        pause = new Timer(DELAI_PAUSE_MS, e -> lancerVerification());
+        pause.setRepeats(false);
+        afficher(Statut.INDETERMINE);
+    }
+
+    /**
+     * À appeler après chaque modification de la grille (coup, chargement, génération...).
+     */
+    public void signalerModification(EtatBinairo etat) {
+        version++;
+        annulerEnCours();
+        aVerifier = new EtatBinairo(etat);
+
+        if (!aVerifier.estValide()) {
+            // Une règle déjà violée : pas besoin de chercher
+            afficher(Statut.NON_RESOLUBLE);
+            pause.stop();
+        } else if (derniereSolution != null && estCompatible(aVerifier, derniereSolution)) {
+            afficher(Statut.RESOLUBLE);
+            pause.stop();
+        } else {
+            afficher(Statut.VERIFICATION);
+            pause.restart();
+        }
+    }
+
+    public Statut getStatut() {
+        return statut;
+    }
+
+    /**
+     * Dernière solution connue compatible avec la grille courante, ou null.
+     */
+    public EtatBinairo getSolutionConnue() {
+        return statut == Statut.RESOLUBLE ? derniereSolution : null;
+    }
+
+    private void lancerVerification() {
+        long versionVerifiee = version;
+        EtatBinairo grille = aVerifier;
+        try {
+            enCours = OrdonnanceurRecherche.global().soumettre(OrdonnanceurRecherche.Voie.INTERACTIVE, () -> {
+                synchronized (verrouVerification) {
+                    if (Thread.currentThread().isInterrupted()) return;
+                    ResolutionIncrementale resolution = resolutionPour(grille.getTaille());
+                    EtatBinairo solution = resolution.resoudre(grille);
+                    boolean conclu = solution != null || !Thread.currentThread().isInterrupted()
+                            && !moteurComplet.estInterrompu();
+                    SwingUtilities.invokeLater(() -> recevoir(versionVerifiee, solution, conclu));
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            afficher(Statut.INDETERMINE);
+        }
+    }
+
+    private ResolutionIncrementale resolutionPour(int taille) {
+        if (incrementale == null || taille != tailleIncrementale) {
+            moteurComplet = BudgetsTaille.moteurPour(taille, ConfigurationCSP.parDefaut().creerMoteur());
+            moteurComplet.setDelaiMaximal(DELAI_VERIFICATION_MS);
+            incrementale = new ResolutionIncrementale(moteurComplet);
+            tailleIncrementale = taille;
+        }
+        return incrementale;
+    }
+
+    private void recevoir(long versionVerifiee, EtatBinairo solution, boolean conclu) {
+        if (versionVerifiee != version) return;
+        enCours = null;
+        if (solution != null) {
+            derniereSolution = solution;
+            afficher(Statut.RESOLUBLE);
+        } else {
+            afficher(conclu ? Statut.NON_RESOLUBLE : Statut.INDETERMINE);
+        }
+    }
+
+    private void annulerEnCours() {
+        if (enCours == null) return;
+        // L'interruption arrête la réparation comme la recherche complète
+        enCours.cancel(true);
+        enCours = null;
+    }
+
+    private void afficher(Statut nouveau) {
+        if (nouveau == statut) return;
+        statut = nouveau;
+        setText(nouveau.libelle);
+        setForeground(nouveau.couleur);
+    }
+
+    private static boolean estCompatible(EtatBinairo grille, EtatBinairo solution) {
+        int taille = grille.getTaille();
+        if (solution.getTaille() != taille) return false;
+        for (int i = 0; i < taille; i++) {
+            for (int j = 0; j < taille; j++) {
+                int valeur = grille.getValeur(i, j);
+                if (valeur != EtatBinairo.VIDE && valeur != solution.getValeur(i, j)) return false;
+            }
+        }
+        return true;
+    }
+}
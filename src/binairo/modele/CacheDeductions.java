@@ -0,0 +1,316 @@
+package binairo.modele;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Coups forcés d'une grille, calculés ligne par ligne et mis en cache.
+ *
+ * Pour chaque ligne (et colonne), les cases forcées sont rangées par règle dans des
+ * masques de bits. Un changement de case n'invalide que sa ligne et sa colonne ;
+ * la règle d'unicité dépend en plus des lignes complètes de même orientation, suivies
+ * par un numéro de version qui n'augmente que lorsqu'une ligne devient (ou cesse d'être)
+ * complète.
+ *
+ * {@link #getDeductions()} donne les coups forcés directement par l'état courant.
+ * {@link #getDeductionsPropagees()} en tire toutes les conséquences en une passe : sur une
+ * copie de travail de la grille, chaque case placée remet sa ligne et sa colonne dans une
+ * file, et une ligne qui se complète y remet les lignes ouvertes de même orientation
+ * (unicité), jusqu'au point fixe ou à une contradiction.
+ */
+final class CacheDeductions {
+    private static final Deduction.Regle[] REGLES = Deduction.Regle.values();
+
+    private final GrilleBinaire g;
+    private final int taille;
+    private final long plein;
+
+    // forcees[k][2 * regle + valeur] : cases de la ligne k forcées à valeur par cette règle
+    private final long[][] forcees;
+    private final boolean[] sale;
+    private final boolean[] complete;
+    private final int[] versionUnicite;
+    private final int[] versionCompletes = new int[2];
+    // signalees[i] : cases de la ligne i déjà dans la liste en cours de construction
+    private final long[] signalees;
+
+    private List<Deduction> resultat;
+    // Une case vide forcée aux deux valeurs lors du dernier calcul
+    private boolean contradiction;
+
+    // Propagation : grille de travail, coups forcés de ses lignes, file de lignes
+    private GrilleBinaire travail;
+    private long[][] forceesTravail;
+    private int[] file;
+    private boolean[] enFile;
+    private int debutFile, finFile;
+    private List<Deduction> propagees;
+    private boolean contradictionPropagee;
+
+    CacheDeductions(GrilleBinaire g) {
+        this.g = g;
+        this.taille = g.getTaille();
+        this.plein = g.getPlein();
+        this.forcees = new long[2 * taille][2 * REGLES.length];
+        this.sale = new boolean[2 * taille];
+        this.complete = new boolean[2 * taille];
+        this.versionUnicite = new int[2 * taille];
+        this.signalees = new long[taille];
+        for (int k = 0; k < 2 * taille; k++) {
+            sale[k] = true;
+            complete[k] = g.masqueRemplies(k) == plein;
+        }
+    }
+
+    /**
+     * À appeler après chaque changement de la case (i, j).
+     */
+    void invalider(int i, int j) {
+        resultat = null;
+        propagees = null;
+        marquer(i);
+        marquer(taille + j);
+    }
+
+    private void marquer(int k) {
+        sale[k] = true;
+        boolean estComplete = g.masqueRemplies(k) == plein;
+        if (estComplete != complete[k]) {
+            complete[k] = estComplete;
+            versionCompletes[k < taille ? 0 : 1]++;
+        }
+    }
+
+    /**
+     * Tous les coups forcés actuels, par règle puis lignes avant colonnes.
+     * Une case forcée des deux façons (grille sans solution) est écartée.
+     */
+    List<Deduction> getDeductions() {
+        if (resultat != null) return resultat;
+
+        for (int k = 0; k < 2 * taille; k++) {
+            int orientation = k < taille ? 0 : 1;
+            if (sale[k]) {
+                calculerLigne(g, forcees[k], k);
+                sale[k] = false;
+                versionUnicite[k] = versionCompletes[orientation];
+            } else if (versionUnicite[k] != versionCompletes[orientation]) {
+                calculerUnicite(g, forcees[k], k);
+                versionUnicite[k] = versionCompletes[orientation];
+            }
+        }
+
+        List<Deduction> liste = new ArrayList<>();
+        Arrays.fill(signalees, 0);
+        contradiction = false;
+        for (int r = 0; r < REGLES.length; r++) {
+            for (int k = 0; k < 2 * taille; k++) {
+                for (int valeur = 0; valeur <= 1; valeur++) {
+                    long masque = forcees[k][2 * r + valeur];
+                    while (masque != 0) {
+                        int pos = Long.numberOfTrailingZeros(masque);
+                        masque &= masque - 1;
+                        int i = k < taille ? k : pos, j = k < taille ? pos : k - taille;
+                        ajouter(liste, i, j, valeur, REGLES[r], k >= taille);
+                    }
+                }
+            }
+        }
+        resultat = Collections.unmodifiableList(liste);
+        return resultat;
+    }
+
+    /**
+     * Vrai si le dernier {@link #getDeductions()} a écarté une case forcée aux deux valeurs.
+     */
+    boolean aContradiction() {
+        getDeductions();
+        return contradiction;
+    }
+
+    /**
+     * Coups forcés directs puis toutes leurs conséquences, dans l'ordre où la propagation
+     * les place : chacun est justifié par sa règle une fois les précédents joués.
+     * La liste s'arrête à la première contradiction ({@link #aContradictionPropagee()}).
+     */
+    List<Deduction> getDeductionsPropagees() {
+        if (propagees != null) return propagees;
+        List<Deduction> directes = getDeductions();
+        if (travail == null) {
+            travail = new GrilleBinaire(g);
+            forceesTravail = new long[2 * taille][2 * REGLES.length];
+            // Une place de plus que de lignes : file pleine et file vide restent distinctes
+            file = new int[2 * taille + 1];
+            enFile = new boolean[2 * taille];
+        } else {
+            travail.restaurer(g);
+            Arrays.fill(enFile, false);
+        }
+        debutFile = finFile = 0;
+        contradictionPropagee = contradiction;
+
+        List<Deduction> liste = new ArrayList<>(directes.size());
+        if (!contradictionPropagee) {
+            for (Deduction d : directes) {
+                placer(d, liste);
+            }
+        }
+        while (debutFile != finFile && !contradictionPropagee) {
+            int k = file[debutFile];
+            debutFile = (debutFile + 1) % file.length;
+            enFile[k] = false;
+            if (!travail.ligneValide(k)) {
+                contradictionPropagee = true;
+                break;
+            }
+            long[] f = forceesTravail[k];
+            calculerLigne(travail, f, k);
+            long versZero = 0, versUn = 0;
+            for (int r = 0; r < REGLES.length; r++) {
+                versZero |= f[2 * r];
+                versUn |= f[2 * r + 1];
+            }
+            if ((versZero & versUn) != 0) {
+                contradictionPropagee = true;
+                break;
+            }
+            for (int r = 0; r < REGLES.length && !contradictionPropagee; r++) {
+                for (int valeur = 0; valeur <= 1 && !contradictionPropagee; valeur++) {
+                    long masque = f[2 * r + valeur] & ~travail.masqueRemplies(k);
+                    while (masque != 0 && !contradictionPropagee) {
+                        int pos = Long.numberOfTrailingZeros(masque);
+                        masque &= masque - 1;
+                        int i = k < taille ? k : pos, j = k < taille ? pos : k - taille;
+                        placer(new Deduction(i, j, valeur, REGLES[r], k >= taille), liste);
+                    }
+                }
+            }
+        }
+        propagees = Collections.unmodifiableList(liste);
+        return propagees;
+    }
+
+    /**
+     * Vrai si la dernière propagation a rencontré une case forcée aux deux valeurs ou une
+     * ligne qui enfreint les règles : la grille n'a pas de solution.
+     */
+    boolean aContradictionPropagee() {
+        getDeductionsPropagees();
+        return contradictionPropagee;
+    }
+
+    /**
+     * Joue un coup forcé sur la grille de travail et met ses lignes en file ; une case
+     * déjà remplie par l'autre valeur est une contradiction.
+     */
+    private void placer(Deduction d, List<Deduction> liste) {
+        int i = d.getLigne(), j = d.getColonne(), actuelle = travail.get(i, j);
+        if (actuelle != EtatBinairo.VIDE) {
+            if (actuelle != d.getValeur()) contradictionPropagee = true;
+            return;
+        }
+        travail.placer(i, j, d.getValeur());
+        liste.add(d);
+        enfiler(i);
+        enfiler(taille + j);
+        if (travail.masqueRemplies(i) == plein) enfilerOuvertes(0);
+        if (travail.masqueRemplies(taille + j) == plein) enfilerOuvertes(taille);
+    }
+
+    private void enfiler(int k) {
+        if (enFile[k]) return;
+        enFile[k] = true;
+        file[finFile] = k;
+        finFile = (finFile + 1) % file.length;
+    }
+
+    private void enfilerOuvertes(int debut) {
+        for (int k = debut; k < debut + taille; k++) {
+            if (travail.masqueRemplies(k) != plein) enfiler(k);
+        }
+    }
+
+    private void ajouter(List<Deduction> liste, int i, int j, int valeur, Deduction.Regle regle, boolean parColonne) {
+        // Écarter les cases en conflit ; une case forcée aussi par sa ligne est signalée
+        // au titre de la ligne, et une seule fois
+        if (force(i, 1 - valeur, 1L << j) || force(taille + j, 1 - valeur, 1L << i)) {
+            contradiction = true;
+            return;
+        }
+        if (parColonne && force(i, valeur, 1L << j)) return;
+        if ((signalees[i] & (1L << j)) != 0) return;
+        signalees[i] |= 1L << j;
+        liste.add(new Deduction(i, j, valeur, regle, parColonne));
+    }
+
+    /**
+     * Vrai si la ligne générique k force à la valeur donnée la case du bit donné.
+     */
+    private boolean force(int k, int valeur, long bit) {
+        for (int r = 0; r < REGLES.length; r++) {
+            if ((forcees[k][2 * r + valeur] & bit) != 0) return true;
+        }
+        return false;
+    }
+
+    private void calculerLigne(GrilleBinaire g, long[] f, int k) {
+        Arrays.fill(f, 0);
+        long remplies = g.masqueRemplies(k), uns = g.masqueUns(k);
+        long zeros = remplies & ~uns, vides = plein & ~remplies;
+        if (vides == 0) return;
+
+        int demi = taille / 2;
+        for (int valeur = 0; valeur <= 1; valeur++) {
+            // Les cases voisines de "valeur" ne peuvent pas la recevoir : elles sont forcées à l'autre
+            long v = valeur == 0 ? zeros : uns;
+            int autre = 1 - valeur;
+            long paires = ((v >>> 1) & (v >>> 2)) | ((v << 1) & (v << 2));
+            long sandwichs = (v << 1) & (v >>> 1);
+            f[2 * Deduction.Regle.PAIRE.ordinal() + autre] = paires & vides;
+            f[2 * Deduction.Regle.SANDWICH.ordinal() + autre] = sandwichs & vides & ~paires;
+            if (Long.bitCount(v) == demi) {
+                f[2 * Deduction.Regle.EQUILIBRE.ordinal() + autre] = vides & ~((paires | sandwichs) & plein);
+            }
+        }
+        calculerUnicite(g, f, k);
+    }
+
+    /**
+     * Avec deux cases vides (un 0 et un 1 à placer), la ligne ne doit pas devenir
+     * identique à une ligne complète qui lui correspond sur les cases remplies.
+     * Avec une seule case vide, si la valeur imposée par l'équilibre recopie une ligne
+     * complète, la case est aussi forcée à l'autre valeur : le conflit l'écarte.
+     */
+    private void calculerUnicite(GrilleBinaire g, long[] f, int k) {
+        int base = 2 * Deduction.Regle.UNICITE.ordinal();
+        f[base] = f[base + 1] = 0;
+
+        long remplies = g.masqueRemplies(k), uns = g.masqueUns(k);
+        long vides = plein & ~remplies;
+        int nbVides = Long.bitCount(vides), nbUns = Long.bitCount(uns), demi = taille / 2;
+        if (nbVides == 1) {
+            int valeur = nbUns == demi - 1 ? 1 : 0;
+            if (egaleLigneComplete(g, k, valeur == 1 ? uns | vides : uns)) f[base + 1 - valeur] = vides;
+            return;
+        }
+        if (nbVides != 2 || nbUns != demi - 1) return;
+
+        int debut = k < taille ? 0 : taille;
+        for (int autre = debut; autre < debut + taille; autre++) {
+            if (autre != k && g.masqueRemplies(autre) == plein && (g.masqueUns(autre) & remplies) == uns) {
+                f[base] |= vides & g.masqueUns(autre);
+                f[base + 1] |= vides & ~g.masqueUns(autre);
+            }
+        }
+    }
+
+    private boolean egaleLigneComplete(GrilleBinaire g, int k, long uns) {
+        int debut = k < taille ? 0 : taille;
+        for (int autre = debut; autre < debut + taille; autre++) {
+            if (autre != k && g.masqueRemplies(autre) == plein && g.masqueUns(autre) == uns) return true;
+        }
+        return false;
+    }
+}
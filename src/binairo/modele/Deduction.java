@@ -0,0 +1,76 @@
+package binairo.modele;
+
+/**
+ * Coup forcé : la case (ligne, colonne) doit recevoir la valeur indiquée,
+ * avec la règle qui le justifie.
+ */
+public final class Deduction {
+
+    public enum Regle {
+        PAIRE("deux %d consécutifs à côté"),
+        SANDWICH("case entre deux %d"),
+        EQUILIBRE("la %s contient déjà tous ses %d"),
+        UNICITE("sinon la %s serait identique à une autre");
+
+        private final String modele;
+
+        Regle(String modele) {
+            this.modele = modele;
+        }
+    }
+
+    private final int ligne;
+    private final int colonne;
+    private final int valeur;
+    private final Regle regle;
+    // Vrai si la règle porte sur la colonne de la case, faux pour sa ligne
+    private final boolean parColonne;
+
+    public Deduction(int ligne, int colonne, int valeur, Regle regle, boolean parColonne) {
+        this.ligne = ligne;
+        this.colonne = colonne;
+        this.valeur = valeur;
+        this.regle = regle;
+        this.parColonne = parColonne;
+    }
+
+    public int getLigne() {
+        return ligne;
+    }
+
+    public int getColonne() {
+        return colonne;
+    }
+
+    public int getValeur() {
+        return valeur;
+    }
+
+    public Regle getRegle() {
+        return regle;
+    }
+
+    /**
+     * Format historique de {@link EtatBinairo#getSuggestion()} : {ligne, colonne, valeur}.
+     */
+    public int[] versTableau() {
+        return new int[]{ligne, colonne, valeur};
+    }
+
+    /**
+     * Justification lisible, construite seulement à la demande.
+     */
+    public String getExplication() {
+        String ou = parColonne ? "colonne" : "ligne";
+        switch (regle) {
+            case EQUILIBRE: return String.format(regle.modele, ou, 1 - valeur);
+            case UNICITE: return String.format(regle.modele, ou);
+            default: return String.format(regle.modele, 1 - valeur);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "(" + (ligne + 1) + ", " + (colonne + 1) + ") = " + valeur + " : " + getExplication();
+    }
+}
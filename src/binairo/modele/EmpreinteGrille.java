@@ -0,0 +1,84 @@
+package binairo.modele;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Empreinte compacte et immuable d'une grille : 2 bits par case
+ * (vide, 0 ou 1) regroupés dans des long. Sert de clé de cache et de dédoublonnage.
+ */
+public final class EmpreinteGrille implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final int taille;
+    private final long[] bits;
+    private final int hash;
+
+    private EmpreinteGrille(int taille, long[] bits) {
+        this.taille = taille;
+        this.bits = bits;
+        this.hash = 31 * taille + Arrays.hashCode(bits);
+    }
+
+    public static EmpreinteGrille de(EtatBinairo etat) {
+        int taille = etat.getTaille();
+        long[] bits = new long[(taille * taille * 2 + 63) / 64];
+        int k = 0;
+        for (int i = 0; i < taille; i++) {
+            for (int j = 0; j < taille; j++, k += 2) {
+                int v = etat.getValeur(i, j);
+                // 00 = vide, 10 = zéro, 11 = un
+                long code = v == EtatBinairo.VIDE ? 0 : (v == EtatBinairo.ZERO ? 2 : 3);
+                bits[k >>> 6] |= code << (k & 63);
+            }
+        }
+        return new EmpreinteGrille(taille, bits);
+    }
+
+    /**
+     * Écriture binaire compacte (taille puis mots de 64 bits).
+     */
+    public void ecrire(DataOutput sortie) throws IOException {
+        sortie.writeShort(taille);
+        for (long mot : bits) {
+            sortie.writeLong(mot);
+        }
+    }
+
+    public static EmpreinteGrille lire(DataInput entree) throws IOException {
+        int taille = entree.readShort();
+        if (taille <= 0 || taille % 2 != 0) throw new IOException("Taille de grille invalide: " + taille);
+        long[] bits = new long[(taille * taille * 2 + 63) / 64];
+        for (int k = 0; k < bits.length; k++) {
+            bits[k] = entree.readLong();
+        }
+        return new EmpreinteGrille(taille, bits);
+    }
+
+    public int getTaille() {
+        return taille;
+    }
+
+    /**
+     * Nombre d'octets occupés par l'empreinte (utilisé pour le poids dans les caches).
+     */
+    public int getPoids() {
+        return 16 + bits.length * 8;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof EmpreinteGrille)) return false;
+        EmpreinteGrille autre = (EmpreinteGrille) o;
+        return hash == autre.hash && taille == autre.taille && Arrays.equals(bits, autre.bits);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -3,6 +3,7 @@ package binairo.modele;
 import java.io.*;
 import java.util.Stack;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -10,10 +11,19 @@ import java.util.List;
  * Gère la grille, les règles de validation et l'historique des coups.
  */
 public class EtatBinairo implements Serializable {
-    private Integer[][] grille;
+    // Fixé à la valeur calculée de la version d'origine pour relire les anciennes sauvegardes
+    private static final long serialVersionUID = -1512516156199495362L;
+
+    // Une valeur par case (VIDE, ZERO ou UN) : 1 octet au lieu d'une référence
+    private byte[][] grille;
     private int taille;
     private Stack<Coup> historique;
 
+    // Vues dérivées de la grille, construites à la première demande puis tenues à jour
+    private transient GrilleBinaire masques;
+    private transient CacheDeductions deductions;
+    private transient IndexViolations violations;
+
     // Constantes pour les valeurs
     public static final int VIDE = -1;
     public static final int ZERO = 0;
@@ -23,6 +33,8 @@ public class EtatBinairo implements Serializable {
      * Classe interne pour représenter un coup (pour l'historique).
      */
     private static class Coup implements Serializable {
+        private static final long serialVersionUID = 2872564966586203780L;
+
         int ligne, col, ancienneValeur, nouvelleValeur;
 
         Coup(int l, int c, int av, int nv) {
@@ -33,9 +45,50 @@ public class EtatBinairo implements Serializable {
         }
     }
 
+    // Forme sérialisée d'origine (grille en Integer[][]), conservée pour que les
+    // sauvegardes restent lisibles dans les deux sens
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField("grille", Integer[][].class),
+            new ObjectStreamField("taille", int.class),
+            new ObjectStreamField("historique", Stack.class)
+    };
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        Integer[][] valeurs = new Integer[taille][taille];
+        for (int i = 0; i < taille; i++) {
+            for (int j = 0; j < taille; j++) {
+                valeurs[i][j] = (int) grille[i][j];
+            }
+        }
+        ObjectOutputStream.PutField champs = out.putFields();
+        champs.put("grille", valeurs);
+        champs.put("taille", taille);
+        champs.put("historique", historique);
+        out.writeFields();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField champs = in.readFields();
+        taille = champs.get("taille", 0);
+        historique = (Stack<Coup>) champs.get("historique", null);
+        if (historique == null) historique = new Stack<>();
+        Integer[][] valeurs = (Integer[][]) champs.get("grille", null);
+        if (valeurs == null || valeurs.length != taille) {
+            throw new InvalidObjectException("Grille incohérente");
+        }
+        grille = new byte[taille][taille];
+        for (int i = 0; i < taille; i++) {
+            for (int j = 0; j < taille; j++) {
+                Integer v = valeurs[i][j];
+                grille[i][j] = (byte) (v == null ? VIDE : v);
+            }
+        }
+    }
+
     public EtatBinairo(int taille) {
         this.taille = taille;
-        this.grille = new Integer[taille][taille];
+        this.grille = new byte[taille][taille];
         this.historique = new Stack<>();
         initialiserGrilleVide();
     }
@@ -43,11 +96,9 @@ public class EtatBinairo implements Serializable {
     // Constructeur de copie
     public EtatBinairo(EtatBinairo autre) {
         this.taille = autre.taille;
-        this.grille = new Integer[taille][taille];
+        this.grille = new byte[taille][taille];
         for (int i = 0; i < taille; i++) {
-            for (int j = 0; j < taille; j++) {
-                this.grille[i][j] = autre.grille[i][j];
-            }
+            System.arraycopy(autre.grille[i], 0, this.grille[i], 0, taille);
         }
         this.historique = new Stack<>();
     }
@@ -65,20 +116,16 @@ public class EtatBinairo implements Serializable {
     }
 
     public Integer getValeur(int i, int j) {
-        if (grille[i][j] == null)
-            return VIDE;
-        return grille[i][j];
+        return (int) grille[i][j];
     }
 
     public void setValeur(int i, int j, Integer valeur) {
-        Integer ancienne = grille[i][j];
-        if (ancienne == null)
-            ancienne = VIDE;
-
+        int ancienne = grille[i][j];
         int valFinale = (valeur == null) ? VIDE : valeur;
 
-        grille[i][j] = valFinale;
+        grille[i][j] = (byte) valFinale;
         historique.push(new Coup(i, j, ancienne, valFinale));
+        mettreAJourVues(i, j, ancienne, valFinale);
     }
 
     /**
@@ -88,10 +135,19 @@ public class EtatBinairo implements Serializable {
         if (historique.isEmpty())
             return false;
         Coup dernier = historique.pop();
-        grille[dernier.ligne][dernier.col] = dernier.ancienneValeur;
+        grille[dernier.ligne][dernier.col] = (byte) dernier.ancienneValeur;
+        mettreAJourVues(dernier.ligne, dernier.col, dernier.nouvelleValeur, dernier.ancienneValeur);
         return true;
     }
 
+    private void mettreAJourVues(int i, int j, int ancienne, int nouvelle) {
+        if (masques == null || ancienne == nouvelle) return;
+        if (ancienne != VIDE) masques.effacer(i, j);
+        if (nouvelle != VIDE) masques.placer(i, j, nouvelle);
+        violations.invalider(i, j);
+        if (deductions != null) deductions.invalider(i, j);
+    }
+
     public boolean estComplet() {
         for (int i = 0; i < taille; i++) {
             for (int j = 0; j < taille; j++) {
@@ -102,7 +158,17 @@ public class EtatBinairo implements Serializable {
         return true;
     }
 
+    /**
+     * Vérifie les trois règles. Pour les tailles paires jusqu'à 64, la réponse vient de
+     * l'index des violations, construit au premier appel puis tenu à jour à chaque coup :
+     * les moteurs qui alternent coup, vérification et annulation ne paient plus un
+     * parcours complet de la grille par vérification.
+     */
     public boolean estValide() {
+        if (GrilleBinaire.supporte(taille)) {
+            getMasques();
+            return violations.estValide();
+        }
         return verifierAdjacence() && verifierEquilibre() && verifierUnicite();
     }
 
@@ -112,7 +178,7 @@ public class EtatBinairo implements Serializable {
         for (int i = 0; i < taille; i++) {
             for (int j = 0; j < taille - 2; j++) {
                 if (grille[i][j] != VIDE && grille[i][j + 1] != VIDE && grille[i][j + 2] != VIDE) {
-                    if (grille[i][j].equals(grille[i][j + 1]) && grille[i][j].equals(grille[i][j + 2])) {
+                    if (grille[i][j] == grille[i][j + 1] && grille[i][j] == grille[i][j + 2]) {
                         return false;
                     }
                 }
@@ -123,7 +189,7 @@ public class EtatBinairo implements Serializable {
         for (int j = 0; j < taille; j++) {
             for (int i = 0; i < taille - 2; i++) {
                 if (grille[i][j] != VIDE && grille[i + 1][j] != VIDE && grille[i + 2][j] != VIDE) {
-                    if (grille[i][j].equals(grille[i + 1][j]) && grille[i][j].equals(grille[i + 2][j])) {
+                    if (grille[i][j] == grille[i + 1][j] && grille[i][j] == grille[i + 2][j]) {
                         return false;
                     }
                 }
@@ -184,7 +250,7 @@ public class EtatBinairo implements Serializable {
             if (grille[l1][j] == VIDE || grille[l2][j] == VIDE) {
                 return false;
             }
-            if (!grille[l1][j].equals(grille[l2][j])) {
+            if (grille[l1][j] != grille[l2][j]) {
                 return false;
             }
         }
@@ -197,7 +263,7 @@ public class EtatBinairo implements Serializable {
             if (grille[i][c1] == VIDE || grille[i][c2] == VIDE) {
                 return false;
             }
-            if (!grille[i][c1].equals(grille[i][c2])) {
+            if (grille[i][c1] != grille[i][c2]) {
                 return false;
             }
         }
@@ -205,14 +271,95 @@ public class EtatBinairo implements Serializable {
     }
 
     /**
-     * Cherche une suggestion simple (coup forcé).
-     * Améliorations :
+     * Cherche une suggestion simple (coup forcé), ou null si la grille est invalide
+     * ou qu'aucun coup n'est forcé par une règle de ligne.
+     */
+    public int[] getSuggestion() {
+        if (!GrilleBinaire.supporte(taille)) {
+            Deduction d = chercherDeductionParEssais();
+            return d == null ? null : d.versTableau();
+        }
+        getMasques();
+        if (!violations.estValide()) return null;
+        List<Deduction> liste = getCacheDeductions().getDeductions();
+        return liste.isEmpty() ? null : liste.get(0).versTableau();
+    }
+
+    /**
+     * Tous les coups actuellement forcés, chacun avec la règle qui le justifie
+     * (liste vide si la grille est invalide). Les déductions sont calculées ligne par
+     * ligne et gardées en cache : après un coup, seules sa ligne et sa colonne sont
+     * recalculées. Pour les tailles que les masques ne gèrent pas (impaires), la liste
+     * contient au plus le coup trouvé par {@link #getSuggestion()}.
+     */
+    public List<Deduction> getDeductions() {
+        if (!GrilleBinaire.supporte(taille)) {
+            Deduction d = chercherDeductionParEssais();
+            return d == null ? Collections.<Deduction>emptyList() : Collections.singletonList(d);
+        }
+        getMasques();
+        if (!violations.estValide()) return Collections.emptyList();
+        return getCacheDeductions().getDeductions();
+    }
+
+    /**
+     * Coups forcés et toutes leurs conséquences, en une passe : les déductions de
+     * {@link #getDeductions()} puis celles qu'elles entraînent en chaîne, dans l'ordre où
+     * elles se jouent (liste vide si la grille est invalide). La propagation s'arrête à la
+     * première contradiction, signalée par {@link #aContradictionPropagee()}. Pour les
+     * tailles que les masques ne gèrent pas, comme {@link #getDeductions()}.
+     */
+    public List<Deduction> getDeductionsPropagees() {
+        if (!GrilleBinaire.supporte(taille)) return getDeductions();
+        getMasques();
+        if (!violations.estValide()) return Collections.emptyList();
+        return getCacheDeductions().getDeductionsPropagees();
+    }
+
+    /**
+     * Vrai si la propagation de {@link #getDeductionsPropagees()} mène à une case forcée
+     * aux deux valeurs ou à une règle enfreinte : la grille n'a pas de solution.
+     * Toujours faux pour les tailles que les masques ne gèrent pas (impaires).
+     */
+    public boolean aContradictionPropagee() {
+        if (!GrilleBinaire.supporte(taille)) return false;
+        getMasques();
+        return violations.estValide() && getCacheDeductions().aContradictionPropagee();
+    }
+
+    /**
+     * Vrai si une case vide est forcée à la fois à 0 et à 1 par les règles de ligne :
+     * la grille n'a pas de solution, même si aucune règle n'est encore enfreinte.
+     * Toujours faux pour les tailles que les masques ne gèrent pas (impaires).
+     */
+    public boolean aCaseContradictoire() {
+        if (!GrilleBinaire.supporte(taille)) return false;
+        getMasques();
+        return violations.estValide() && getCacheDeductions().aContradiction();
+    }
+
+    private CacheDeductions getCacheDeductions() {
+        if (deductions == null) deductions = new CacheDeductions(getMasques());
+        return deductions;
+    }
+
+    private GrilleBinaire getMasques() {
+        if (masques == null) {
+            masques = GrilleBinaire.depuis(this);
+            violations = new IndexViolations(masques);
+        }
+        return masques;
+    }
+
+    /**
+     * Ancienne recherche par balayage, gardée pour les tailles que {@link GrilleBinaire}
+     * ne représente pas (impaires).
      *  - vérifie les triplets horizontaux et verticaux
      *  - vérifie les motifs _ x _ (par exemple 0 _ 0 => milieu = 1)
      *  - tente pour chaque case vide d'assigner 0 puis 1 et retourne
      *    une valeur forcée si l'autre mène à une contradiction
      */
-    public int[] getSuggestion() {
+    private Deduction chercherDeductionParEssais() {
         int demiTaille = taille / 2;
 
         // 1) Triplets horizontaux (existants) et motifs 0 _ 0 ou 1 _ 1
@@ -220,27 +367,27 @@ public class EtatBinairo implements Serializable {
             for (int j = 0; j < taille - 2; j++) {
                 // Horizontal: 0 0 _ → doit être 1
                 if (grille[i][j] == ZERO && grille[i][j + 1] == ZERO && grille[i][j + 2] == VIDE) {
-                    if (isValidAfterSetting(i, j + 2, UN)) return new int[]{i, j + 2, UN};
+                    if (isValidAfterSetting(i, j + 2, UN)) return new Deduction(i, j + 2, UN, Deduction.Regle.PAIRE, false);
                 }
                 // Horizontal: 1 1 _ → doit être 0
                 if (grille[i][j] == UN && grille[i][j + 1] == UN && grille[i][j + 2] == VIDE) {
-                    if (isValidAfterSetting(i, j + 2, ZERO)) return new int[]{i, j + 2, ZERO};
+                    if (isValidAfterSetting(i, j + 2, ZERO)) return new Deduction(i, j + 2, ZERO, Deduction.Regle.PAIRE, false);
                 }
                 // Horizontal: _ 0 0 → doit être 1
                 if (grille[i][j] == VIDE && grille[i][j + 1] == ZERO && grille[i][j + 2] == ZERO) {
-                    if (isValidAfterSetting(i, j, UN)) return new int[]{i, j, UN};
+                    if (isValidAfterSetting(i, j, UN)) return new Deduction(i, j, UN, Deduction.Regle.PAIRE, false);
                 }
                 // Horizontal: _ 1 1 → doit être 0
                 if (grille[i][j] == VIDE && grille[i][j + 1] == UN && grille[i][j + 2] == UN) {
-                    if (isValidAfterSetting(i, j, ZERO)) return new int[]{i, j, ZERO};
+                    if (isValidAfterSetting(i, j, ZERO)) return new Deduction(i, j, ZERO, Deduction.Regle.PAIRE, false);
                 }
 
                 // Horizontal: pattern 0 _ 0 -> middle must be 1
                 if (grille[i][j] == ZERO && grille[i][j + 1] == VIDE && grille[i][j + 2] == ZERO) {
-                    if (isValidAfterSetting(i, j + 1, UN)) return new int[]{i, j + 1, UN};
+                    if (isValidAfterSetting(i, j + 1, UN)) return new Deduction(i, j + 1, UN, Deduction.Regle.SANDWICH, false);
                 }
                 if (grille[i][j] == UN && grille[i][j + 1] == VIDE && grille[i][j + 2] == UN) {
-                    if (isValidAfterSetting(i, j + 1, ZERO)) return new int[]{i, j + 1, ZERO};
+                    if (isValidAfterSetting(i, j + 1, ZERO)) return new Deduction(i, j + 1, ZERO, Deduction.Regle.SANDWICH, false);
                 }
             }
         }
@@ -249,24 +396,24 @@ public class EtatBinairo implements Serializable {
         for (int j = 0; j < taille; j++) {
             for (int i = 0; i < taille - 2; i++) {
                 if (grille[i][j] == ZERO && grille[i + 1][j] == ZERO && grille[i + 2][j] == VIDE) {
-                    if (isValidAfterSetting(i + 2, j, UN)) return new int[]{i + 2, j, UN};
+                    if (isValidAfterSetting(i + 2, j, UN)) return new Deduction(i + 2, j, UN, Deduction.Regle.PAIRE, true);
                 }
                 if (grille[i][j] == UN && grille[i + 1][j] == UN && grille[i + 2][j] == VIDE) {
-                    if (isValidAfterSetting(i + 2, j, ZERO)) return new int[]{i + 2, j, ZERO};
+                    if (isValidAfterSetting(i + 2, j, ZERO)) return new Deduction(i + 2, j, ZERO, Deduction.Regle.PAIRE, true);
                 }
                 if (grille[i][j] == VIDE && grille[i + 1][j] == ZERO && grille[i + 2][j] == ZERO) {
-                    if (isValidAfterSetting(i, j, UN)) return new int[]{i, j, UN};
+                    if (isValidAfterSetting(i, j, UN)) return new Deduction(i, j, UN, Deduction.Regle.PAIRE, true);
                 }
                 if (grille[i][j] == VIDE && grille[i + 1][j] == UN && grille[i + 2][j] == UN) {
-                    if (isValidAfterSetting(i, j, ZERO)) return new int[]{i, j, ZERO};
+                    if (isValidAfterSetting(i, j, ZERO)) return new Deduction(i, j, ZERO, Deduction.Regle.PAIRE, true);
                 }
 
                 // vertical pattern 0 _ 0 -> middle = 1
                 if (grille[i][j] == ZERO && grille[i + 1][j] == VIDE && grille[i + 2][j] == ZERO) {
-                    if (isValidAfterSetting(i + 1, j, UN)) return new int[]{i + 1, j, UN};
+                    if (isValidAfterSetting(i + 1, j, UN)) return new Deduction(i + 1, j, UN, Deduction.Regle.SANDWICH, true);
                 }
                 if (grille[i][j] == UN && grille[i + 1][j] == VIDE && grille[i + 2][j] == UN) {
-                    if (isValidAfterSetting(i + 1, j, ZERO)) return new int[]{i + 1, j, ZERO};
+                    if (isValidAfterSetting(i + 1, j, ZERO)) return new Deduction(i + 1, j, ZERO, Deduction.Regle.SANDWICH, true);
                 }
             }
         }
@@ -288,7 +435,7 @@ public class EtatBinairo implements Serializable {
             if (nb0Ligne == demiTaille) {
                 for (int j = 0; j < taille; j++) {
                     if (grille[i][j] == VIDE && isValidAfterSetting(i, j, UN)) {
-                        return new int[]{i, j, UN};
+                        return new Deduction(i, j, UN, Deduction.Regle.EQUILIBRE, false);
                     }
                 }
             }
@@ -297,7 +444,7 @@ public class EtatBinairo implements Serializable {
             if (nb1Ligne == demiTaille) {
                 for (int j = 0; j < taille; j++) {
                     if (grille[i][j] == VIDE && isValidAfterSetting(i, j, ZERO)) {
-                        return new int[]{i, j, ZERO};
+                        return new Deduction(i, j, ZERO, Deduction.Regle.EQUILIBRE, false);
                     }
                 }
             }
@@ -306,7 +453,7 @@ public class EtatBinairo implements Serializable {
             if (nb0Colonne == demiTaille) {
                 for (int j = 0; j < taille; j++) {
                     if (grille[j][i] == VIDE && isValidAfterSetting(j, i, UN)) {
-                        return new int[]{j, i, UN};
+                        return new Deduction(j, i, UN, Deduction.Regle.EQUILIBRE, true);
                     }
                 }
             }
@@ -314,7 +461,7 @@ public class EtatBinairo implements Serializable {
             if (nb1Colonne == demiTaille) {
                 for (int j = 0; j < taille; j++) {
                     if (grille[j][i] == VIDE && isValidAfterSetting(j, i, ZERO)) {
-                        return new int[]{j, i, ZERO};
+                        return new Deduction(j, i, ZERO, Deduction.Regle.EQUILIBRE, true);
                     }
                 }
             }
@@ -328,8 +475,7 @@ public class EtatBinairo implements Serializable {
                     boolean zeroOk = isValidAfterSetting(i, j, ZERO);
                     boolean unOk = isValidAfterSetting(i, j, UN);
 
-                    if (zeroOk && !unOk) return new int[]{i, j, ZERO};
-                    if (!zeroOk && unOk) return new int[]{i, j, UN};
+                    if (zeroOk != unOk) return deductionParEssai(i, j, zeroOk ? ZERO : UN);
                 }
             }
         }
@@ -338,15 +484,36 @@ public class EtatBinairo implements Serializable {
         return null;
     }
 
+    /**
+     * Case forcée par essai : la règle et l'orientation retenues sont celles de la
+     * première violation qu'entraîne l'autre valeur sur la ligne ou la colonne de la case.
+     */
+    private Deduction deductionParEssai(int i, int j, int valeur) {
+        int ancienne = grille[i][j];
+        grille[i][j] = (byte) (1 - valeur);
+        List<Violation> fautes = violationsParBalayage();
+        grille[i][j] = (byte) ancienne;
+        for (Violation v : fautes) {
+            if (v.getIndice() != (v.estSurColonne() ? j : i)
+                    && (v.getType() != Violation.Type.DOUBLON || v.getPosition() != (v.estSurColonne() ? j : i))) {
+                continue;
+            }
+            Deduction.Regle regle = v.getType() == Violation.Type.TRIPLET ? Deduction.Regle.PAIRE
+                    : v.getType() == Violation.Type.DESEQUILIBRE ? Deduction.Regle.EQUILIBRE : Deduction.Regle.UNICITE;
+            return new Deduction(i, j, valeur, regle, v.estSurColonne());
+        }
+        return new Deduction(i, j, valeur, Deduction.Regle.UNICITE, false);
+    }
+
     /**
      * Teste si l'assignation (i,j)=valeur est compatible avec les règles
      * sans enregistrer le coup dans l'historique.
      */
     private boolean isValidAfterSetting(int i, int j, int valeur) {
         int ancienne = grille[i][j];
-        grille[i][j] = valeur;
+        grille[i][j] = (byte) valeur;
         boolean ok = estValide();
-        grille[i][j] = ancienne;
+        grille[i][j] = (byte) ancienne;
         return ok;
     }
 
@@ -354,22 +521,79 @@ public class EtatBinairo implements Serializable {
      * Retourne une liste détaillée des violations de règles.
      */
     public List<String> getViolations() {
-        List<String> violations = new ArrayList<>();
+        List<String> messages = new ArrayList<>();
+        for (Violation v : getViolationsDetaillees()) {
+            messages.add(v.getMessage());
+        }
+        return messages;
+    }
+
+    /**
+     * Violations sous forme typée, sans construire de texte. L'index est tenu à jour
+     * à chaque coup : seules la ligne et la colonne de la case jouée sont réexaminées.
+     * Les tailles que l'index ne gère pas (impaires) sont balayées entièrement.
+     */
+    public List<Violation> getViolationsDetaillees() {
+        if (!GrilleBinaire.supporte(taille)) return violationsParBalayage();
+        getMasques();
+        return violations.getViolations();
+    }
+
+    /**
+     * Cases en faute, une ligne par entrée : le bit j de l'entrée i est levé si la case
+     * (i, j) fait partie d'un triplet, d'une valeur en excès ou d'une ligne en double.
+     * Au-delà de 64 colonnes, les cases des colonnes suivantes ne sont pas signalées.
+     */
+    public long[] getCasesEnConflit() {
+        if (GrilleBinaire.supporte(taille)) {
+            getMasques();
+            return violations.getCasesEnConflit();
+        }
+        long[] cases = new long[taille];
+        for (Violation v : violationsParBalayage()) {
+            for (int n = 0; n < taille; n++) {
+                boolean enFaute;
+                switch (v.getType()) {
+                    case TRIPLET:
+                        enFaute = n >= v.getPosition() && n < v.getPosition() + 3;
+                        break;
+                    case DESEQUILIBRE:
+                        enFaute = valeurSur(v.estSurColonne(), v.getIndice(), n) == v.getValeur();
+                        break;
+                    default:
+                        enFaute = true;
+                }
+                if (!enFaute) continue;
+                marquerConflit(cases, v.estSurColonne(), v.getIndice(), n);
+                if (v.getType() == Violation.Type.DOUBLON) marquerConflit(cases, v.estSurColonne(), v.getPosition(), n);
+            }
+        }
+        return cases;
+    }
+
+    private int valeurSur(boolean surColonne, int indice, int n) {
+        return surColonne ? grille[n][indice] : grille[indice][n];
+    }
+
+    private static void marquerConflit(long[] cases, boolean surColonne, int indice, int n) {
+        int i = surColonne ? n : indice, j = surColonne ? indice : n;
+        if (j < Long.SIZE) cases[i] |= 1L << j;
+    }
+
+    // Ancien calcul complet, gardé pour les tailles impaires
+    private List<Violation> violationsParBalayage() {
+        List<Violation> violations = new ArrayList<>();
 
         // Vérifier les adjacences
         for (int i = 0; i < taille; i++) {
             for (int j = 0; j < taille - 2; j++) {
                 // Horizontal
-                if (grille[i][j] != VIDE && grille[i][j + 1] != VIDE && grille[i][j + 2] != VIDE) {
-                    if (grille[i][j].equals(grille[i][j + 1]) && grille[i][j].equals(grille[i][j + 2])) {
-                        violations.add("Trois " + grille[i][j] + " consécutifs en ligne " + (i+1) + ", colonnes " + (j+1) + "-" + (j+3));
-                    }
+                if (grille[i][j] != VIDE && grille[i][j] == grille[i][j + 1] && grille[i][j] == grille[i][j + 2]) {
+                    violations.add(Violation.triplet(false, i, grille[i][j], j));
                 }
                 // Vertical
-                if (grille[j][i] != VIDE && grille[j + 1][i] != VIDE && grille[j + 2][i] != VIDE) {
-                    if (grille[j][i].equals(grille[j + 1][i]) && grille[j][i].equals(grille[j + 2][i])) {
-                        violations.add("Trois " + grille[j][i] + " consécutifs en colonne " + (i+1) + ", lignes " + (j+1) + "-" + (j+3));
-                    }
+                if (grille[j][i] != VIDE && grille[j][i] == grille[j + 1][i] && grille[j][i] == grille[j + 2][i]) {
+                    violations.add(Violation.triplet(true, i, grille[j][i], j));
                 }
             }
         }
@@ -388,25 +612,17 @@ public class EtatBinairo implements Serializable {
                 else if (grille[j][i] == UN) nb1Colonne++;
             }
 
-            if (nb0Ligne > demiTaille) {
-                violations.add("Trop de 0 en ligne " + (i+1) + " (" + nb0Ligne + "/" + demiTaille + ")");
-            }
-            if (nb1Ligne > demiTaille) {
-                violations.add("Trop de 1 en ligne " + (i+1) + " (" + nb1Ligne + "/" + demiTaille + ")");
-            }
-            if (nb0Colonne > demiTaille) {
-                violations.add("Trop de 0 en colonne " + (i+1) + " (" + nb0Colonne + "/" + demiTaille + ")");
-            }
-            if (nb1Colonne > demiTaille) {
-                violations.add("Trop de 1 en colonne " + (i+1) + " (" + nb1Colonne + "/" + demiTaille + ")");
-            }
+            if (nb0Ligne > demiTaille) violations.add(Violation.desequilibre(false, i, ZERO, nb0Ligne, demiTaille));
+            if (nb1Ligne > demiTaille) violations.add(Violation.desequilibre(false, i, UN, nb1Ligne, demiTaille));
+            if (nb0Colonne > demiTaille) violations.add(Violation.desequilibre(true, i, ZERO, nb0Colonne, demiTaille));
+            if (nb1Colonne > demiTaille) violations.add(Violation.desequilibre(true, i, UN, nb1Colonne, demiTaille));
         }
 
         // Vérifier l'unicité (seulement pour les lignes/colonnes complètes)
         for (int i = 0; i < taille; i++) {
             for (int k = i + 1; k < taille; k++) {
                 if (ligneEstComplete(i) && ligneEstComplete(k) && lignesIdentiques(i, k)) {
-                    violations.add("Lignes " + (i+1) + " et " + (k+1) + " identiques");
+                    violations.add(Violation.doublon(false, i, k));
                 }
             }
         }
@@ -414,7 +630,7 @@ public class EtatBinairo implements Serializable {
         for (int j = 0; j < taille; j++) {
             for (int k = j + 1; k < taille; k++) {
                 if (colonneEstComplete(j) && colonneEstComplete(k) && colonnesIdentiques(j, k)) {
-                    violations.add("Colonnes " + (j+1) + " et " + (k+1) + " identiques");
+                    violations.add(Violation.doublon(true, j, k));
                 }
             }
         }
@@ -450,12 +666,56 @@ public class EtatBinairo implements Serializable {
         }
     }
 
+    /**
+     * Représentation compacte sur une seule ligne : les cases ligne par ligne,
+     * '0', '1' ou '.' pour une case vide. Format utilisé par les outils en lot.
+     */
+    public String toLigne() {
+        StringBuilder sb = new StringBuilder(taille * taille);
+        for (int i = 0; i < taille; i++) {
+            for (int j = 0; j < taille; j++) {
+                sb.append(grille[i][j] == VIDE ? '.' : (char) ('0' + grille[i][j]));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Construit une grille à partir de sa représentation texte ({@link #toLigne()}
+     * ou {@link #toString()}). Les blancs sont ignorés, '.', '-' et '_' désignent
+     * une case vide. La taille est déduite du nombre de cases.
+     */
+    public static EtatBinairo depuisTexte(String texte) {
+        StringBuilder cases = new StringBuilder(texte.length());
+        for (int k = 0; k < texte.length(); k++) {
+            char ch = texte.charAt(k);
+            if (!Character.isWhitespace(ch)) cases.append(ch);
+        }
+
+        int taille = (int) Math.round(Math.sqrt(cases.length()));
+        if (taille == 0 || taille % 2 != 0 || taille * taille != cases.length()) {
+            throw new IllegalArgumentException("Grille invalide: " + cases.length() + " cases");
+        }
+
+        EtatBinairo etat = new EtatBinairo(taille);
+        for (int k = 0; k < cases.length(); k++) {
+            char ch = cases.charAt(k);
+            int i = k / taille, j = k % taille;
+            if (ch == '0' || ch == '1') {
+                etat.grille[i][j] = (byte) (ch - '0');
+            } else if (ch != '.' && ch != '-' && ch != '_') {
+                throw new IllegalArgumentException("Caractère inattendu '" + ch + "' en position " + k);
+            }
+        }
+        return etat;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
         for (int i = 0; i < taille; i++) {
             for (int j = 0; j < taille; j++) {
-                sb.append(grille[i][j] == VIDE ? "." : grille[i][j]).append(" ");
+                sb.append(grille[i][j] == VIDE ? "." : String.valueOf(grille[i][j])).append(" ");
             }
             sb.append("\n");
         }
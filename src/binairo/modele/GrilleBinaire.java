@@ -0,0 +1,156 @@
+package binairo.modele;
+
+/**
+ * Représentation compacte d'une grille (taille paire, jusqu'à 64) par masques de bits,
+ * tenue à la fois par lignes et par colonnes. Pensée pour les moteurs rapides :
+ * placer ou effacer une case est en O(1), sauvegarder un état revient à copier 4n mots.
+ *
+ * Les lignes sont indexées de 0 à n-1 et les colonnes de n à 2n-1 dans les méthodes
+ * qui prennent un indice de ligne "générique" k.
+ */
+public final class GrilleBinaire {
+    public static final int TAILLE_MAX = 64;
+
+    private final int taille;
+    private final long plein;
+    private final long[] uns;            // uns[k] : cases à 1 de la ligne/colonne k
+    private final long[] remplies;       // remplies[k] : cases remplies de la ligne/colonne k
+    private int nbVides;
+
+    public GrilleBinaire(int taille) {
+        if (!supporte(taille)) {
+            throw new IllegalArgumentException("Taille non supportée: " + taille);
+        }
+        this.taille = taille;
+        this.plein = ReglesLigne.plein(taille);
+        this.uns = new long[2 * taille];
+        this.remplies = new long[2 * taille];
+        this.nbVides = taille * taille;
+    }
+
+    public static boolean supporte(int taille) {
+        return taille >= 2 && taille <= TAILLE_MAX && taille % 2 == 0;
+    }
+
+    public GrilleBinaire(GrilleBinaire autre) {
+        this(autre.taille);
+        restaurer(autre);
+    }
+
+    public static GrilleBinaire depuis(EtatBinairo etat) {
+        GrilleBinaire g = new GrilleBinaire(etat.getTaille());
+        for (int i = 0; i < g.taille; i++) {
+            for (int j = 0; j < g.taille; j++) {
+                int v = etat.getValeur(i, j);
+                if (v != EtatBinairo.VIDE) g.placer(i, j, v);
+            }
+        }
+        return g;
+    }
+
+    public EtatBinairo versEtat() {
+        EtatBinairo etat = new EtatBinairo(taille);
+        for (int i = 0; i < taille; i++) {
+            for (int j = 0; j < taille; j++) {
+                int v = get(i, j);
+                if (v != EtatBinairo.VIDE) etat.setValeur(i, j, v);
+            }
+        }
+        // Copie sans historique : les cases remplies ne doivent pas pouvoir être annulées
+        return new EtatBinairo(etat);
+    }
+
+    /**
+     * Recopie l'état d'une autre grille de même taille (sans allocation).
+     */
+    public void restaurer(GrilleBinaire autre) {
+        System.arraycopy(autre.uns, 0, uns, 0, uns.length);
+        System.arraycopy(autre.remplies, 0, remplies, 0, remplies.length);
+        nbVides = autre.nbVides;
+    }
+
+    public int getTaille() {
+        return taille;
+    }
+
+    public long getPlein() {
+        return plein;
+    }
+
+    public int getNbVides() {
+        return nbVides;
+    }
+
+    public boolean estComplete() {
+        return nbVides == 0;
+    }
+
+    public int get(int i, int j) {
+        long bit = 1L << j;
+        if ((remplies[i] & bit) == 0) return EtatBinairo.VIDE;
+        return (uns[i] & bit) != 0 ? EtatBinairo.UN : EtatBinairo.ZERO;
+    }
+
+    /**
+     * Remplit une case vide.
+     */
+    public void placer(int i, int j, int valeur) {
+        long bitLigne = 1L << j, bitColonne = 1L << i;
+        remplies[i] |= bitLigne;
+        remplies[taille + j] |= bitColonne;
+        if (valeur == EtatBinairo.UN) {
+            uns[i] |= bitLigne;
+            uns[taille + j] |= bitColonne;
+        }
+        nbVides--;
+    }
+
+    /**
+     * Vide une case remplie.
+     */
+    public void effacer(int i, int j) {
+        long bitLigne = ~(1L << j), bitColonne = ~(1L << i);
+        remplies[i] &= bitLigne;
+        remplies[taille + j] &= bitColonne;
+        uns[i] &= bitLigne;
+        uns[taille + j] &= bitColonne;
+        nbVides++;
+    }
+
+    /** Cases à 1 de la ligne générique k (ligne si k < n, colonne k-n sinon). */
+    public long masqueUns(int k) {
+        return uns[k];
+    }
+
+    /** Cases remplies de la ligne générique k. */
+    public long masqueRemplies(int k) {
+        return remplies[k];
+    }
+
+    /**
+     * Vrai si la ligne générique k, complète, est identique à une autre ligne complète
+     * de même orientation.
+     */
+    public boolean estDupliquee(int k) {
+        if (remplies[k] != plein) return false;
+        int debut = k < taille ? 0 : taille;
+        for (int autre = debut; autre < debut + taille; autre++) {
+            if (autre != k && remplies[autre] == plein && uns[autre] == uns[k]) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Vérifie toutes les règles sur la ligne générique k.
+     */
+    public boolean ligneValide(int k) {
+        return ReglesLigne.estCoherente(uns[k], remplies[k], taille) && !estDupliquee(k);
+    }
+
+    public boolean estValide() {
+        for (int k = 0; k < 2 * taille; k++) {
+            if (!ligneValide(k)) return false;
+        }
+        return true;
+    }
+}
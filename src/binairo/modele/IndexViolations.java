@@ -0,0 +1,178 @@
+package binairo.modele;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Violations d'une grille, tenues à jour coup par coup.
+ *
+ * Triplets et déséquilibres se lisent directement sur les masques d'une ligne ;
+ * seules les paires de lignes identiques sont mémorisées (un masque des lignes de même
+ * orientation identiques à chaque ligne). Un changement de case ne réexamine que sa
+ * ligne et sa colonne, et l'ensemble des lignes en faute est connu à tout moment.
+ */
+final class IndexViolations {
+    private final GrilleBinaire g;
+    private final int taille;
+    private final long plein;
+
+    // doublons[k] : bit a levé si la ligne générique k est identique à la ligne a de même orientation
+    private final long[] doublons;
+    // Lignes (indice 0) et colonnes (indice 1) qui enfreignent au moins une règle
+    private final long[] enFaute = new long[2];
+
+    private List<Violation> resultat;
+
+    IndexViolations(GrilleBinaire g) {
+        this.g = g;
+        this.taille = g.getTaille();
+        this.plein = g.getPlein();
+        this.doublons = new long[2 * taille];
+        for (int k = 0; k < 2 * taille; k++) {
+            mettreAJourLigne(k);
+        }
+    }
+
+    /**
+     * À appeler après chaque changement de la case (i, j).
+     */
+    void invalider(int i, int j) {
+        resultat = null;
+        mettreAJourLigne(i);
+        mettreAJourLigne(taille + j);
+    }
+
+    boolean estValide() {
+        return enFaute[0] == 0 && enFaute[1] == 0;
+    }
+
+    private void mettreAJourLigne(int k) {
+        int debut = k < taille ? 0 : taille;
+        long bit = 1L << (k - debut);
+
+        long anciens = doublons[k];
+        doublons[k] = 0;
+        while (anciens != 0) {
+            int a = Long.numberOfTrailingZeros(anciens);
+            anciens &= anciens - 1;
+            doublons[debut + a] &= ~bit;
+            marquer(debut + a);
+        }
+
+        if (g.masqueRemplies(k) == plein) {
+            long uns = g.masqueUns(k);
+            for (int autre = debut; autre < debut + taille; autre++) {
+                if (autre != k && g.masqueRemplies(autre) == plein && g.masqueUns(autre) == uns) {
+                    doublons[k] |= 1L << (autre - debut);
+                    doublons[autre] |= bit;
+                    marquer(autre);
+                }
+            }
+        }
+        marquer(k);
+    }
+
+    private void marquer(int k) {
+        int orientation = k < taille ? 0 : 1;
+        long bit = 1L << (k - orientation * taille);
+        boolean faute = doublons[k] != 0 || !ReglesLigne.estCoherente(g.masqueUns(k), g.masqueRemplies(k), taille);
+        if (faute) enFaute[orientation] |= bit;
+        else enFaute[orientation] &= ~bit;
+    }
+
+    /**
+     * Les violations dans l'ordre historique de {@link EtatBinairo#getViolations()} :
+     * triplets, puis déséquilibres, puis lignes et colonnes identiques.
+     */
+    List<Violation> getViolations() {
+        if (resultat != null) return resultat;
+        List<Violation> liste = new ArrayList<>();
+        long indices = enFaute[0] | enFaute[1];
+        int demi = taille / 2;
+
+        // Triplets : ligne i puis colonne i, par position croissante
+        for (long reste = indices; reste != 0; reste &= reste - 1) {
+            int i = Long.numberOfTrailingZeros(reste);
+            long[] debutsLigne = debutsTriplets(i), debutsColonne = debutsTriplets(taille + i);
+            for (int p = 0; p < taille - 2; p++) {
+                for (int valeur = 0; valeur <= 1; valeur++) {
+                    if ((debutsLigne[valeur] >>> p & 1) != 0) liste.add(Violation.triplet(false, i, valeur, p));
+                }
+                for (int valeur = 0; valeur <= 1; valeur++) {
+                    if ((debutsColonne[valeur] >>> p & 1) != 0) liste.add(Violation.triplet(true, i, valeur, p));
+                }
+            }
+        }
+
+        for (long reste = indices; reste != 0; reste &= reste - 1) {
+            int i = Long.numberOfTrailingZeros(reste);
+            for (int k : new int[]{i, taille + i}) {
+                long uns = g.masqueUns(k), zeros = g.masqueRemplies(k) & ~uns;
+                int nb0 = Long.bitCount(zeros), nb1 = Long.bitCount(uns);
+                if (nb0 > demi) liste.add(Violation.desequilibre(k >= taille, i, 0, nb0, demi));
+                if (nb1 > demi) liste.add(Violation.desequilibre(k >= taille, i, 1, nb1, demi));
+            }
+        }
+
+        for (int orientation = 0; orientation <= 1; orientation++) {
+            for (long reste = enFaute[orientation]; reste != 0; reste &= reste - 1) {
+                int i = Long.numberOfTrailingZeros(reste);
+                // Chaque paire une seule fois, depuis sa ligne de plus petit indice
+                long autres = doublons[orientation * taille + i] & -(2L << i);
+                for (; autres != 0; autres &= autres - 1) {
+                    liste.add(Violation.doublon(orientation == 1, i, Long.numberOfTrailingZeros(autres)));
+                }
+            }
+        }
+
+        resultat = Collections.unmodifiableList(liste);
+        return resultat;
+    }
+
+    /**
+     * {début des triplets de 0, début des triplets de 1} pour la ligne générique k.
+     */
+    private long[] debutsTriplets(int k) {
+        long uns = g.masqueUns(k), zeros = g.masqueRemplies(k) & ~uns;
+        return new long[]{
+                zeros & (zeros >>> 1) & (zeros >>> 2),
+                uns & (uns >>> 1) & (uns >>> 2)
+        };
+    }
+
+    /**
+     * Cases en faute, par ligne : bit j de la case i levé si (i, j) appartient à un
+     * triplet, porte une valeur en excès dans sa ligne ou sa colonne, ou se trouve dans
+     * une ligne ou colonne en double.
+     */
+    long[] getCasesEnConflit() {
+        long[] cases = new long[taille];
+        for (int orientation = 0; orientation <= 1; orientation++) {
+            for (long reste = enFaute[orientation]; reste != 0; reste &= reste - 1) {
+                int indice = Long.numberOfTrailingZeros(reste);
+                long masque = casesEnFaute(orientation * taille + indice);
+                if (orientation == 0) {
+                    cases[indice] |= masque;
+                } else {
+                    for (; masque != 0; masque &= masque - 1) {
+                        cases[Long.numberOfTrailingZeros(masque)] |= 1L << indice;
+                    }
+                }
+            }
+        }
+        return cases;
+    }
+
+    private long casesEnFaute(int k) {
+        if (doublons[k] != 0) return plein;
+        long uns = g.masqueUns(k), zeros = g.masqueRemplies(k) & ~uns;
+        long masque = 0;
+        for (long v : debutsTriplets(k)) {
+            masque |= v | (v << 1) | (v << 2);
+        }
+        if (Long.bitCount(uns) > taille / 2) masque |= uns;
+        if (Long.bitCount(zeros) > taille / 2) masque |= zeros;
+        return masque & plein;
+    }
+}
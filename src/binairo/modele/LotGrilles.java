@@ -0,0 +1,298 @@
+package binairo.modele;
+
+import java.util.Arrays;
+
+/**
+ * Lot de grilles de même taille à valider ensemble (corpus, génération).
+ *
+ * Les masques de {@link GrilleBinaire} sont rangés en structure de tableaux par blocs de
+ * {@link #BLOC} grilles : dans un bloc, les masques de la ligne générique k (lignes puis
+ * colonnes) des différentes grilles sont contigus. Une même opération porte ainsi sur la
+ * ligne k de plusieurs grilles voisines, ce que la validation vectorielle exploite, et
+ * toutes les lignes d'un bloc tiennent dans quelques lignes de cache. Jusqu'à la taille
+ * {@link #TAILLE_MAX_32}, les masques sont rangés sur 32 bits : un vecteur porte alors deux
+ * fois plus de grilles.
+ *
+ * {@link #valider(boolean[])} applique les mêmes règles que {@link GrilleBinaire#estValide()}
+ * (grilles partielles comprises). Elle passe par l'API Vector ({@code jdk.incubator.vector})
+ * quand le module est chargé (option {@code --add-modules jdk.incubator.vector}), sinon par
+ * une boucle scalaire équivalente ; {@code -Dbinairo.vectoriel=false} force la seconde.
+ */
+public final class LotGrilles {
+    /** Grilles par bloc : au moins autant que de voies longues d'un vecteur AVX-512. */
+    static final int BLOC = 8;
+    /** Plus grande taille dont les masques sont rangés en {@code int}. */
+    static final int TAILLE_MAX_32 = 32;
+
+    private static final ValidateurLot VECTORIEL = chargerVectoriel();
+
+    /** Par caractère : 0 autre, 1 case vide, 2 zéro, 3 un (bit 1 : remplie, bits 0 et 1 : un). */
+    private static final byte[] CLASSES = new byte[128];
+
+    static {
+        CLASSES['.'] = CLASSES['-'] = CLASSES['_'] = 1;
+        CLASSES['0'] = 2;
+        CLASSES['1'] = 3;
+    }
+
+    /**
+     * Validation d'un lot entier ; l'implémentation vectorielle est chargée par réflexion
+     * pour que ce fichier ne dépende pas du module incubateur.
+     */
+    interface ValidateurLot {
+        void valider(LotGrilles lot, boolean[] valides);
+    }
+
+    private final int taille;
+    private final int capacite;
+    private final long plein;
+    // Un seul des deux jeux de tableaux est alloué, selon la taille
+    private final long[] uns;
+    private final long[] remplies;
+    private final int[] uns32;
+    private final int[] remplies32;
+    private final long[] lecture;        // colonnes (uns, remplies) puis lignes de la grille lue
+    private int nombre;
+
+    public LotGrilles(int taille, int capacite) {
+        if (!GrilleBinaire.supporte(taille)) {
+            throw new IllegalArgumentException("Taille non supportée: " + taille);
+        }
+        if (capacite < 1) throw new IllegalArgumentException("Capacité invalide: " + capacite);
+        this.taille = taille;
+        this.capacite = capacite;
+        this.plein = ReglesLigne.plein(taille);
+        int longueur = (capacite + BLOC - 1) / BLOC * 2 * taille * BLOC;
+        boolean court = taille <= TAILLE_MAX_32;
+        this.uns = court ? null : new long[longueur];
+        this.remplies = court ? null : new long[longueur];
+        this.uns32 = court ? new int[longueur] : null;
+        this.remplies32 = court ? new int[longueur] : null;
+        this.lecture = new long[4 * taille];
+    }
+
+    private static ValidateurLot chargerVectoriel() {
+        if (!Boolean.parseBoolean(System.getProperty("binairo.vectoriel", "true"))) return null;
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) return null;
+        try {
+            return (ValidateurLot) Class.forName("binairo.modele.ValidationVectorielle")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Vrai si {@link #valider(boolean[])} passe par l'API Vector.
+     */
+    public static boolean estVectorise() {
+        return VECTORIEL != null;
+    }
+
+    public int getTaille() {
+        return taille;
+    }
+
+    public int getCapacite() {
+        return capacite;
+    }
+
+    public int getNombre() {
+        return nombre;
+    }
+
+    public boolean estPlein() {
+        return nombre == capacite;
+    }
+
+    /**
+     * Vide le lot sans réallouer ses tableaux.
+     */
+    public void vider() {
+        int fin = (nombre + BLOC - 1) / BLOC * 2 * taille * BLOC;
+        if (uns32 != null) {
+            Arrays.fill(uns32, 0, fin, 0);
+            Arrays.fill(remplies32, 0, fin, 0);
+        } else {
+            Arrays.fill(uns, 0, fin, 0L);
+            Arrays.fill(remplies, 0, fin, 0L);
+        }
+        nombre = 0;
+    }
+
+    /**
+     * Ajoute une grille et retourne sa position dans le lot.
+     */
+    public int ajouter(GrilleBinaire grille) {
+        verifierAjout(grille.getTaille());
+        for (int k = 0; k < 2 * taille; k++) {
+            ecrire(indice(k, nombre), grille.masqueUns(k), grille.masqueRemplies(k));
+        }
+        return nombre++;
+    }
+
+    public int ajouter(EtatBinairo etat) {
+        verifierAjout(etat.getTaille());
+        for (int i = 0; i < taille; i++) {
+            for (int j = 0; j < taille; j++) {
+                int v = etat.getValeur(i, j);
+                if (v != EtatBinairo.VIDE) placer(i, j, v);
+            }
+        }
+        return nombre++;
+    }
+
+    /**
+     * Ajoute une grille écrite au format {@link EtatBinairo#toLigne()} sans passer par un
+     * {@link EtatBinairo} : blancs ignorés, '.', '-' et '_' pour une case vide.
+     * @throws IllegalArgumentException si le nombre de cases ou un caractère ne convient pas
+     */
+    public int ajouter(CharSequence texte) {
+        return ajouter(texte, 0, texte.length());
+    }
+
+    /**
+     * Comme {@link #ajouter(CharSequence)}, pour les caractères {@code debut} inclus à
+     * {@code fin} exclu (un champ d'une ligne de corpus, sans découpage préalable).
+     */
+    public int ajouter(CharSequence texte, int debut, int fin) {
+        verifierAjout(taille);
+        // Colonnes montées à part, lignes dans des variables : une grille refusée ne laisse
+        // rien dans le lot
+        Arrays.fill(lecture, 0L);
+        int i = 0, j = 0;
+        long ligneUns = 0, ligneRemplies = 0;
+        for (int p = debut; p < fin; p++) {
+            char ch = texte.charAt(p);
+            // Sans branche selon la valeur, imprévisible d'une case à l'autre
+            int classe = ch < CLASSES.length ? CLASSES[ch] : 0;
+            if (classe == 0) {
+                if (Character.isWhitespace(ch)) continue;
+                throw new IllegalArgumentException("Caractère inattendu '" + ch + "' en position " + (i * taille + j));
+            }
+            long rempli = classe >> 1, un = (classe >> 1) & classe;
+            ligneUns |= un << j;
+            ligneRemplies |= rempli << j;
+            lecture[j] |= un << i;
+            lecture[taille + j] |= rempli << i;
+            if (i == taille) throw new IllegalArgumentException("Grille invalide: plus de " + taille * taille + " cases");
+            if (++j == taille) {
+                lecture[2 * taille + i] = ligneUns;
+                lecture[3 * taille + i] = ligneRemplies;
+                ligneUns = ligneRemplies = 0;
+                j = 0;
+                i++;
+            }
+        }
+        if (i != taille) throw new IllegalArgumentException("Grille invalide: " + (i * taille + j) + " cases");
+        int position = indice(0, nombre);
+        for (int k = 0; k < taille; k++) {
+            ecrire(position + k * BLOC, lecture[2 * taille + k], lecture[3 * taille + k]);
+            ecrire(position + (taille + k) * BLOC, lecture[k], lecture[taille + k]);
+        }
+        return nombre++;
+    }
+
+    private void verifierAjout(int tailleGrille) {
+        if (tailleGrille != taille) {
+            throw new IllegalArgumentException("Taille " + tailleGrille + " dans un lot de " + taille);
+        }
+        if (nombre == capacite) throw new IllegalStateException("Lot plein");
+    }
+
+    private void placer(int i, int j, int valeur) {
+        int ligne = indice(i, nombre), colonne = indice(taille + j, nombre);
+        long un = valeur == EtatBinairo.UN ? 1 : 0;
+        ecrire(ligne, unsA(ligne) | un << j, rempliesA(ligne) | 1L << j);
+        ecrire(colonne, unsA(colonne) | un << i, rempliesA(colonne) | 1L << i);
+    }
+
+    private void ecrire(int position, long un, long rempli) {
+        if (uns32 != null) {
+            uns32[position] = (int) un;
+            remplies32[position] = (int) rempli;
+        } else {
+            uns[position] = un;
+            remplies[position] = rempli;
+        }
+    }
+
+    private long unsA(int position) {
+        return uns32 != null ? uns32[position] & 0xFFFFFFFFL : uns[position];
+    }
+
+    private long rempliesA(int position) {
+        return remplies32 != null ? remplies32[position] & 0xFFFFFFFFL : remplies[position];
+    }
+
+    /**
+     * Valide toutes les grilles du lot : {@code valides[g]} reçoit le verdict de la g-ième.
+     * @param valides tableau d'au moins {@link #getNombre()} cases
+     */
+    public void valider(boolean[] valides) {
+        if (valides.length < nombre) throw new IllegalArgumentException("Tableau trop court");
+        if (VECTORIEL != null) {
+            VECTORIEL.valider(this, valides);
+        } else {
+            validerScalaire(0, nombre, valides);
+        }
+    }
+
+    /**
+     * Version scalaire, aussi utilisée pour la fin de lot qui ne remplit pas un vecteur.
+     */
+    void validerScalaire(int debut, int fin, boolean[] valides) {
+        for (int g = debut; g < fin; g++) {
+            valides[g] = estValide(g);
+        }
+    }
+
+    private boolean estValide(int g) {
+        int base = indice(0, g);
+        for (int k = 0; k < 2 * taille; k++) {
+            if (!ReglesLigne.estCoherente(unsA(base + k * BLOC), rempliesA(base + k * BLOC), taille)) {
+                return false;
+            }
+        }
+        for (int debut = 0; debut < 2 * taille; debut += taille) {
+            for (int a = debut; a < debut + taille; a++) {
+                if (rempliesA(base + a * BLOC) != plein) continue;
+                long ua = unsA(base + a * BLOC);
+                for (int b = a + 1; b < debut + taille; b++) {
+                    if (rempliesA(base + b * BLOC) == plein && unsA(base + b * BLOC) == ua) return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Position du masque de la ligne générique k de la grille g ; pour une ligne donnée,
+     * les grilles d'un même bloc sont à des positions consécutives.
+     */
+    int indice(int k, int g) {
+        return (g / BLOC * 2 * taille + k) * BLOC + g % BLOC;
+    }
+
+    /** Masques sur 64 bits, ou null jusqu'à la taille {@link #TAILLE_MAX_32}. */
+    long[] uns() {
+        return uns;
+    }
+
+    long[] remplies() {
+        return remplies;
+    }
+
+    /** Masques sur 32 bits, ou null au-delà de la taille {@link #TAILLE_MAX_32}. */
+    int[] uns32() {
+        return uns32;
+    }
+
+    int[] remplies32() {
+        return remplies32;
+    }
+
+    long getPlein() {
+        return plein;
+    }
+}
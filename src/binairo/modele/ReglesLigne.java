@@ -0,0 +1,54 @@
+package binairo.modele;
+
+/**
+ * Règles du Binairo appliquées à une ligne (ou colonne) représentée par des masques de bits :
+ * le bit k correspond à la k-ième case de la ligne. Une ligne est décrite par le masque
+ * des cases à 1 et celui des cases remplies ; les 0 s'obtiennent par {@code remplies & ~uns}.
+ */
+public final class ReglesLigne {
+
+    private ReglesLigne() { }
+
+    /**
+     * Masque de toutes les cases d'une ligne de la taille donnée (1 à 64).
+     */
+    public static long plein(int taille) {
+        return taille == 64 ? -1L : (1L << taille) - 1;
+    }
+
+    /**
+     * Vrai si le masque contient trois bits consécutifs.
+     */
+    public static boolean aTriplet(long valeurs) {
+        return (valeurs & (valeurs >>> 1) & (valeurs >>> 2)) != 0;
+    }
+
+    /**
+     * Cases où placer une valeur supplémentaire (celle du masque donné) formerait
+     * trois identiques consécutifs : motifs "v v _", "_ v v" et "v _ v".
+     */
+    public static long creeTriplet(long valeurs, long plein) {
+        long gauche1 = valeurs << 1, gauche2 = valeurs << 2;
+        long droite1 = valeurs >>> 1, droite2 = valeurs >>> 2;
+        return ((droite1 & droite2) | (gauche1 & gauche2) | (gauche1 & droite1)) & plein;
+    }
+
+    /**
+     * Cases vides qui ne peuvent plus recevoir la valeur du masque : soit parce qu'elles
+     * formeraient un triplet, soit parce que la ligne contient déjà sa moitié de cette valeur.
+     */
+    public static long interdites(long valeurs, long vides, int taille) {
+        if (Long.bitCount(valeurs) >= taille / 2) return vides;
+        return creeTriplet(valeurs, plein(taille)) & vides;
+    }
+
+    /**
+     * Vérifie les règles internes à la ligne (pas de triplet, pas plus de n/2 de chaque valeur).
+     */
+    public static boolean estCoherente(long uns, long remplies, int taille) {
+        long zeros = remplies & ~uns;
+        int demi = taille / 2;
+        return !aTriplet(uns) && !aTriplet(zeros)
+                && Long.bitCount(uns) <= demi && Long.bitCount(zeros) <= demi;
+    }
+}
@@ -0,0 +1,152 @@
+package binairo.modele;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Validation d'un {@link LotGrilles} avec l'API Vector : chaque voie d'un vecteur porte une
+ * grille. Jusqu'à la taille 32, les masques sont des {@code int}, soit 8 grilles par
+ * instruction en AVX2 ; au-delà, des {@code long}, 8 grilles en AVX-512 (4 en AVX2).
+ * Les deux versions sont identiques au type près. Les règles sont celles de
+ * {@link ReglesLigne#estCoherente} et de {@link GrilleBinaire#estDupliquee}, appliquées
+ * ligne générique par ligne générique.
+ *
+ * Chargée par réflexion depuis {@link LotGrilles}, seulement si le module
+ * {@code jdk.incubator.vector} est présent.
+ */
+final class ValidationVectorielle implements LotGrilles.ValidateurLot {
+
+    // Un vecteur ne doit pas déborder d'un bloc du lot
+    private static final VectorSpecies<Long> ESPECE = LongVector.SPECIES_PREFERRED.length() <= LotGrilles.BLOC
+            ? LongVector.SPECIES_PREFERRED : LongVector.SPECIES_512;
+    private static final VectorSpecies<Integer> ESPECE_32 = IntVector.SPECIES_PREFERRED.length() <= LotGrilles.BLOC
+            ? IntVector.SPECIES_PREFERRED : IntVector.SPECIES_256;
+
+    @Override
+    public void valider(LotGrilles lot, boolean[] valides) {
+        if (lot.uns32() != null) {
+            valider32(lot, valides);
+        } else {
+            valider64(lot, valides);
+        }
+    }
+
+    private static void valider64(LotGrilles lot, boolean[] valides) {
+        int taille = lot.getTaille(), nombre = lot.getNombre(), pas = LotGrilles.BLOC;
+        long[] uns = lot.uns(), remplies = lot.remplies();
+        long plein = lot.getPlein();
+        int borne = ESPECE.loopBound(nombre);
+
+        for (int g = 0; g < borne; g += ESPECE.length()) {
+            int base = lot.indice(0, g);
+            // Fautes accumulées en bits, sans masque intermédiaire : une voie est invalide
+            // si « fautes » est non nul ou si « signes » est négatif
+
+            // Triplets et excès d'une valeur (n/2 - nombre de bits < 0)
+            LongVector fautes = LongVector.zero(ESPECE), signes = LongVector.zero(ESPECE);
+
+            for (int k = 0; k < 2 * taille; k++) {
+                LongVector u = LongVector.fromArray(ESPECE, uns, base + k * pas);
+                LongVector z = LongVector.fromArray(ESPECE, remplies, base + k * pas).and(u.not());
+                fautes = fautes.or(triplets(u)).or(triplets(z));
+                signes = signes.or(nombreDeBits(u).neg().add(taille / 2))
+                        .or(nombreDeBits(z).neg().add(taille / 2));
+            }
+
+            // Lignes complètes en double, par orientation : d = (ua ^ ub) | (ra ^ plein) | (rb ^ plein)
+            // est nul pour un doublon, et (d - 1) & ~d n'a son bit de signe levé que si d est nul
+            for (int a = 0; a < 2 * taille; a++) {
+                int fin = a < taille ? taille : 2 * taille;
+                LongVector ua = LongVector.fromArray(ESPECE, uns, base + a * pas);
+                LongVector incompleteA = LongVector.fromArray(ESPECE, remplies, base + a * pas).lanewise(
+                        VectorOperators.XOR, plein);
+                if (incompleteA.compare(VectorOperators.NE, 0L).allTrue()) continue;
+                // Accumulateur propre à la ligne a : un vecteur porté par deux boucles imbriquées
+                // n'est pas gardé en registre par C2 en Java 17, mais réalloué à chaque tour
+                LongVector doublons = LongVector.zero(ESPECE);
+                for (int b = a + 1; b < fin; b++) {
+                    LongVector d = LongVector.fromArray(ESPECE, uns, base + b * pas).lanewise(VectorOperators.XOR, ua)
+                            .or(LongVector.fromArray(ESPECE, remplies, base + b * pas).lanewise(
+                                    VectorOperators.XOR, plein))
+                            .or(incompleteA);
+                    doublons = doublons.or(d.sub(1L).and(d.not()));
+                }
+                signes = signes.or(doublons);
+            }
+            fautes.compare(VectorOperators.EQ, 0L).and(signes.compare(VectorOperators.GE, 0L))
+                    .intoArray(valides, g);
+        }
+        lot.validerScalaire(borne, nombre, valides);
+    }
+
+    private static void valider32(LotGrilles lot, boolean[] valides) {
+        int taille = lot.getTaille(), nombre = lot.getNombre(), pas = LotGrilles.BLOC;
+        int[] uns = lot.uns32(), remplies = lot.remplies32();
+        int plein = (int) lot.getPlein();
+        int borne = ESPECE_32.loopBound(nombre);
+
+        for (int g = 0; g < borne; g += ESPECE_32.length()) {
+            int base = lot.indice(0, g);
+            IntVector fautes = IntVector.zero(ESPECE_32), signes = IntVector.zero(ESPECE_32);
+
+            for (int k = 0; k < 2 * taille; k++) {
+                IntVector u = IntVector.fromArray(ESPECE_32, uns, base + k * pas);
+                IntVector z = IntVector.fromArray(ESPECE_32, remplies, base + k * pas).and(u.not());
+                fautes = fautes.or(triplets(u)).or(triplets(z));
+                signes = signes.or(nombreDeBits(u).neg().add(taille / 2))
+                        .or(nombreDeBits(z).neg().add(taille / 2));
+            }
+
+            for (int a = 0; a < 2 * taille; a++) {
+                int fin = a < taille ? taille : 2 * taille;
+                IntVector ua = IntVector.fromArray(ESPECE_32, uns, base + a * pas);
+                IntVector incompleteA = IntVector.fromArray(ESPECE_32, remplies, base + a * pas).lanewise(
+                        VectorOperators.XOR, plein);
+                if (incompleteA.compare(VectorOperators.NE, 0).allTrue()) continue;
+                IntVector doublons = IntVector.zero(ESPECE_32);
+                for (int b = a + 1; b < fin; b++) {
+                    IntVector d = IntVector.fromArray(ESPECE_32, uns, base + b * pas).lanewise(VectorOperators.XOR, ua)
+                            .or(IntVector.fromArray(ESPECE_32, remplies, base + b * pas).lanewise(
+                                    VectorOperators.XOR, plein))
+                            .or(incompleteA);
+                    doublons = doublons.or(d.sub(1).and(d.not()));
+                }
+                signes = signes.or(doublons);
+            }
+            fautes.compare(VectorOperators.EQ, 0).and(signes.compare(VectorOperators.GE, 0))
+                    .intoArray(valides, g);
+        }
+        lot.validerScalaire(borne, nombre, valides);
+    }
+
+    private static LongVector triplets(LongVector v) {
+        return v.and(v.lanewise(VectorOperators.LSHR, 1)).and(v.lanewise(VectorOperators.LSHR, 2));
+    }
+
+    /**
+     * Nombre de bits de chaque voie (l'API de Java 17 n'a pas de BIT_COUNT) ; les octets
+     * sont sommés par décalages, la multiplication 64 bits n'existant pas en AVX2.
+     */
+    private static LongVector nombreDeBits(LongVector v) {
+        v = v.sub(v.lanewise(VectorOperators.LSHR, 1).and(0x5555555555555555L));
+        v = v.and(0x3333333333333333L).add(v.lanewise(VectorOperators.LSHR, 2).and(0x3333333333333333L));
+        v = v.add(v.lanewise(VectorOperators.LSHR, 4)).and(0x0F0F0F0F0F0F0F0FL);
+        v = v.add(v.lanewise(VectorOperators.LSHL, 8));
+        v = v.add(v.lanewise(VectorOperators.LSHL, 16));
+        return v.add(v.lanewise(VectorOperators.LSHL, 32)).lanewise(VectorOperators.LSHR, 56);
+    }
+
+    private static IntVector triplets(IntVector v) {
+        return v.and(v.lanewise(VectorOperators.LSHR, 1)).and(v.lanewise(VectorOperators.LSHR, 2));
+    }
+
+    private static IntVector nombreDeBits(IntVector v) {
+        v = v.sub(v.lanewise(VectorOperators.LSHR, 1).and(0x55555555));
+        v = v.and(0x33333333).add(v.lanewise(VectorOperators.LSHR, 2).and(0x33333333));
+        v = v.add(v.lanewise(VectorOperators.LSHR, 4)).and(0x0F0F0F0F);
+        v = v.add(v.lanewise(VectorOperators.LSHL, 8));
+        return v.add(v.lanewise(VectorOperators.LSHL, 16)).lanewise(VectorOperators.LSHR, 24);
+    }
+}
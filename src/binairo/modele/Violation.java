@@ -0,0 +1,87 @@
+package binairo.modele;
+
+/**
+ * Règle enfreinte sur une ligne ou une colonne. Le message lisible n'est construit
+ * qu'à la demande ({@link #getMessage()}).
+ */
+public final class Violation {
+
+    public enum Type {
+        TRIPLET,        // trois valeurs identiques consécutives
+        DESEQUILIBRE,   // plus de n/2 fois la même valeur
+        DOUBLON         // deux lignes (ou colonnes) complètes identiques
+    }
+
+    private final Type type;
+    private final boolean surColonne;
+    private final int indice;
+    private final int valeur;
+    private final int position;
+    private final int limite;
+
+    private Violation(Type type, boolean surColonne, int indice, int valeur, int position, int limite) {
+        this.type = type;
+        this.surColonne = surColonne;
+        this.indice = indice;
+        this.valeur = valeur;
+        this.position = position;
+        this.limite = limite;
+    }
+
+    static Violation triplet(boolean surColonne, int indice, int valeur, int debut) {
+        return new Violation(Type.TRIPLET, surColonne, indice, valeur, debut, 0);
+    }
+
+    static Violation desequilibre(boolean surColonne, int indice, int valeur, int nombre, int limite) {
+        return new Violation(Type.DESEQUILIBRE, surColonne, indice, valeur, nombre, limite);
+    }
+
+    static Violation doublon(boolean surColonne, int indice, int autre) {
+        return new Violation(Type.DOUBLON, surColonne, indice, EtatBinairo.VIDE, autre, 0);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /** Vrai si la violation porte sur une colonne, faux pour une ligne. */
+    public boolean estSurColonne() {
+        return surColonne;
+    }
+
+    /** Indice (à partir de 0) de la ligne ou colonne concernée. */
+    public int getIndice() {
+        return indice;
+    }
+
+    /** Valeur en cause (TRIPLET, DESEQUILIBRE), VIDE pour un doublon. */
+    public int getValeur() {
+        return valeur;
+    }
+
+    /**
+     * Selon le type : première case du triplet, nombre de cases de la valeur en trop,
+     * ou indice de l'autre ligne identique.
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    public String getMessage() {
+        String ou = surColonne ? "colonne" : "ligne";
+        switch (type) {
+            case TRIPLET:
+                return "Trois " + valeur + " consécutifs en " + ou + " " + (indice + 1) + ", "
+                        + (surColonne ? "lignes " : "colonnes ") + (position + 1) + "-" + (position + 3);
+            case DESEQUILIBRE:
+                return "Trop de " + valeur + " en " + ou + " " + (indice + 1) + " (" + position + "/" + limite + ")";
+            default:
+                return (surColonne ? "Colonnes " : "Lignes ") + (indice + 1) + " et " + (position + 1) + " identiques";
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getMessage();
+    }
+}
@@ -0,0 +1,355 @@
+package binairo.outils;
+
+import binairo.modele.EtatBinairo;
+import binairo.recherche.ConfigurationCSP;
+import binairo.recherche.MoteurBinairoCSP;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Banc d'essai des configurations du moteur CSP sur un corpus.
+ *
+ * Pour chaque configuration, chaque grille est d'abord résolue {@code echauffement} fois
+ * sans mesure (compilation à la volée), puis {@code repetitions} fois en mesurant le
+ * temps (System.nanoTime) et les nœuds de chaque résolution. Les grilles sont réparties
+ * sur un pool de threads, un moteur par grille ; les configurations passent l'une après
+ * l'autre. Par configuration : médiane, p90, p99 et écart type des temps, nœuds par
+ * seconde et proportion de résolutions abouties (une résolution qui dépasse le délai
+ * compte comme non aboutie), ainsi que le temps CPU et les octets alloués moyens par
+ * résolution, cumulés sur les threads du pool. Sorties CSV, JSON ou tableau texte.
+ *
+ * Usage : BancEssai [--config mrv,degree ...] [--echauffement N] [--repetitions N]
+ *                   [--threads N] [--delai ms] [--format csv|json|texte] [--sortie fichier]
+ *                   (fichier | -)
+ * Sans --config, les configurations de {@link ConfigurationCSP#standards()}.
+ */
+public class BancEssai {
+
+    /**
+     * Statistiques d'une configuration sur le corpus.
+     */
+    public static final class Resultat {
+        private final ConfigurationCSP configuration;
+        private final int nbGrilles;
+        private final long[] durees;
+        private final long noeuds;
+        private final int nbResolues;
+        private final long nanosCpu;
+        private final long octetsAlloues;
+
+        Resultat(ConfigurationCSP configuration, int nbGrilles, long[] durees, long noeuds, int nbResolues,
+                 long nanosCpu, long octetsAlloues) {
+            this.configuration = configuration;
+            this.nbGrilles = nbGrilles;
+            this.durees = durees;
+            this.noeuds = noeuds;
+            this.nbResolues = nbResolues;
+            this.nanosCpu = nanosCpu;
+            this.octetsAlloues = octetsAlloues;
+            Arrays.sort(this.durees);
+        }
+
+        public ConfigurationCSP getConfiguration() {
+            return configuration;
+        }
+
+        public int getNbGrilles() {
+            return nbGrilles;
+        }
+
+        public int getNbMesures() {
+            return durees.length;
+        }
+
+        public double getMedianeMs() {
+            return percentile(50) / 1e6;
+        }
+
+        public double getP90Ms() {
+            return percentile(90) / 1e6;
+        }
+
+        public double getP99Ms() {
+            return percentile(99) / 1e6;
+        }
+
+        public double getEcartTypeMs() {
+            if (durees.length == 0) return 0;
+            double moyenne = 0;
+            for (long d : durees) moyenne += d;
+            moyenne /= durees.length;
+            double somme = 0;
+            for (long d : durees) somme += (d - moyenne) * (d - moyenne);
+            return Math.sqrt(somme / durees.length) / 1e6;
+        }
+
+        public double getNoeudsParSeconde() {
+            long total = 0;
+            for (long d : durees) total += d;
+            return total == 0 ? 0 : noeuds / (total / 1e9);
+        }
+
+        public double getTauxResolues() {
+            return durees.length == 0 ? 0 : (double) nbResolues / durees.length;
+        }
+
+        /**
+         * Temps CPU moyen d'une résolution mesurée.
+         */
+        public double getCpuMoyenMs() {
+            return durees.length == 0 ? 0 : nanosCpu / 1e6 / durees.length;
+        }
+
+        /**
+         * Octets alloués en moyenne par une résolution mesurée.
+         */
+        public double getOctetsMoyens() {
+            return durees.length == 0 ? 0 : (double) octetsAlloues / durees.length;
+        }
+
+        private long percentile(int p) {
+            if (durees.length == 0) return 0;
+            int rang = (int) Math.ceil(p / 100.0 * durees.length) - 1;
+            return durees[Math.max(0, Math.min(rang, durees.length - 1))];
+        }
+    }
+
+    private final int echauffement;
+    private final int repetitions;
+    private final int nbThreads;
+    private final long delaiMs;
+
+    /**
+     * @param delaiMs délai maximal d'une résolution, 0 pour aucun
+     */
+    public BancEssai(int echauffement, int repetitions, int nbThreads, long delaiMs) {
+        if (echauffement < 0 || repetitions < 1 || nbThreads < 1) {
+            throw new IllegalArgumentException("Paramètres du banc invalides");
+        }
+        this.echauffement = echauffement;
+        this.repetitions = repetitions;
+        this.nbThreads = nbThreads;
+        this.delaiMs = delaiMs;
+    }
+
+    /**
+     * Mesure chaque configuration sur le corpus.
+     * @param suivi appelé avant chaque configuration (peut être null)
+     * @throws InterruptedException si le thread appelant est interrompu (les mesures
+     *                              en cours sont alors arrêtées)
+     */
+    public List<Resultat> mesurer(List<ConfigurationCSP> configurations, List<EtatBinairo> corpus,
+                                  Consumer<ConfigurationCSP> suivi) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(nbThreads, r -> {
+            Thread t = new Thread(r, "banc-essai");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Resultat> resultats = new ArrayList<>();
+            for (ConfigurationCSP configuration : configurations) {
+                if (suivi != null) suivi.accept(configuration);
+                resultats.add(mesurer(pool, configuration, corpus));
+            }
+            return resultats;
+        } finally {
+            // Interrompt les résolutions encore en cours après une interruption
+            pool.shutdownNow();
+        }
+    }
+
+    private Resultat mesurer(ExecutorService pool, ConfigurationCSP configuration, List<EtatBinairo> corpus)
+            throws InterruptedException {
+        List<Callable<long[]>> taches = new ArrayList<>();
+        for (EtatBinairo grille : corpus) {
+            taches.add(() -> mesurerGrille(configuration, grille));
+        }
+
+        // Par grille : {durée de chaque répétition..., nœuds, résolues, CPU, octets}
+        long[] durees = new long[corpus.size() * repetitions];
+        long noeuds = 0, nanosCpu = 0, octets = 0;
+        int nbResolues = 0, k = 0;
+        for (Future<long[]> f : pool.invokeAll(taches)) {
+            long[] mesures;
+            try {
+                mesures = f.get();
+            } catch (ExecutionException ex) {
+                throw new IllegalStateException("Échec de la mesure: " + ex.getCause(), ex.getCause());
+            }
+            System.arraycopy(mesures, 0, durees, k, repetitions);
+            k += repetitions;
+            noeuds += mesures[repetitions];
+            nbResolues += (int) mesures[repetitions + 1];
+            nanosCpu += mesures[repetitions + 2];
+            octets += mesures[repetitions + 3];
+        }
+        return new Resultat(configuration, corpus.size(), durees, noeuds, nbResolues, nanosCpu, octets);
+    }
+
+    private long[] mesurerGrille(ConfigurationCSP configuration, EtatBinairo grille) {
+        MoteurBinairoCSP moteur = configuration.creerMoteur();
+        moteur.setDelaiMaximal(delaiMs);
+        for (int n = 0; n < echauffement; n++) {
+            moteur.resoudre(grille);
+        }
+        long[] mesures = new long[repetitions + 4];
+        for (int n = 0; n < repetitions; n++) {
+            long debut = System.nanoTime();
+            EtatBinairo solution = moteur.resoudre(grille);
+            // Sans les suspensions au profit des tâches interactives (banc lancé en fond)
+            mesures[n] = System.nanoTime() - debut - moteur.getTempsSuspendu();
+            mesures[repetitions] += moteur.getNoeudsExplores();
+            if (solution != null) mesures[repetitions + 1]++;
+            mesures[repetitions + 2] += moteur.getTempsCpu();
+            mesures[repetitions + 3] += moteur.getOctetsAlloues();
+        }
+        return mesures;
+    }
+
+    // --- Sorties ---
+
+    private static final String[] COLONNES = {"configuration", "heuristiques", "grilles", "mesures",
+            "mediane_ms", "p90_ms", "p99_ms", "ecart_type_ms", "noeuds_par_s", "taux_resolues", "cpu_ms", "octets"};
+
+    public static void ecrireCsv(List<Resultat> resultats, Appendable sortie) throws IOException {
+        sortie.append(String.join(",", COLONNES)).append('\n');
+        for (Resultat r : resultats) {
+            sortie.append(String.format(Locale.ROOT, "\"%s\",\"%s\",%d,%d,%.4f,%.4f,%.4f,%.4f,%.0f,%.4f,%.4f,%.0f%n",
+                    r.configuration.getNom().replace("\"", "\"\""), r.configuration.getDescription(),
+                    r.nbGrilles, r.getNbMesures(), r.getMedianeMs(), r.getP90Ms(), r.getP99Ms(),
+                    r.getEcartTypeMs(), r.getNoeudsParSeconde(), r.getTauxResolues(),
+                    r.getCpuMoyenMs(), r.getOctetsMoyens()));
+        }
+    }
+
+    public static void ecrireJson(List<Resultat> resultats, Appendable sortie) throws IOException {
+        sortie.append("[\n");
+        for (int k = 0; k < resultats.size(); k++) {
+            Resultat r = resultats.get(k);
+            sortie.append(String.format(Locale.ROOT,
+                    "  {\"%s\": \"%s\", \"%s\": \"%s\", \"%s\": %d, \"%s\": %d, \"%s\": %.4f, \"%s\": %.4f, "
+                            + "\"%s\": %.4f, \"%s\": %.4f, \"%s\": %.0f, \"%s\": %.4f, \"%s\": %.4f, \"%s\": %.0f}%s%n",
+                    COLONNES[0], echapperJson(r.configuration.getNom()),
+                    COLONNES[1], echapperJson(r.configuration.getDescription()),
+                    COLONNES[2], r.nbGrilles, COLONNES[3], r.getNbMesures(),
+                    COLONNES[4], r.getMedianeMs(), COLONNES[5], r.getP90Ms(), COLONNES[6], r.getP99Ms(),
+                    COLONNES[7], r.getEcartTypeMs(), COLONNES[8], r.getNoeudsParSeconde(),
+                    COLONNES[9], r.getTauxResolues(), COLONNES[10], r.getCpuMoyenMs(),
+                    COLONNES[11], r.getOctetsMoyens(), k + 1 < resultats.size() ? "," : ""));
+        }
+        sortie.append("]\n");
+    }
+
+    /**
+     * Tableau aligné, pour l'affichage dans l'interface.
+     */
+    public static void ecrireTexte(List<Resultat> resultats, Appendable sortie) throws IOException {
+        sortie.append(String.format(Locale.ROOT, "%-25s | %9s | %9s | %9s | %9s | %12s | %7s | %9s | %9s%n",
+                "Configuration", "médiane", "p90", "p99", "écart", "nœuds/s", "résolu", "CPU", "alloué"));
+        for (Resultat r : resultats) {
+            sortie.append(String.format(Locale.ROOT,
+                    "%-25s | %9.3f | %9.3f | %9.3f | %9.3f | %12.0f | %6.1f%% | %9.3f | %6.0f Ko%n",
+                    r.configuration.getNom(), r.getMedianeMs(), r.getP90Ms(), r.getP99Ms(),
+                    r.getEcartTypeMs(), r.getNoeudsParSeconde(), r.getTauxResolues() * 100,
+                    r.getCpuMoyenMs(), r.getOctetsMoyens() / 1024));
+        }
+    }
+
+    private static String echapperJson(String texte) {
+        StringBuilder sb = new StringBuilder(texte.length());
+        for (int k = 0; k < texte.length(); k++) {
+            char c = texte.charAt(k);
+            if (c == '"' || c == '\\') sb.append('\\').append(c);
+            else if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+            else sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Lit un corpus (une grille par ligne au format {@link EtatBinairo#toLigne()},
+     * lignes vides et commentaires '#' ignorés).
+     */
+    public static List<EtatBinairo> lireCorpus(BufferedReader entree) throws IOException {
+        List<EtatBinairo> corpus = new ArrayList<>();
+        String ligne;
+        int numero = 0;
+        while ((ligne = entree.readLine()) != null) {
+            numero++;
+            ligne = ligne.trim();
+            if (ligne.isEmpty() || ligne.startsWith("#")) continue;
+            try {
+                corpus.add(EtatBinairo.depuisTexte(ligne));
+            } catch (IllegalArgumentException ex) {
+                throw new IOException("Ligne " + numero + ": " + ex.getMessage(), ex);
+            }
+        }
+        return corpus;
+    }
+
+    public static void main(String[] args) {
+        List<ConfigurationCSP> configurations = new ArrayList<>();
+        int echauffement = 3, repetitions = 10;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long delai = 0;
+        String format = "csv";
+        String fichierSortie = null;
+        String fichierEntree = null;
+
+        try {
+            for (int k = 0; k < args.length; k++) {
+                switch (args[k]) {
+                    case "--config": configurations.add(ConfigurationCSP.depuisTexte(args[++k])); break;
+                    case "--echauffement": echauffement = Integer.parseInt(args[++k]); break;
+                    case "--repetitions": repetitions = Integer.parseInt(args[++k]); break;
+                    case "--threads": threads = Integer.parseInt(args[++k]); break;
+                    case "--delai": delai = Long.parseLong(args[++k]); break;
+                    case "--format": format = args[++k]; break;
+                    case "--sortie": fichierSortie = args[++k]; break;
+                    default: fichierEntree = args[k];
+                }
+            }
+            if (fichierEntree == null) throw new IllegalArgumentException("fichier d'entrée manquant");
+            if (!Arrays.asList("csv", "json", "texte").contains(format)) {
+                throw new IllegalArgumentException("format inconnu: " + format);
+            }
+        } catch (RuntimeException ex) {
+            System.err.println("Erreur: " + ex.getMessage());
+            System.err.println("Usage: BancEssai [--config mrv,degree ...] [--echauffement N] [--repetitions N]"
+                    + " [--threads N] [--delai ms] [--format csv|json|texte] [--sortie fichier] (fichier | -)");
+            System.exit(2);
+            return;
+        }
+        if (configurations.isEmpty()) configurations = ConfigurationCSP.standards();
+
+        try (BufferedReader entree = new BufferedReader(new InputStreamReader(
+                "-".equals(fichierEntree) ? System.in : new FileInputStream(fichierEntree), StandardCharsets.UTF_8));
+             Writer sortie = new BufferedWriter(new OutputStreamWriter(
+                fichierSortie == null ? new FileOutputStream(FileDescriptor.out) : new FileOutputStream(fichierSortie),
+                StandardCharsets.UTF_8))) {
+            List<EtatBinairo> corpus = lireCorpus(entree);
+            BancEssai banc = new BancEssai(echauffement, repetitions, threads, delai);
+            List<Resultat> resultats = banc.mesurer(configurations, corpus,
+                    c -> System.err.println("Mesure: " + c.getNom()));
+            switch (format) {
+                case "json": ecrireJson(resultats, sortie); break;
+                case "texte": ecrireTexte(resultats, sortie); break;
+                default: ecrireCsv(resultats, sortie);
+            }
+        } catch (IOException | InterruptedException | IllegalArgumentException ex) {
+            System.err.println("Erreur: " + ex.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package binairo.outils;
+
+import binairo.generation.GenerateurGrilles;
+import binairo.modele.EtatBinairo;
+import binairo.recherche.BudgetsTaille;
+import binairo.recherche.MoteurBinairoAbstrait;
+import binairo.recherche.MoteurBinairoCSP;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Contrôle des budgets de {@link BudgetsTaille}, sans interface graphique.
+ * Pour chaque taille, génère quelques grilles, les résout avec le moteur de l'interface
+ * puis joue des coups suivis d'une suggestion et de la liste des violations ; le pire
+ * temps de chaque étape est comparé à son budget.
+ * Code de sortie 1 si un budget est dépassé.
+ *
+ * Usage : ControleBudgets [--grilles N] [--graine G] [taille...]
+ */
+public class ControleBudgets {
+    private static final int NB_COUPS = 21;
+
+    public static void main(String[] args) {
+        int nbGrilles = 3;
+        long graine = 1;
+        int[] tailles = BudgetsTaille.taillesSupportees();
+        try {
+            int nbTailles = 0;
+            int[] choisies = new int[args.length];
+            for (int k = 0; k < args.length; k++) {
+                switch (args[k]) {
+                    case "--grilles": nbGrilles = Integer.parseInt(args[++k]); break;
+                    case "--graine": graine = Long.parseLong(args[++k]); break;
+                    default:
+                        int taille = Integer.parseInt(args[k]);
+                        if (!BudgetsTaille.estSupportee(taille)) throw new IllegalArgumentException("taille " + taille);
+                        choisies[nbTailles++] = taille;
+                }
+            }
+            if (nbTailles > 0) tailles = Arrays.copyOf(choisies, nbTailles);
+            if (nbGrilles < 1) throw new IllegalArgumentException("nombre de grilles");
+        } catch (RuntimeException ex) {
+            System.err.println("Erreur: " + ex.getMessage());
+            System.err.println("Usage: ControleBudgets [--grilles N] [--graine G] [taille...]");
+            System.exit(2);
+            return;
+        }
+
+        // Préchauffage : les premières mesures incluraient la compilation à la volée
+        mesurer(8, 20, graine);
+
+        boolean depasse = false;
+        System.out.println("taille | génération (budget) | résolution (budget) | coup (budget)");
+        for (int taille : tailles) {
+            long[] pires = mesurer(taille, nbGrilles, graine + taille);
+            long budgetGeneration = BudgetsTaille.delaiGeneration(taille) * 1_000_000;
+            long budgetResolution = BudgetsTaille.delaiResolution(taille) * 1_000_000;
+            long budgetCoup = BudgetsTaille.COUP_MS * 1_000_000;
+            boolean ok = pires[0] <= budgetGeneration && pires[1] <= budgetResolution && pires[2] <= budgetCoup;
+            depasse |= !ok;
+            System.out.printf(Locale.ROOT, "%6d | %8.1f ms (%5d) | %8.2f ms (%4d) | %6.3f ms (%d) %s%n",
+                    taille, pires[0] / 1e6, budgetGeneration / 1_000_000, pires[1] / 1e6, budgetResolution / 1_000_000,
+                    pires[2] / 1e6, budgetCoup / 1_000_000, ok ? "" : "DÉPASSÉ");
+        }
+        System.exit(depasse ? 1 : 0);
+    }
+
+    /**
+     * Temps médian d'un coup suivi d'une suggestion et de la liste des violations
+     * (la médiane écarte les pauses du ramasse-miettes, plus longues que le coup lui-même).
+     */
+    private static long medianeCoup(EtatBinairo enonce, EtatBinairo solution) {
+        int taille = enonce.getTaille();
+        long[] durees = new long[NB_COUPS];
+        enonce.getSuggestion();
+        for (int n = 0; n < NB_COUPS; n++) {
+            int i = (n * 7) % taille, j = (n * 13) % taille;
+            long debut = System.nanoTime();
+            enonce.setValeur(i, j, solution.getValeur(i, j));
+            enonce.getSuggestion();
+            enonce.getViolations();
+            durees[n] = System.nanoTime() - debut;
+            enonce.annulerCoup();
+        }
+        Arrays.sort(durees);
+        return durees[NB_COUPS / 2];
+    }
+
+    /**
+     * @return pires temps en nanosecondes : {génération, résolution, coup + indice + violations}
+     */
+    private static long[] mesurer(int taille, int nbGrilles, long graine) {
+        GenerateurGrilles generateur = new GenerateurGrilles(graine);
+        MoteurBinairoCSP moteurCSP = new MoteurBinairoCSP();
+        long[] pires = new long[3];
+        for (int n = 0; n < nbGrilles; n++) {
+            long t0 = System.nanoTime();
+            EtatBinairo enonce = generateur.generer(taille, GenerateurGrilles.indicesParDefaut(taille)).getEnonce();
+            long t1 = System.nanoTime();
+            MoteurBinairoAbstrait moteur = BudgetsTaille.moteurPour(taille, moteurCSP);
+            EtatBinairo solution = moteur.resoudre(enonce);
+            long t2 = System.nanoTime();
+            if (solution == null) throw new IllegalStateException("Grille " + taille + "x" + taille + " non résolue");
+
+            long coup = medianeCoup(enonce, solution);
+
+            pires[0] = Math.max(pires[0], t1 - t0);
+            pires[1] = Math.max(pires[1], t2 - t1);
+            pires[2] = Math.max(pires[2], coup);
+        }
+        return pires;
+    }
+}
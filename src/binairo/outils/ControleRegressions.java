@@ -0,0 +1,316 @@
+package binairo.outils;
+
+import binairo.modele.EtatBinairo;
+import binairo.recherche.BudgetsTaille;
+import binairo.recherche.ConfigurationCSP;
+import binairo.recherche.MoteurBinairoAbstrait;
+import binairo.recherche.MoteurBinairoRapide;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Contrôle de non-régression des moteurs sur un corpus enregistré, sans interface graphique.
+ *
+ * Pour chaque configuration de moteur, le corpus est résolu et trois grandeurs sont
+ * comparées aux références enregistrées :
+ * <ul>
+ *   <li>le total des nœuds explorés et celui des cases propagées (essais du sondage
+ *       compris) : déterministes et indépendants de la machine, ils ne doivent pas
+ *       augmenter (au-delà de la tolérance --tolerance-noeuds, 0 par défaut) ; c'est le
+ *       contrôle bloquant. Depuis une référence nulle, toute hausse est une régression ;</li>
+ *   <li>le temps normalisé : à chaque répétition, temps de résolution du corpus divisé
+ *       par celui d'une charge de calibration fixe mesurée juste avant, ce qui le rend
+ *       comparable d'une machine à l'autre et suit les variations de fréquence ; la
+ *       médiane des rapports est retenue. Sur une machine partagée, il varie encore de
+ *       plus ou moins 40 % : un écart de plus de 50 % est seulement signalé, sauf si
+ *       --tolerance-temps est donné, qui le rend bloquant.</li>
+ * </ul>
+ * Chaque moteur n'est essayé que sur les tailles où il sert : le moteur CSP jusqu'à
+ * {@link BudgetsTaille#TAILLE_MAX_CSP}, le moteur rapide sans sondage (celui du
+ * générateur) jusqu'à {@link #TAILLE_MAX_RAPIDE}, avec sondage sur tout le corpus.
+ * Sans ordre aléatoire, les moteurs rapides sont déterministes comme le moteur CSP.
+ * Un tableau des écarts est affiché ; code de sortie 1 en cas de régression.
+ * Les références d'avant le compte des propagations (trois champs) ne contrôlent que
+ * les nœuds et le temps.
+ *
+ * Usage : ControleRegressions [--corpus fichier] [--references fichier] [--enregistrer]
+ *                             [--tolerance-noeuds pct] [--tolerance-temps pct]
+ */
+public class ControleRegressions {
+
+    /**
+     * Configurations suivies : celles de l'interface (format de
+     * {@link ConfigurationCSP#depuisTexte}) puis le moteur rapide, sans et avec sondage.
+     */
+    static final List<String> CONFIGURATIONS = Arrays.asList(
+            "simple", "mrv", "mrv+degree", "mrv+degree+lcv", "mrv+degree+lcv+fc",
+            "mrv+degree+lcv+ac3", "mrv+degree+lcv+fc+ac3", "mrv+degree+lcv+fc+ac3+ac4",
+            "rapide", "rapide+sondage");
+
+    static final int TAILLE_MAX_RAPIDE = 20;
+    // Chaque mesure répète le corpus pendant au moins DUREE_MESURE : un passage seul
+    // (quelques millisecondes) serait à la merci de la compilation et de l'ordonnanceur
+    private static final long DUREE_ECHAUFFEMENT = 500_000_000L;
+    private static final long DUREE_MESURE = 100_000_000L;
+    private static final int REPETITIONS = 7;
+    // Écart de temps signalé quand le temps n'est pas bloquant
+    static final double SEUIL_TEMPS_INDICATIF = 0.5;
+
+    /**
+     * Mesure d'une configuration : nœuds et propagations totaux, temps normalisé.
+     */
+    static final class Mesure {
+        final long noeuds;
+        // -1 : inconnu (référence à trois champs)
+        final long propagations;
+        final double temps;
+
+        Mesure(long noeuds, long propagations, double temps) {
+            this.noeuds = noeuds;
+            this.propagations = propagations;
+            this.temps = temps;
+        }
+    }
+
+    private final List<EtatBinairo> corpus;
+    // Empêche le compilateur d'éliminer la charge de calibration
+    private static volatile long resultatCalibration;
+
+    public ControleRegressions(List<EtatBinairo> corpus) {
+        this.corpus = corpus;
+    }
+
+    static MoteurBinairoAbstrait creerMoteur(String configuration) {
+        if (configuration.startsWith("rapide")) {
+            MoteurBinairoRapide rapide = new MoteurBinairoRapide();
+            rapide.setSondage(configuration.endsWith("+sondage"));
+            return rapide;
+        }
+        return ConfigurationCSP.depuisTexte(configuration).creerMoteur();
+    }
+
+    /**
+     * Mesure toutes les configurations.
+     */
+    public Map<String, Mesure> mesurer() {
+        calibrer();
+        Map<String, Mesure> mesures = new LinkedHashMap<>();
+        for (String configuration : CONFIGURATIONS) {
+            mesures.put(configuration, mesurer(configuration));
+        }
+        return mesures;
+    }
+
+    private Mesure mesurer(String configuration) {
+        MoteurBinairoAbstrait moteur = creerMoteur(configuration);
+        int tailleMax = !configuration.startsWith("rapide") ? BudgetsTaille.TAILLE_MAX_CSP
+                : configuration.endsWith("+sondage") ? Integer.MAX_VALUE : TAILLE_MAX_RAPIDE;
+        List<EtatBinairo> grilles = new ArrayList<>();
+        for (EtatBinairo grille : corpus) {
+            if (grille.getTaille() <= tailleMax) grilles.add(grille);
+        }
+
+        long[] totaux = passer(configuration, moteur, grilles);
+        for (long debut = System.nanoTime(); System.nanoTime() - debut < DUREE_ECHAUFFEMENT; ) {
+            passer(configuration, moteur, grilles);
+        }
+        // Calibration et mesure alternées : une baisse de fréquence ou un voisin bruyant
+        // touche les deux termes d'un même rapport
+        double[] rapports = new double[REPETITIONS];
+        for (int n = 0; n < REPETITIONS; n++) {
+            long calibration = calibrer();
+            int passages = 0;
+            long debut = System.nanoTime(), duree;
+            do {
+                passer(configuration, moteur, grilles);
+                passages++;
+                duree = System.nanoTime() - debut;
+            } while (duree < DUREE_MESURE);
+            rapports[n] = (double) duree / passages / calibration;
+        }
+        Arrays.sort(rapports);
+        return new Mesure(totaux[0], totaux[1], rapports[REPETITIONS / 2]);
+    }
+
+    /**
+     * Résout une fois chaque grille.
+     * @return total des nœuds explorés et total des propagations
+     */
+    private static long[] passer(String configuration, MoteurBinairoAbstrait moteur, List<EtatBinairo> grilles) {
+        long[] totaux = new long[2];
+        for (EtatBinairo grille : grilles) {
+            if (moteur.resoudre(grille) == null) {
+                throw new IllegalStateException(configuration + " ne résout pas " + grille.toLigne());
+            }
+            totaux[0] += moteur.getNoeudsExplores();
+            totaux[1] += moteur.getCompteurs().getPropagations();
+        }
+        return totaux;
+    }
+
+    /**
+     * Durée d'une charge fixe sans rapport avec les moteurs (tri de tableaux
+     * pseudo-aléatoires) : l'unité des temps normalisés.
+     */
+    private static long calibrer() {
+        int[] donnees = new int[1 << 18];
+        SplittableRandom aleatoire = new SplittableRandom(42);
+        long puits = 0;
+        long debut = System.nanoTime();
+        for (int r = 0; r < 4; r++) {
+            for (int k = 0; k < donnees.length; k++) donnees[k] = aleatoire.nextInt();
+            Arrays.sort(donnees);
+            puits += donnees[donnees.length / 2];
+        }
+        long duree = System.nanoTime() - debut;
+        resultatCalibration += puits;
+        return duree;
+    }
+
+    // --- Références ---
+
+    static Map<String, Mesure> lireReferences(Path fichier) throws IOException {
+        Map<String, Mesure> references = new LinkedHashMap<>();
+        try (BufferedReader lecteur = Files.newBufferedReader(fichier, StandardCharsets.UTF_8)) {
+            String ligne;
+            int numero = 0;
+            while ((ligne = lecteur.readLine()) != null) {
+                numero++;
+                ligne = ligne.trim();
+                if (ligne.isEmpty() || ligne.startsWith("#")) continue;
+                String[] champs = ligne.split(";");
+                if (champs.length != 3 && champs.length != 4) {
+                    throw new IOException("Ligne " + numero + ": 3 ou 4 champs attendus");
+                }
+                try {
+                    long propagations = champs.length == 4 ? Long.parseLong(champs[2]) : -1;
+                    references.put(champs[0], new Mesure(Long.parseLong(champs[1]), propagations,
+                            Double.parseDouble(champs[champs.length - 1])));
+                } catch (NumberFormatException ex) {
+                    throw new IOException("Ligne " + numero + ": " + ex.getMessage(), ex);
+                }
+            }
+        }
+        return references;
+    }
+
+    static void ecrireReferences(Map<String, Mesure> mesures, Path fichier) throws IOException {
+        try (BufferedWriter ecrivain = Files.newBufferedWriter(fichier, StandardCharsets.UTF_8)) {
+            ecrivain.write("# Références de ControleRegressions : configuration;nœuds totaux;propagations totales;temps normalisé\n");
+            ecrivain.write("# Réenregistrer (--enregistrer) après un changement voulu des heuristiques ou du corpus.\n");
+            for (Map.Entry<String, Mesure> e : mesures.entrySet()) {
+                ecrivain.write(String.format(Locale.ROOT, "%s;%d;%d;%.3f%n",
+                        e.getKey(), e.getValue().noeuds, e.getValue().propagations, e.getValue().temps));
+            }
+        }
+    }
+
+    /**
+     * Affiche le tableau des écarts.
+     * @param toleranceTemps écart de temps bloquant, ou une valeur négative pour un temps
+     *                       seulement indicatif
+     * @return vrai si une configuration régresse (ou n'a pas de référence)
+     */
+    static boolean comparer(Map<String, Mesure> references, Map<String, Mesure> mesures,
+                            double toleranceNoeuds, double toleranceTemps) {
+        boolean regression = false;
+        System.out.println(String.format(Locale.ROOT, "%-28s | %10s %10s %8s | %11s %8s | %8s %8s %8s | %s",
+                "configuration", "nœuds réf", "nœuds", "écart", "propagations", "écart",
+                "temps réf", "temps", "écart", "statut"));
+        for (Map.Entry<String, Mesure> e : mesures.entrySet()) {
+            Mesure m = e.getValue();
+            Mesure ref = references.get(e.getKey());
+            if (ref == null) {
+                regression = true;
+                System.out.println(String.format(Locale.ROOT, "%-28s | %10s %10d %8s | %11d %8s | %8s %8.3f %8s | SANS RÉFÉRENCE",
+                        e.getKey(), "-", m.noeuds, "-", m.propagations, "-", "-", m.temps, "-"));
+                continue;
+            }
+            double ecartNoeuds = ecart(ref.noeuds, m.noeuds);
+            double ecartPropagations = ref.propagations < 0 ? 0 : ecart(ref.propagations, m.propagations);
+            double ecartTemps = ref.temps == 0 ? 0 : (m.temps - ref.temps) / ref.temps;
+            List<String> fautes = new ArrayList<>();
+            if (ecartNoeuds > toleranceNoeuds) fautes.add("NŒUDS");
+            if (ecartPropagations > toleranceNoeuds) fautes.add("PROPAGATIONS");
+            boolean tempsBloquant = toleranceTemps >= 0;
+            if (tempsBloquant && ecartTemps > toleranceTemps) fautes.add("TEMPS");
+            regression |= !fautes.isEmpty();
+            String statut = !fautes.isEmpty() ? "RÉGRESSION " + String.join(" + ", fautes)
+                    : !tempsBloquant && ecartTemps > SEUIL_TEMPS_INDICATIF ? "ok (temps à surveiller)" : "ok";
+            System.out.println(String.format(Locale.ROOT, "%-28s | %10d %10d %8s | %11d %8s | %8.3f %8.3f %+7.1f%% | %s",
+                    e.getKey(), ref.noeuds, m.noeuds, pourcentage(ecartNoeuds), m.propagations,
+                    ref.propagations < 0 ? "-" : pourcentage(ecartPropagations),
+                    ref.temps, m.temps, ecartTemps * 100, statut));
+        }
+        return regression;
+    }
+
+    /**
+     * Écart relatif d'un compte ; depuis une référence nulle, toute hausse est infinie.
+     */
+    private static double ecart(long reference, long mesure) {
+        if (reference == 0) return mesure > 0 ? Double.POSITIVE_INFINITY : 0;
+        return (double) (mesure - reference) / reference;
+    }
+
+    private static String pourcentage(double ecart) {
+        return Double.isInfinite(ecart) ? "+inf" : String.format(Locale.ROOT, "%+7.1f%%", ecart * 100);
+    }
+
+    public static void main(String[] args) {
+        Path fichierCorpus = Paths.get("regression", "corpus.txt");
+        Path fichierReferences = Paths.get("regression", "references.txt");
+        boolean enregistrer = false;
+        double toleranceNoeuds = 0, toleranceTemps = -1;
+        try {
+            for (int k = 0; k < args.length; k++) {
+                switch (args[k]) {
+                    case "--corpus": fichierCorpus = Paths.get(args[++k]); break;
+                    case "--references": fichierReferences = Paths.get(args[++k]); break;
+                    case "--enregistrer": enregistrer = true; break;
+                    case "--tolerance-noeuds": toleranceNoeuds = Double.parseDouble(args[++k]) / 100; break;
+                    case "--tolerance-temps": toleranceTemps = Double.parseDouble(args[++k]) / 100; break;
+                    default: throw new IllegalArgumentException("option inconnue " + args[k]);
+                }
+            }
+        } catch (RuntimeException ex) {
+            System.err.println("Erreur: " + ex.getMessage());
+            System.err.println("Usage: ControleRegressions [--corpus fichier] [--references fichier] [--enregistrer]"
+                    + " [--tolerance-noeuds pct] [--tolerance-temps pct]");
+            System.exit(2);
+            return;
+        }
+
+        try {
+            List<EtatBinairo> corpus;
+            try (BufferedReader lecteur = Files.newBufferedReader(fichierCorpus, StandardCharsets.UTF_8)) {
+                corpus = BancEssai.lireCorpus(lecteur);
+            }
+            Map<String, Mesure> mesures = new ControleRegressions(corpus).mesurer();
+            if (enregistrer) {
+                ecrireReferences(mesures, fichierReferences);
+                System.out.println("Références enregistrées dans " + fichierReferences);
+                comparer(mesures, mesures, toleranceNoeuds, toleranceTemps);
+                return;
+            }
+            boolean regression = comparer(lireReferences(fichierReferences), mesures, toleranceNoeuds, toleranceTemps);
+            System.exit(regression ? 1 : 0);
+        } catch (IOException | RuntimeException ex) {
+            System.err.println("Erreur: " + ex.getMessage());
+            System.exit(1);
+        }
+    }
+}
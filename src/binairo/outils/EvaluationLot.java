@@ -0,0 +1,91 @@
+package binairo.outils;
+
+import binairo.analyse.EvaluateurDifficulte;
+import binairo.analyse.EvaluationDifficulte;
+import binairo.analyse.RegleDeduction;
+import binairo.modele.EtatBinairo;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Évaluation de difficulté en lot, sans interface graphique.
+ * Lit une grille par ligne et écrit, dans le même ordre :
+ * grille, niveau, score, profondeur d'essai et histogramme des règles (séparés par des tabulations).
+ *
+ * Usage : EvaluationLot [--threads N] [--sortie fichier] (fichier | -)
+ */
+public class EvaluationLot {
+
+    public static void main(String[] args) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        String fichierSortie = null;
+        String fichierEntree = null;
+        try {
+            for (int k = 0; k < args.length; k++) {
+                switch (args[k]) {
+                    case "--threads": threads = Integer.parseInt(args[++k]); break;
+                    case "--sortie": fichierSortie = args[++k]; break;
+                    default: fichierEntree = args[k];
+                }
+            }
+            if (fichierEntree == null || threads < 1) throw new IllegalArgumentException("fichier d'entrée manquant");
+        } catch (RuntimeException ex) {
+            System.err.println("Erreur: " + ex.getMessage());
+            System.err.println("Usage: EvaluationLot [--threads N] [--sortie fichier] (fichier | -)");
+            System.exit(2);
+            return;
+        }
+
+        ThreadLocal<EvaluateurDifficulte> evaluateurs = ThreadLocal.withInitial(EvaluateurDifficulte::new);
+        Map<EvaluationDifficulte.Niveau, Long> parNiveau = new EnumMap<>(EvaluationDifficulte.Niveau.class);
+        long debut = System.nanoTime();
+        long nb = 0;
+
+        try (BufferedReader entree = new BufferedReader(new InputStreamReader(
+                "-".equals(fichierEntree) ? System.in : new FileInputStream(fichierEntree), StandardCharsets.UTF_8));
+             Writer sortie = new BufferedWriter(new OutputStreamWriter(
+                fichierSortie == null ? new FileOutputStream(FileDescriptor.out) : new FileOutputStream(fichierSortie),
+                StandardCharsets.UTF_8), 1 << 16);
+             TraitementOrdonne<String[]> traitement = new TraitementOrdonne<>(threads, "evaluation-lot", r -> {
+                 sortie.write(r[0]);
+                 sortie.write('\n');
+                 parNiveau.merge(EvaluationDifficulte.Niveau.valueOf(r[1]), 1L, Long::sum);
+             })) {
+            String ligne;
+            while ((ligne = entree.readLine()) != null) {
+                String texte = ligne.trim();
+                if (texte.isEmpty() || texte.startsWith("#")) continue;
+                traitement.soumettre(() -> {
+                    EvaluationDifficulte e = evaluateurs.get().evaluer(EtatBinairo.depuisTexte(texte));
+                    return new String[]{formater(texte, e), e.getNiveau().name()};
+                });
+                nb++;
+            }
+            traitement.terminer();
+        } catch (IOException | InterruptedException | IllegalArgumentException ex) {
+            System.err.println("Erreur: " + ex.getMessage());
+            System.exit(1);
+        }
+
+        double secondes = (System.nanoTime() - debut) / 1e9;
+        System.err.printf(Locale.ROOT, "Grilles: %d en %.3f s, %.1f grilles/s%n", nb, secondes, nb / Math.max(secondes, 1e-9));
+        System.err.println("Niveaux: " + parNiveau);
+    }
+
+    private static String formater(String grille, EvaluationDifficulte e) {
+        StringBuilder sb = new StringBuilder(grille);
+        sb.append('\t').append(e.getNiveau())
+          .append('\t').append(e.getScore())
+          .append('\t').append(e.getProfondeurEssaiMax())
+          .append('\t');
+        for (RegleDeduction r : RegleDeduction.values()) {
+            if (r.ordinal() > 0) sb.append(',');
+            sb.append(e.getNombre(r));
+        }
+        return sb.toString();
+    }
+}
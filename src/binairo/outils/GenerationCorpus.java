@@ -0,0 +1,153 @@
+package binairo.outils;
+
+import binairo.generation.GenerateurGrilles;
+import binairo.generation.GrilleGeneree;
+import binairo.modele.EmpreinteGrille;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Génération de corpus en parallèle, reproductible.
+ *
+ * Chaque grille est produite par une tâche dont la graine est tirée, dans l'ordre de
+ * soumission, d'un {@link SplittableRandom} maître : la k-ième tâche reçoit toujours la
+ * même graine, quel que soit le nombre de threads. Les résultats sont repris dans l'ordre
+ * de soumission, dédoublonnés par empreinte et écrits au fur et à mesure ; la fenêtre
+ * bornée de tâches en cours sert de contre-pression face à un écrivain lent.
+ * Le corpus produit ne dépend donc que de la graine, de la taille et du nombre d'indices.
+ *
+ * Les petites tailles n'ont que peu de grilles distinctes : la génération s'arrête après
+ * {@link #DOUBLONS_CONSECUTIFS_MAX} doublons consécutifs, et le manque est signalé
+ * (code de sortie 1, le corpus partiel est conservé).
+ *
+ * Usage : GenerationCorpus --taille N --nombre N [--graine G] [--indices K]
+ *                          [--threads N] [--avec-solution] [--sortie fichier]
+ */
+public class GenerationCorpus {
+    public static final int DOUBLONS_CONSECUTIFS_MAX = 1000;
+
+    private final int taille;
+    private final int indices;
+    private final int nbThreads;
+    private final boolean avecSolution;
+
+    private final Set<EmpreinteGrille> dejaVues = new HashSet<>();
+    private long nbEcrites;
+    private long nbDoublons;
+    private int doublonsConsecutifs;
+
+    public GenerationCorpus(int taille, int indices, int nbThreads, boolean avecSolution) {
+        this.taille = taille;
+        this.indices = indices;
+        this.nbThreads = nbThreads;
+        this.avecSolution = avecSolution;
+    }
+
+    /**
+     * Écrit {@code nombre} grilles distinctes, ou moins si les doublons consécutifs
+     * atteignent {@link #DOUBLONS_CONSECUTIFS_MAX} (voir {@link #getNbEcrites()}).
+     */
+    public void executer(long graine, long nombre, Writer sortie) throws IOException, InterruptedException {
+        SplittableRandom maitre = new SplittableRandom(graine);
+        try (TraitementOrdonne<GrilleGeneree> traitement = new TraitementOrdonne<>(nbThreads, "generation-corpus",
+                g -> ecrire(g, nombre, sortie))) {
+            // On soumet tant que le compte n'est pas atteint ; les tâches encore en cours
+            // à la fin sont consommées mais ignorées, ce qui ne change pas le résultat
+            while (nbEcrites < nombre && !estEpuise()) {
+                SplittableRandom graineTache = maitre.split();
+                traitement.soumettre(() -> new GenerateurGrilles(graineTache).generer(taille, indices));
+            }
+            traitement.terminer();
+        }
+        sortie.flush();
+    }
+
+    private void ecrire(GrilleGeneree grille, long nombre, Writer sortie) throws IOException {
+        if (nbEcrites >= nombre || estEpuise()) return;
+        if (!dejaVues.add(EmpreinteGrille.de(grille.getEnonce()))) {
+            nbDoublons++;
+            doublonsConsecutifs++;
+            return;
+        }
+        doublonsConsecutifs = 0;
+        sortie.write(grille.getEnonce().toLigne());
+        if (avecSolution) {
+            sortie.write('\t');
+            sortie.write(grille.getSolution().toLigne());
+        }
+        sortie.write('\n');
+        nbEcrites++;
+    }
+
+    /**
+     * Vrai si la génération a renoncé faute de nouvelles grilles distinctes.
+     */
+    public boolean estEpuise() {
+        return doublonsConsecutifs >= DOUBLONS_CONSECUTIFS_MAX;
+    }
+
+    public long getNbEcrites() {
+        return nbEcrites;
+    }
+
+    public long getNbDoublons() {
+        return nbDoublons;
+    }
+
+    public static void main(String[] args) {
+        int taille = 0;
+        long nombre = 0;
+        long graine = 1;
+        int indices = -1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean avecSolution = false;
+        String fichierSortie = null;
+        try {
+            for (int k = 0; k < args.length; k++) {
+                switch (args[k]) {
+                    case "--taille": taille = Integer.parseInt(args[++k]); break;
+                    case "--nombre": nombre = Long.parseLong(args[++k]); break;
+                    case "--graine": graine = Long.parseLong(args[++k]); break;
+                    case "--indices": indices = Integer.parseInt(args[++k]); break;
+                    case "--threads": threads = Integer.parseInt(args[++k]); break;
+                    case "--avec-solution": avecSolution = true; break;
+                    case "--sortie": fichierSortie = args[++k]; break;
+                    default: throw new IllegalArgumentException("option inconnue " + args[k]);
+                }
+            }
+            if (taille <= 0 || nombre <= 0 || threads < 1) throw new IllegalArgumentException("--taille et --nombre requis");
+        } catch (RuntimeException ex) {
+            System.err.println("Erreur: " + ex.getMessage());
+            System.err.println("Usage: GenerationCorpus --taille N --nombre N [--graine G] [--indices K]"
+                    + " [--threads N] [--avec-solution] [--sortie fichier]");
+            System.exit(2);
+            return;
+        }
+        if (indices < 0) indices = GenerateurGrilles.indicesParDefaut(taille);
+
+        GenerationCorpus generation = new GenerationCorpus(taille, indices, threads, avecSolution);
+        long debut = System.nanoTime();
+        try (Writer sortie = new BufferedWriter(new OutputStreamWriter(
+                fichierSortie == null ? new FileOutputStream(FileDescriptor.out) : new FileOutputStream(fichierSortie),
+                StandardCharsets.UTF_8), 1 << 16)) {
+            generation.executer(graine, nombre, sortie);
+        } catch (IOException | InterruptedException | IllegalArgumentException ex) {
+            System.err.println("Erreur: " + ex.getMessage());
+            System.exit(1);
+        }
+        double secondes = (System.nanoTime() - debut) / 1e9;
+        System.err.printf(Locale.ROOT, "Grilles: %d (%d doublons écartés) en %.3f s, %.1f grilles/s (%d threads)%n",
+                generation.getNbEcrites(), generation.getNbDoublons(), secondes,
+                generation.getNbEcrites() / Math.max(secondes, 1e-9), threads);
+        if (generation.getNbEcrites() < nombre) {
+            System.err.printf(Locale.ROOT, "Seulement %d grilles distinctes sur %d demandées (%d doublons consécutifs)%n",
+                    generation.getNbEcrites(), nombre, DOUBLONS_CONSECUTIFS_MAX);
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package binairo.outils;
+
+import binairo.modele.EtatBinairo;
+import binairo.recherche.ConfigurationCSP;
+import binairo.recherche.LecteurTrace;
+import binairo.recherche.MoteurBinairoCSP;
+import binairo.recherche.TraceRecherche;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+
+/**
+ * Analyse hors ligne d'une trace de recherche ({@link TraceRecherche}).
+ *
+ * L'arbre de recherche est reconstruit au fil de la lecture : chaque décision ouvre un
+ * sous-arbre, fermé par son retour ; sa taille est le nombre de décisions prises entre
+ * les deux. Pour chaque recherche de la trace : décisions, propagations, retours,
+ * profondeur maximale, et les sous-arbres abandonnés les plus coûteux (où la recherche
+ * a perdu son temps).
+ *
+ * Usage : RejeuTrace [--top N] trace
+ *         RejeuTrace --enregistrer trace [--config mrv+degree+lcv] [--delai ms] grille
+ * La seconde forme résout d'abord la grille (fichier texte au format
+ * {@link EtatBinairo#depuisTexte(String)}) en enregistrant la trace.
+ * Une trace se rejoue aussi dans l'interface (« Rejouer une trace »).
+ */
+public class RejeuTrace {
+
+    /**
+     * Sous-arbre abandonné : décision à sa racine et décisions prises dessous.
+     */
+    public static final class SousArbre {
+        private final int profondeur, ligne, colonne, valeur;
+        private final long decisions;
+
+        SousArbre(int profondeur, int ligne, int colonne, int valeur, long decisions) {
+            this.profondeur = profondeur;
+            this.ligne = ligne;
+            this.colonne = colonne;
+            this.valeur = valeur;
+            this.decisions = decisions;
+        }
+
+        public int getProfondeur() {
+            return profondeur;
+        }
+
+        public long getDecisions() {
+            return decisions;
+        }
+    }
+
+    /**
+     * Bilan d'une recherche de la trace.
+     */
+    public static final class Bilan {
+        private int taille;
+        private long decisions, propagations, retours, noeuds;
+        private int profondeurMax;
+        private boolean resolue, interrompue, complete;
+        private final List<SousArbre> plusCouteux = new ArrayList<>();
+
+        public long getDecisions() {
+            return decisions;
+        }
+
+        public List<SousArbre> getPlusCouteux() {
+            return plusCouteux;
+        }
+    }
+
+    /**
+     * Lit toute la trace et retourne le bilan de chacune de ses recherches.
+     * @param top nombre de sous-arbres retenus par recherche
+     */
+    public static List<Bilan> analyser(Path fichier, int top) throws IOException {
+        List<Bilan> bilans = new ArrayList<>();
+        try (LecteurTrace lecteur = LecteurTrace.ouvrir(fichier)) {
+            Bilan bilan = null;
+            PriorityQueue<SousArbre> meilleurs = null;
+            // Par niveau de la pile : décision à la racine et décisions prises avant elle
+            int[] lignes = new int[0], colonnes = new int[0], valeurs = new int[0];
+            long[] avant = new long[0];
+
+            LecteurTrace.Type type;
+            while ((type = lecteur.suivant()) != null) {
+                switch (type) {
+                    case DEBUT:
+                        bilan = new Bilan();
+                        bilans.add(bilan);
+                        bilan.taille = lecteur.getDepart().getTaille();
+                        int cases = bilan.taille * bilan.taille + 1;
+                        lignes = new int[cases];
+                        colonnes = new int[cases];
+                        valeurs = new int[cases];
+                        avant = new long[cases];
+                        meilleurs = new PriorityQueue<>(Comparator.comparingLong(SousArbre::getDecisions));
+                        break;
+                    case DECISION: {
+                        int niveau = lecteur.getProfondeur() - 1;
+                        lignes[niveau] = lecteur.getLigne();
+                        colonnes[niveau] = lecteur.getColonne();
+                        valeurs[niveau] = lecteur.getValeur();
+                        avant[niveau] = bilan.decisions;
+                        bilan.decisions++;
+                        bilan.profondeurMax = Math.max(bilan.profondeurMax, niveau + 1);
+                        break;
+                    }
+                    case PROPAGATION:
+                        bilan.propagations++;
+                        break;
+                    case RETOUR: {
+                        bilan.retours++;
+                        int niveau = lecteur.getProfondeur();
+                        long taille = bilan.decisions - avant[niveau];
+                        if (meilleurs.size() < top || taille > meilleurs.peek().decisions) {
+                            meilleurs.add(new SousArbre(niveau + 1, lignes[niveau], colonnes[niveau],
+                                    valeurs[niveau], taille));
+                            if (meilleurs.size() > top) meilleurs.poll();
+                        }
+                        break;
+                    }
+                    case FIN:
+                        bilan.noeuds = lecteur.getNoeudsFin();
+                        bilan.resolue = lecteur.estResolue();
+                        bilan.interrompue = lecteur.estInterrompue();
+                        bilan.complete = true;
+                        retenir(bilan, meilleurs);
+                        break;
+                }
+            }
+            // Trace coupée avant la fin de sa dernière recherche
+            if (bilan != null && !bilan.complete) retenir(bilan, meilleurs);
+        }
+        return bilans;
+    }
+
+    private static void retenir(Bilan bilan, PriorityQueue<SousArbre> meilleurs) {
+        while (!meilleurs.isEmpty()) bilan.plusCouteux.add(0, meilleurs.poll());
+    }
+
+    public static void ecrireRapport(List<Bilan> bilans, Appendable sortie) throws IOException {
+        for (int k = 0; k < bilans.size(); k++) {
+            Bilan b = bilans.get(k);
+            String issue = !b.complete ? "trace incomplète"
+                    : b.interrompue ? "interrompue" : b.resolue ? "résolue" : "sans solution";
+            sortie.append(String.format(Locale.ROOT, "Recherche %d : %dx%d, %d nœuds, %s%n",
+                    k + 1, b.taille, b.taille, b.noeuds, issue));
+            sortie.append(String.format(Locale.ROOT,
+                    "  décisions %d | propagations %d | retours %d | profondeur max %d%n",
+                    b.decisions, b.propagations, b.retours, b.profondeurMax));
+            if (b.plusCouteux.isEmpty()) continue;
+            sortie.append("  Sous-arbres abandonnés les plus coûteux :\n");
+            sortie.append(String.format(Locale.ROOT, "  %10s | %-9s | %6s | %10s | %6s%n",
+                    "profondeur", "case", "valeur", "décisions", "part"));
+            for (SousArbre a : b.plusCouteux) {
+                sortie.append(String.format(Locale.ROOT, "  %10d | (%2d, %2d)  | %6d | %10d | %5.1f%%%n",
+                        a.profondeur, a.ligne, a.colonne, a.valeur, a.decisions,
+                        100.0 * a.decisions / Math.max(1, b.decisions)));
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        int top = 10;
+        String enregistrement = null;
+        ConfigurationCSP config = ConfigurationCSP.parDefaut();
+        long delai = 0;
+        String fichier = null;
+
+        try {
+            for (int k = 0; k < args.length; k++) {
+                switch (args[k]) {
+                    case "--top": top = Integer.parseInt(args[++k]); break;
+                    case "--enregistrer": enregistrement = args[++k]; break;
+                    case "--config": config = ConfigurationCSP.depuisTexte(args[++k]); break;
+                    case "--delai": delai = Long.parseLong(args[++k]); break;
+                    default: fichier = args[k];
+                }
+            }
+            if (fichier == null || top < 1) throw new IllegalArgumentException("fichier manquant");
+        } catch (RuntimeException ex) {
+            System.err.println("Erreur: " + ex.getMessage());
+            System.err.println("Usage: RejeuTrace [--top N] trace");
+            System.err.println("       RejeuTrace --enregistrer trace [--config mrv+degree+lcv] [--delai ms] grille");
+            System.exit(2);
+            return;
+        }
+
+        try {
+            Path trace = Paths.get(enregistrement != null ? enregistrement : fichier);
+            if (enregistrement != null) {
+                EtatBinairo grille = EtatBinairo.depuisTexte(
+                        new String(Files.readAllBytes(Paths.get(fichier)), StandardCharsets.UTF_8).trim());
+                MoteurBinairoCSP moteur = config.creerMoteur();
+                moteur.setDelaiMaximal(delai);
+                try (TraceRecherche enregistreur = TraceRecherche.ouvrir(trace)) {
+                    moteur.setTrace(enregistreur);
+                    moteur.resoudre(grille);
+                }
+                System.err.printf(Locale.ROOT, "Trace: %s (%d octets, %d ms)%n",
+                        trace, Files.size(trace), moteur.getTempsExecution());
+            }
+            StringBuilder rapport = new StringBuilder();
+            ecrireRapport(analyser(trace, top), rapport);
+            System.out.print(rapport);
+        } catch (IOException | IllegalArgumentException ex) {
+            System.err.println("Erreur: " + ex.getMessage());
+            System.exit(1);
+        }
+    }
+}
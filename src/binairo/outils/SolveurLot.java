@@ -0,0 +1,239 @@
+package binairo.outils;
+
+import binairo.modele.EtatBinairo;
+import binairo.recherche.BudgetsTaille;
+import binairo.recherche.CacheSolutions;
+import binairo.recherche.ConfigurationCSP;
+import binairo.recherche.MoteurAvecCache;
+import binairo.recherche.MoteurBinairoAbstrait;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Résolution en lot sans interface graphique.
+ * Lit un fichier de grilles (une grille par ligne au format {@link EtatBinairo#toLigne()},
+ * lignes vides et commentaires '#' ignorés), les résout en parallèle et écrit
+ * les solutions dans le même ordre, une par ligne ("NON_RESOLU" si aucune solution).
+ * Comme dans l'interface, le moteur CSP configuré ne résout que les petites grilles ;
+ * au-delà, le moteur rapide avec sondage prend le relais ({@link BudgetsTaille}).
+ * --config ne s'applique qu'aux petites grilles.
+ * Les statistiques (débit, latences, nœuds, temps CPU et mémoire allouée cumulés sur
+ * tous les threads) sont écrites sur la sortie d'erreur.
+ *
+ * Usage : SolveurLot [--threads N] [--config mrv,degree,lcv] [--sortie fichier]
+ *                    [--cache N] [--cache-fichier fichier] (fichier | -)
+ *
+ * Avec --cache, les grilles déjà rencontrées sont servies par un {@link CacheSolutions}
+ * partagé ; --cache-fichier le recharge au démarrage et le sauvegarde à la fin.
+ *
+ * N'utilise aucune classe AWT/Swing pour démarrer rapidement en conteneur.
+ */
+public class SolveurLot {
+
+    public static final String NON_RESOLU = "NON_RESOLU";
+
+    private final ConfigurationCSP configuration;
+    private final int nbThreads;
+    private final CacheSolutions cache;
+
+    // Statistiques cumulées (mises à jour par le thread d'écriture uniquement)
+    private long nbGrilles;
+    private long nbResolues;
+    private long noeudsTotal;
+    private long noeudsMax;
+    private long nanosCpu;
+    private long octetsAlloues;
+    private long[] latences = new long[1024];
+
+    public SolveurLot(ConfigurationCSP configuration, int nbThreads) {
+        this(configuration, nbThreads, null);
+    }
+
+    /**
+     * @param cache cache partagé entre les threads, ou null pour tout résoudre
+     */
+    public SolveurLot(ConfigurationCSP configuration, int nbThreads, CacheSolutions cache) {
+        this.configuration = configuration;
+        this.nbThreads = nbThreads;
+        this.cache = cache;
+    }
+
+    private MoteurBinairoAbstrait avecCache(MoteurBinairoAbstrait moteur) {
+        return cache == null ? moteur : new MoteurAvecCache(moteur, cache);
+    }
+
+    /**
+     * Moteurs d'un thread : {moteur CSP configuré, moteur rapide}, choisis selon la taille.
+     */
+    private MoteurBinairoAbstrait[] creerMoteurs() {
+        return new MoteurBinairoAbstrait[]{avecCache(configuration.creerMoteur()),
+                avecCache(BudgetsTaille.moteurRapide())};
+    }
+
+    /**
+     * Résultat de la résolution d'une grille.
+     */
+    private static class Resultat {
+        final String solution;
+        final long nanos;
+        final long noeuds;
+        final long nanosCpu;
+        final long octetsAlloues;
+
+        Resultat(String solution, long nanos, long noeuds, long nanosCpu, long octetsAlloues) {
+            this.solution = solution;
+            this.nanos = nanos;
+            this.noeuds = noeuds;
+            this.nanosCpu = nanosCpu;
+            this.octetsAlloues = octetsAlloues;
+        }
+    }
+
+    /**
+     * Résout toutes les grilles lues et écrit les solutions dans l'ordre d'entrée.
+     * Le nombre de grilles en cours est borné pour traiter des corpus de taille arbitraire.
+     */
+    public void executer(BufferedReader entree, Writer sortie) throws IOException, InterruptedException {
+        // Des moteurs par thread : le moteur CSP conserve son état pendant la résolution
+        ThreadLocal<MoteurBinairoAbstrait[]> moteurs = ThreadLocal.withInitial(this::creerMoteurs);
+
+        try (TraitementOrdonne<Resultat> traitement = new TraitementOrdonne<>(nbThreads, "solveur-lot",
+                r -> ecrire(r, sortie))) {
+            String ligne;
+            int numero = 0;
+            while ((ligne = entree.readLine()) != null) {
+                numero++;
+                ligne = ligne.trim();
+                if (ligne.isEmpty() || ligne.startsWith("#")) continue;
+
+                EtatBinairo grille;
+                try {
+                    grille = EtatBinairo.depuisTexte(ligne);
+                } catch (IllegalArgumentException ex) {
+                    throw new IOException("Ligne " + numero + ": " + ex.getMessage(), ex);
+                }
+                int choix = BudgetsTaille.parMoteurCSP(grille.getTaille()) ? 0 : 1;
+                traitement.soumettre(() -> resoudre(moteurs.get()[choix], grille));
+            }
+            traitement.terminer();
+            sortie.flush();
+        }
+    }
+
+    private static Resultat resoudre(MoteurBinairoAbstrait moteur, EtatBinairo grille) {
+        long debut = System.nanoTime();
+        EtatBinairo solution = moteur.resoudre(grille);
+        long duree = System.nanoTime() - debut;
+        return new Resultat(solution != null ? solution.toLigne() : null, duree, moteur.getNoeudsExplores(),
+                moteur.getTempsCpu(), moteur.getOctetsAlloues());
+    }
+
+    private void ecrire(Resultat r, Writer sortie) throws IOException {
+        sortie.write(r.solution != null ? r.solution : NON_RESOLU);
+        sortie.write('\n');
+
+        if (nbGrilles == latences.length) {
+            latences = Arrays.copyOf(latences, latences.length * 2);
+        }
+        latences[(int) nbGrilles] = r.nanos;
+        nbGrilles++;
+        if (r.solution != null) nbResolues++;
+        noeudsTotal += r.noeuds;
+        noeudsMax = Math.max(noeudsMax, r.noeuds);
+        nanosCpu += r.nanosCpu;
+        octetsAlloues += r.octetsAlloues;
+    }
+
+    /**
+     * Rapport de fin d'exécution : débit, percentiles de latence et statistiques de nœuds.
+     */
+    public String getRapport(long dureeTotaleNanos) {
+        long[] triees = Arrays.copyOf(latences, (int) nbGrilles);
+        Arrays.sort(triees);
+        double secondes = dureeTotaleNanos / 1e9;
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("Configuration: ").append(configuration.getDescription())
+          .append(" (").append(nbThreads).append(" threads)\n");
+        sb.append(String.format(Locale.ROOT, "Grilles: %d (résolues: %d) en %.3f s, %.1f grilles/s%n",
+                nbGrilles, nbResolues, secondes, nbGrilles / Math.max(secondes, 1e-9)));
+        sb.append(String.format(Locale.ROOT, "Latence (ms): p50 %.3f | p90 %.3f | p99 %.3f | max %.3f%n",
+                percentile(triees, 50) / 1e6, percentile(triees, 90) / 1e6,
+                percentile(triees, 99) / 1e6, percentile(triees, 100) / 1e6));
+        sb.append(String.format(Locale.ROOT, "Nœuds: total %d | moyenne %.1f | max %d%n",
+                noeudsTotal, nbGrilles == 0 ? 0.0 : (double) noeudsTotal / nbGrilles, noeudsMax));
+        // CPU rapporté au temps mural : proche du nombre de threads si le lot les occupe tous
+        sb.append(String.format(Locale.ROOT, "CPU: total %.3f s | moyenne %.3f ms/grille | %.2f cœurs | allocations %.1f Mo%n",
+                nanosCpu / 1e9, nbGrilles == 0 ? 0.0 : nanosCpu / 1e6 / nbGrilles,
+                nanosCpu / (double) Math.max(dureeTotaleNanos, 1), octetsAlloues / (1024.0 * 1024)));
+        if (cache != null) {
+            sb.append(String.format(Locale.ROOT, "Cache: %d entrées | taux de succès %.1f %% | %d évictions%n",
+                    cache.getTaille(), cache.getTauxSucces() * 100, cache.getEvictions()));
+        }
+        return sb.toString();
+    }
+
+    private static long percentile(long[] triees, int p) {
+        if (triees.length == 0) return 0;
+        int rang = (int) Math.ceil(p / 100.0 * triees.length) - 1;
+        return triees[Math.max(0, Math.min(rang, triees.length - 1))];
+    }
+
+    public static void main(String[] args) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        ConfigurationCSP config = ConfigurationCSP.parDefaut();
+        String fichierSortie = null;
+        String fichierEntree = null;
+        int tailleCache = 0;
+        String fichierCache = null;
+
+        try {
+            for (int k = 0; k < args.length; k++) {
+                switch (args[k]) {
+                    case "--threads": threads = Integer.parseInt(args[++k]); break;
+                    case "--config": config = ConfigurationCSP.depuisTexte(args[++k]); break;
+                    case "--sortie": fichierSortie = args[++k]; break;
+                    case "--cache": tailleCache = Integer.parseInt(args[++k]); break;
+                    case "--cache-fichier": fichierCache = args[++k]; break;
+                    default: fichierEntree = args[k];
+                }
+            }
+            if (fichierEntree == null || threads < 1) throw new IllegalArgumentException("fichier d'entrée manquant");
+        } catch (RuntimeException ex) {
+            System.err.println("Erreur: " + ex.getMessage());
+            System.err.println("Usage: SolveurLot [--threads N] [--config mrv,degree,lcv] [--sortie fichier]"
+                    + " [--cache N] [--cache-fichier fichier] (fichier | -)");
+            System.exit(2);
+            return;
+        }
+
+        CacheSolutions cache = null;
+        if (tailleCache > 0 || fichierCache != null) {
+            cache = new CacheSolutions(tailleCache > 0 ? tailleCache : 100_000);
+        }
+
+        SolveurLot solveur = new SolveurLot(config, threads, cache);
+        long debut = System.nanoTime();
+        try {
+            if (fichierCache != null) cache.charger(Paths.get(fichierCache));
+        } catch (IOException ex) {
+            System.err.println("Cache ignoré: " + ex.getMessage());
+        }
+        try (BufferedReader entree = new BufferedReader(new InputStreamReader(
+                "-".equals(fichierEntree) ? System.in : new FileInputStream(fichierEntree), StandardCharsets.UTF_8));
+             Writer sortie = new BufferedWriter(new OutputStreamWriter(
+                fichierSortie == null ? new FileOutputStream(FileDescriptor.out) : new FileOutputStream(fichierSortie),
+                StandardCharsets.UTF_8), 1 << 16)) {
+            solveur.executer(entree, sortie);
+            if (fichierCache != null) cache.sauvegarder(Paths.get(fichierCache));
+        } catch (IOException | InterruptedException ex) {
+            System.err.println("Erreur: " + ex.getMessage());
+            System.exit(1);
+        }
+        System.err.print(solveur.getRapport(System.nanoTime() - debut));
+    }
+}
@@ -0,0 +1,67 @@
+package binairo.outils;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.*;
+
+/**
+ * Exécute des tâches en parallèle et transmet leurs résultats dans l'ordre de soumission.
+ * Le nombre de tâches en cours est borné : quand la fenêtre est pleine, {@link #soumettre}
+ * attend le résultat le plus ancien, ce qui régule le producteur (contre-pression).
+ * Les résultats sont consommés par le thread qui soumet.
+ */
+public class TraitementOrdonne<R> implements AutoCloseable {
+
+    /**
+     * Reçoit les résultats, dans l'ordre de soumission.
+     */
+    public interface Consommateur<R> {
+        void accepter(R resultat) throws IOException;
+    }
+
+    private final ExecutorService executor;
+    private final Consommateur<R> consommateur;
+    private final ArrayDeque<Future<R>> enCours = new ArrayDeque<>();
+    private final int fenetre;
+
+    public TraitementOrdonne(int nbThreads, String nomThreads, Consommateur<R> consommateur) {
+        this.executor = Executors.newFixedThreadPool(nbThreads, r -> {
+            Thread t = new Thread(r, nomThreads);
+            t.setDaemon(true);
+            return t;
+        });
+        this.consommateur = consommateur;
+        this.fenetre = nbThreads * 4;
+    }
+
+    public void soumettre(Callable<R> tache) throws IOException, InterruptedException {
+        enCours.add(executor.submit(tache));
+        if (enCours.size() >= fenetre) {
+            consommerPlusAncien();
+        }
+    }
+
+    /**
+     * Attend et consomme tous les résultats en cours.
+     */
+    public void terminer() throws IOException, InterruptedException {
+        while (!enCours.isEmpty()) {
+            consommerPlusAncien();
+        }
+    }
+
+    private void consommerPlusAncien() throws IOException, InterruptedException {
+        R resultat;
+        try {
+            resultat = enCours.poll().get();
+        } catch (ExecutionException ex) {
+            throw new IOException("Erreur de traitement", ex.getCause());
+        }
+        consommateur.accepter(resultat);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
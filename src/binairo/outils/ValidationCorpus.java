@@ -0,0 +1,157 @@
+package binairo.outils;
+
+import binairo.modele.GrilleBinaire;
+import binairo.modele.LotGrilles;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Vérification des règles sur toutes les grilles d'un corpus (format de
+ * {@link GenerationCorpus} : énoncé, puis solution séparée par une tabulation ;
+ * lignes vides et commentaires '#' ignorés).
+ *
+ * Les grilles sont lues directement dans des {@link LotGrilles}, un par taille, validés
+ * par lots entiers (vectoriellement si le module {@code jdk.incubator.vector} est chargé).
+ * Les grilles en faute sont écrites sur la sortie standard ("ligne N champ K"), le bilan
+ * sur la sortie d'erreur ; le code de sortie vaut 1 s'il y en a. Une grille d'une taille
+ * que les lots ne prennent pas (impaire, au-delà de 64, champ vide) est en faute.
+ * Un champ dont le nombre de cases n'est pas un carré arrête la lecture.
+ *
+ * Usage : java --add-modules jdk.incubator.vector ... ValidationCorpus [--lot N] (fichier | -)
+ */
+public class ValidationCorpus {
+    public static final int LOT_PAR_DEFAUT = 4096;
+
+    private final int capaciteLot;
+    private final Writer fautes;
+    private final Map<Integer, Lot> lots = new HashMap<>();
+    private long nbGrilles;
+    private long nbInvalides;
+
+    /**
+     * Lot en cours pour une taille, avec la position de chacune de ses grilles dans le fichier.
+     */
+    private final class Lot {
+        final LotGrilles grilles;
+        final long[] lignes;
+        final int[] champs;
+        final boolean[] valides;
+
+        Lot(int taille) {
+            grilles = new LotGrilles(taille, capaciteLot);
+            lignes = new long[capaciteLot];
+            champs = new int[capaciteLot];
+            valides = new boolean[capaciteLot];
+        }
+
+        void vider() throws IOException {
+            grilles.valider(valides);
+            for (int g = 0; g < grilles.getNombre(); g++) {
+                if (valides[g]) continue;
+                nbInvalides++;
+                fautes.write("ligne " + lignes[g] + " champ " + champs[g] + '\n');
+            }
+            grilles.vider();
+        }
+    }
+
+    public ValidationCorpus(int capaciteLot, Writer fautes) {
+        this.capaciteLot = capaciteLot;
+        this.fautes = fautes;
+    }
+
+    public void executer(BufferedReader entree) throws IOException {
+        String ligne;
+        long numero = 0;
+        while ((ligne = entree.readLine()) != null) {
+            numero++;
+            if (ligne.isBlank() || ligne.startsWith("#")) continue;
+            int champ = 1, debut = 0;
+            while (debut <= ligne.length()) {
+                int fin = ligne.indexOf('\t', debut);
+                if (fin < 0) fin = ligne.length();
+                ajouter(ligne, debut, fin, numero, champ++);
+                debut = fin + 1;
+            }
+        }
+        for (Lot lot : lots.values()) lot.vider();
+        fautes.flush();
+    }
+
+    private void ajouter(String ligne, int debut, int fin, long numero, int champ) throws IOException {
+        int cases = fin - debut;
+        for (int k = debut; k < fin; k++) {
+            char ch = ligne.charAt(k);
+            if ((ch <= ' ' || ch > '~') && Character.isWhitespace(ch)) cases--;
+        }
+        int taille = (int) Math.round(Math.sqrt(cases));
+        if (taille * taille != cases) {
+            throw new IllegalArgumentException("ligne " + numero + " : " + cases + " cases");
+        }
+        nbGrilles++;
+        if (!GrilleBinaire.supporte(taille)) {
+            nbInvalides++;
+            fautes.write("ligne " + numero + " champ " + champ + '\n');
+            return;
+        }
+        Lot lot = lots.computeIfAbsent(taille, Lot::new);
+        int g;
+        try {
+            g = lot.grilles.ajouter(ligne, debut, fin);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("ligne " + numero + " : " + ex.getMessage());
+        }
+        lot.lignes[g] = numero;
+        lot.champs[g] = champ;
+        if (lot.grilles.estPlein()) lot.vider();
+    }
+
+    public long getNbGrilles() {
+        return nbGrilles;
+    }
+
+    public long getNbInvalides() {
+        return nbInvalides;
+    }
+
+    public static void main(String[] args) {
+        int capacite = LOT_PAR_DEFAUT;
+        String fichier = null;
+        try {
+            for (int k = 0; k < args.length; k++) {
+                switch (args[k]) {
+                    case "--lot": capacite = Integer.parseInt(args[++k]); break;
+                    default: fichier = args[k];
+                }
+            }
+            if (fichier == null || capacite < 1) throw new IllegalArgumentException("fichier manquant");
+        } catch (RuntimeException ex) {
+            System.err.println("Erreur: " + ex.getMessage());
+            System.err.println("Usage: ValidationCorpus [--lot N] (fichier | -)");
+            System.exit(2);
+            return;
+        }
+
+        Writer sortie = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out),
+                StandardCharsets.UTF_8));
+        ValidationCorpus validation = new ValidationCorpus(capacite, sortie);
+        long debut = System.nanoTime();
+        try (BufferedReader entree = new BufferedReader(new InputStreamReader(
+                fichier.equals("-") ? System.in : new FileInputStream(fichier), StandardCharsets.UTF_8), 1 << 16)) {
+            validation.executer(entree);
+        } catch (IOException | IllegalArgumentException ex) {
+            System.err.println("Erreur: " + ex.getMessage());
+            System.exit(1);
+        }
+        double secondes = (System.nanoTime() - debut) / 1e9;
+        System.err.printf(Locale.ROOT, "Grilles: %d (%d invalides) en %.3f s, %.0f grilles/s (%s)%n",
+                validation.getNbGrilles(), validation.getNbInvalides(), secondes,
+                validation.getNbGrilles() / Math.max(secondes, 1e-9),
+                LotGrilles.estVectorise() ? "vectoriel" : "scalaire");
+        if (validation.getNbInvalides() > 0) System.exit(1);
+    }
+}
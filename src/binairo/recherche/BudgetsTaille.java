@@ -0,0 +1,94 @@
+package binairo.recherche;
+
+import binairo.modele.GrilleBinaire;
+
+/**
+ * Tailles de grille prises en charge et budgets de temps associés.
+ *
+ * Budgets (pire cas sur un cœur, grilles générées avec un tiers d'indices) :
+ * <pre>
+ *  taille  | génération | résolution | coup + indice + violations
+ *  6 - 10  |     50 ms  |    100 ms  |  1 ms   (moteur CSP)
+ * 12 - 20  |    300 ms  |     50 ms  |  1 ms   (moteur rapide)
+ * 22 - 32  |   1000 ms  |    100 ms  |  1 ms
+ * 34 - 48  |   3000 ms  |    250 ms  |  1 ms
+ * 50 - 64  |   8000 ms  |    500 ms  |  1 ms
+ * </pre>
+ * Mesures de référence : 64x64 générée en 2,6 s, résolue en 3 ms ; un coup suivi
+ * d'une suggestion et de la liste des violations coûte moins de 0,5 ms à toutes les tailles.
+ * {@code binairo.outils.ControleBudgets} vérifie ces budgets à chaque {@code mvn test}.
+ *
+ * Jusqu'à {@link #TAILLE_MAX_CSP}, l'interface résout avec le moteur CSP et les
+ * heuristiques choisies ; au-delà, le moteur CSP (qui essaie chaque valeur de chaque
+ * case à chaque nœud) dépasse son budget et le moteur rapide avec sondage prend le relais.
+ * Le résolveur en lot et le service HTTP suivent la même règle ({@link #parMoteurCSP}).
+ */
+public final class BudgetsTaille {
+    public static final int TAILLE_MIN = 6;
+    public static final int TAILLE_MAX = 64;
+    public static final int TAILLE_MAX_CSP = 10;
+
+    private static final int[] BORNES = {10, 20, 32, 48, 64};
+    private static final long[] GENERATION_MS = {50, 300, 1000, 3000, 8000};
+    private static final long[] RESOLUTION_MS = {100, 50, 100, 250, 500};
+    public static final long COUP_MS = 1;
+
+    private BudgetsTaille() { }
+
+    /**
+     * Tailles paires de {@link #TAILLE_MIN} à {@link #TAILLE_MAX}.
+     */
+    public static int[] taillesSupportees() {
+        int[] tailles = new int[(TAILLE_MAX - TAILLE_MIN) / 2 + 1];
+        for (int k = 0; k < tailles.length; k++) {
+            tailles[k] = TAILLE_MIN + 2 * k;
+        }
+        return tailles;
+    }
+
+    public static boolean estSupportee(int taille) {
+        return taille >= TAILLE_MIN && taille <= TAILLE_MAX && taille % 2 == 0;
+    }
+
+    public static long delaiGeneration(int taille) {
+        return GENERATION_MS[tranche(taille)];
+    }
+
+    public static long delaiResolution(int taille) {
+        return RESOLUTION_MS[tranche(taille)];
+    }
+
+    /**
+     * Vrai si les grilles de cette taille se résolvent avec le moteur CSP : petites
+     * grilles, et tailles que le moteur rapide ne représente pas (impaires, au-delà de 64).
+     */
+    public static boolean parMoteurCSP(int taille) {
+        return taille <= TAILLE_MAX_CSP || !GrilleBinaire.supporte(taille);
+    }
+
+    /**
+     * Moteur de résolution de l'interface pour cette taille : le moteur CSP donné
+     * (déjà configuré) pour les petites grilles, un moteur rapide avec sondage sinon.
+     */
+    public static MoteurBinairoAbstrait moteurPour(int taille, MoteurBinairoCSP moteurCSP) {
+        return parMoteurCSP(taille) ? moteurCSP : moteurRapide();
+    }
+
+    /**
+     * Le moteur des grandes tailles : moteur rapide avec sondage.
+     */
+    public static MoteurBinairoRapide moteurRapide() {
+        MoteurBinairoRapide rapide = new MoteurBinairoRapide();
+        rapide.setSondage(true);
+        return rapide;
+    }
+
+    private static int tranche(int taille) {
+        if (!estSupportee(taille)) {
+            throw new IllegalArgumentException("Taille non supportée: " + taille);
+        }
+        int k = 0;
+        while (taille > BORNES[k]) k++;
+        return k;
+    }
+}
@@ -0,0 +1,246 @@
+package binairo.recherche;
+
+import binairo.modele.EmpreinteGrille;
+import binairo.modele.EtatBinairo;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache LRU borné des solutions, indexé par l'empreinte de la grille de départ.
+ *
+ * Le cache est découpé en segments indépendants (chacun LRU sous son propre verrou)
+ * pour limiter la contention entre threads. L'éviction se fait à la fois sur le
+ * nombre d'entrées et sur le poids total (octets approximatifs).
+ * Les grilles sans solution sont aussi mémorisées.
+ * Chaque lecture retourne une nouvelle instance d'{@link EtatBinairo}.
+ */
+public class CacheSolutions {
+    private static final int NB_SEGMENTS = 16;
+
+    // Solution stockée au format toLigne(), ou null si la grille n'a pas de solution
+    private static class Entree {
+        final String solution;
+        final int poids;
+
+        Entree(String solution, int poids) {
+            this.solution = solution;
+            this.poids = poids;
+        }
+    }
+
+    private static class Segment {
+        final LinkedHashMap<EmpreinteGrille, Entree> entrees = new LinkedHashMap<>(64, 0.75f, true);
+        long poids;
+    }
+
+    /**
+     * Résultat d'une consultation du cache.
+     */
+    public static class Consultation {
+        private final boolean trouve;
+        private final String solution;
+
+        private Consultation(boolean trouve, String solution) {
+            this.trouve = trouve;
+            this.solution = solution;
+        }
+
+        /** Vrai si la grille est connue du cache (avec ou sans solution). */
+        public boolean estTrouve() {
+            return trouve;
+        }
+
+        /** Copie fraîche de la solution, ou null si la grille n'a pas de solution. */
+        public EtatBinairo getSolution() {
+            return solution == null ? null : EtatBinairo.depuisTexte(solution);
+        }
+    }
+
+    private static final Consultation ABSENT = new Consultation(false, null);
+
+    private final Segment[] segments = new Segment[NB_SEGMENTS];
+    private final int capaciteParSegment;
+    private final long poidsParSegment;
+
+    private final LongAdder succes = new LongAdder();
+    private final LongAdder echecs = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param capaciteMax nombre maximal d'entrées
+     * @param poidsMax    poids maximal en octets (approximatif), ou Long.MAX_VALUE
+     */
+    public CacheSolutions(int capaciteMax, long poidsMax) {
+        this.capaciteParSegment = Math.max(1, capaciteMax / NB_SEGMENTS);
+        this.poidsParSegment = poidsMax == Long.MAX_VALUE ? Long.MAX_VALUE : Math.max(1, poidsMax / NB_SEGMENTS);
+        for (int k = 0; k < NB_SEGMENTS; k++) {
+            segments[k] = new Segment();
+        }
+    }
+
+    public CacheSolutions(int capaciteMax) {
+        this(capaciteMax, Long.MAX_VALUE);
+    }
+
+    private Segment segment(EmpreinteGrille cle) {
+        int h = cle.hashCode();
+        return segments[(h ^ (h >>> 16)) & (NB_SEGMENTS - 1)];
+    }
+
+    public Consultation consulter(EtatBinairo grille) {
+        EmpreinteGrille cle = EmpreinteGrille.de(grille);
+        Segment s = segment(cle);
+        Entree e;
+        synchronized (s) {
+            e = s.entrees.get(cle);
+        }
+        if (e == null) {
+            echecs.increment();
+            return ABSENT;
+        }
+        succes.increment();
+        return new Consultation(true, e.solution);
+    }
+
+    /**
+     * Mémorise la solution (ou l'absence de solution si null) d'une grille de départ.
+     */
+    public void memoriser(EtatBinairo grille, EtatBinairo solution) {
+        inserer(EmpreinteGrille.de(grille), solution == null ? null : solution.toLigne());
+    }
+
+    private void inserer(EmpreinteGrille cle, String solution) {
+        int poids = cle.getPoids() + 48 + (solution == null ? 0 : 40 + solution.length() * 2);
+        Segment s = segment(cle);
+        synchronized (s) {
+            Entree ancienne = s.entrees.put(cle, new Entree(solution, poids));
+            s.poids += poids - (ancienne == null ? 0 : ancienne.poids);
+
+            // Éviction des entrées les moins récemment utilisées
+            Iterator<Entree> it = s.entrees.values().iterator();
+            while ((s.entrees.size() > capaciteParSegment || s.poids > poidsParSegment) && it.hasNext()) {
+                Entree plusAncienne = it.next();
+                if (s.entrees.size() == 1) break;
+                it.remove();
+                s.poids -= plusAncienne.poids;
+                evictions.increment();
+            }
+        }
+    }
+
+    public void vider() {
+        for (Segment s : segments) {
+            synchronized (s) {
+                s.entrees.clear();
+                s.poids = 0;
+            }
+        }
+    }
+
+    public int getTaille() {
+        int total = 0;
+        for (Segment s : segments) {
+            synchronized (s) {
+                total += s.entrees.size();
+            }
+        }
+        return total;
+    }
+
+    public long getPoids() {
+        long total = 0;
+        for (Segment s : segments) {
+            synchronized (s) {
+                total += s.poids;
+            }
+        }
+        return total;
+    }
+
+    public long getSucces() {
+        return succes.sum();
+    }
+
+    public long getEchecs() {
+        return echecs.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public double getTauxSucces() {
+        long s = succes.sum(), total = s + echecs.sum();
+        return total == 0 ? 0.0 : (double) s / total;
+    }
+
+    // --- Persistance pour un redémarrage à chaud ---
+
+    private static final int MAGIQUE = 0x42494E43; // "BINC"
+
+    /**
+     * Écrit le contenu du cache sur disque, des entrées les moins récentes aux plus récentes
+     * pour que le rechargement conserve l'ordre LRU. L'écriture passe par un fichier
+     * temporaire pour ne jamais laisser un fichier tronqué.
+     */
+    public void sauvegarder(Path fichier) throws IOException {
+        Path temporaire = fichier.resolveSibling(fichier.getFileName() + ".tmp");
+        try (DataOutputStream sortie = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaire)))) {
+            sortie.writeInt(MAGIQUE);
+            for (Segment s : segments) {
+                List<Map.Entry<EmpreinteGrille, Entree>> copie;
+                synchronized (s) {
+                    copie = new ArrayList<>(s.entrees.entrySet());
+                }
+                for (Map.Entry<EmpreinteGrille, Entree> e : copie) {
+                    sortie.writeBoolean(true);
+                    e.getKey().ecrire(sortie);
+                    String solution = e.getValue().solution;
+                    sortie.writeBoolean(solution != null);
+                    if (solution != null) {
+                        byte[] octets = solution.getBytes(StandardCharsets.US_ASCII);
+                        sortie.writeInt(octets.length);
+                        sortie.write(octets);
+                    }
+                }
+            }
+            sortie.writeBoolean(false);
+        }
+        Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Recharge un cache sauvegardé par {@link #sauvegarder(Path)}. Les entrées s'ajoutent
+     * au contenu actuel ; un fichier absent est ignoré.
+     * @return le nombre d'entrées lues
+     */
+    public int charger(Path fichier) throws IOException {
+        if (!Files.exists(fichier)) return 0;
+        int nb = 0;
+        try (DataInputStream entree = new DataInputStream(new BufferedInputStream(Files.newInputStream(fichier)))) {
+            if (entree.readInt() != MAGIQUE) throw new IOException("Fichier de cache invalide: " + fichier);
+            while (entree.readBoolean()) {
+                EmpreinteGrille cle = EmpreinteGrille.lire(entree);
+                String solution = null;
+                if (entree.readBoolean()) {
+                    byte[] octets = new byte[entree.readInt()];
+                    entree.readFully(octets);
+                    solution = new String(octets, StandardCharsets.US_ASCII);
+                }
+                inserer(cle, solution);
+                nb++;
+            }
+        }
+        return nb;
+    }
+}
@@ -0,0 +1,98 @@
+package binairo.recherche;
+
+/**
+ * Compteurs détaillés de la dernière recherche d'un moteur.
+ *
+ * Simples champs incrémentés par le thread de la recherche : aucun coût de
+ * synchronisation par nœud. Ils sont ajoutés aux cumuls de {@link MetriquesMoteurs}
+ * une seule fois, à la fin de chaque recherche. Les temps sont en nanosecondes.
+ * Le temps CPU et les octets alloués sont toujours mesurés (deux lectures par
+ * recherche) ; les temps par étape dépendent du chronométrage.
+ */
+public final class CompteursRecherche {
+    long decisions;
+    long retours;
+    long propagations;
+    long echecsDomaine;
+    long validations;
+    long nanosSelection;
+    long nanosOrdre;
+    long nanosPropagation;
+    long nanosCpu;
+    long octetsAlloues;
+
+    void reinitialiser() {
+        decisions = 0;
+        retours = 0;
+        propagations = 0;
+        echecsDomaine = 0;
+        validations = 0;
+        nanosSelection = 0;
+        nanosOrdre = 0;
+        nanosPropagation = 0;
+        nanosCpu = 0;
+        octetsAlloues = 0;
+    }
+
+    /**
+     * Valeurs essayées sur une case choisie par la recherche.
+     */
+    public long getDecisions() {
+        return decisions;
+    }
+
+    /**
+     * Décisions annulées (valeur essayée sans mener à une solution).
+     */
+    public long getRetours() {
+        return retours;
+    }
+
+    /**
+     * Cases placées par propagation, sans décision.
+     */
+    public long getPropagations() {
+        return propagations;
+    }
+
+    /**
+     * Contradictions détectées par la propagation (case sans valeur possible).
+     */
+    public long getEchecsDomaine() {
+        return echecsDomaine;
+    }
+
+    /**
+     * Appels à {@link binairo.modele.EtatBinairo#estValide()} faits par le moteur
+     * (aucun pour le moteur rapide, qui travaille sur les masques).
+     */
+    public long getValidations() {
+        return validations;
+    }
+
+    public long getNanosSelection() {
+        return nanosSelection;
+    }
+
+    public long getNanosOrdre() {
+        return nanosOrdre;
+    }
+
+    public long getNanosPropagation() {
+        return nanosPropagation;
+    }
+
+    /**
+     * Temps CPU du thread de la recherche, en nanosecondes.
+     */
+    public long getNanosCpu() {
+        return nanosCpu;
+    }
+
+    /**
+     * Octets alloués par le thread de la recherche.
+     */
+    public long getOctetsAlloues() {
+        return octetsAlloues;
+    }
+}
@@ -0,0 +1,115 @@
+package binairo.recherche;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Combinaison d'heuristiques du moteur CSP, identifiée par un nom.
+ * Permet de décrire une configuration en dehors de l'interface graphique
+ * (ligne de commande, outils en lot).
+ */
+public class ConfigurationCSP {
+    private final String nom;
+    private final boolean mrv, degree, lcv, fc, ac3, ac4;
+
+    public ConfigurationCSP(String nom, boolean mrv, boolean degree, boolean lcv,
+                            boolean fc, boolean ac3, boolean ac4) {
+        this.nom = nom;
+        this.mrv = mrv;
+        this.degree = degree;
+        this.lcv = lcv;
+        this.fc = fc;
+        this.ac3 = ac3;
+        this.ac4 = ac4;
+    }
+
+    /**
+     * Configuration par défaut (celle utilisée pour la vérification de résolubilité).
+     */
+    public static ConfigurationCSP parDefaut() {
+        return new ConfigurationCSP("MRV + Degree + LCV", true, true, true, false, false, false);
+    }
+
+    /**
+     * Les configurations comparées par l'interface graphique.
+     */
+    public static List<ConfigurationCSP> standards() {
+        return Arrays.asList(
+            new ConfigurationCSP("Backtracking simple", false, false, false, false, false, false),
+            new ConfigurationCSP("MRV seulement", true, false, false, false, false, false),
+            new ConfigurationCSP("MRV + Degree", true, true, false, false, false, false),
+            new ConfigurationCSP("MRV + Degree + LCV", true, true, true, false, false, false),
+            new ConfigurationCSP("+ Forward Checking", true, true, true, true, false, false),
+            new ConfigurationCSP("+ AC-3", true, true, true, false, true, false),
+            new ConfigurationCSP("Toutes sauf AC-4", true, true, true, true, true, false),
+            new ConfigurationCSP("Toutes méthodes", true, true, true, true, true, true)
+        );
+    }
+
+    /**
+     * Lit une liste d'heuristiques séparées par des virgules ou des '+',
+     * par exemple "mrv,degree,lcv" ou "mrv+fc". "simple" désigne le backtracking sans heuristique.
+     */
+    public static ConfigurationCSP depuisTexte(String texte) {
+        boolean mrv = false, degree = false, lcv = false, fc = false, ac3 = false, ac4 = false;
+        for (String brut : texte.split("[,+]")) {
+            String h = brut.trim().toLowerCase().replace("-", "");
+            switch (h) {
+                case "mrv": case "mvr": mrv = true; break;
+                case "degree": case "degre": degree = true; break;
+                case "lcv": lcv = true; break;
+                case "fc": fc = true; break;
+                case "ac3": ac3 = true; break;
+                case "ac4": ac4 = true; break;
+                case "simple": case "": break;
+                default:
+                    throw new IllegalArgumentException("Heuristique inconnue: " + brut.trim());
+            }
+        }
+        return new ConfigurationCSP(decrire(mrv, degree, lcv, fc, ac3, ac4), mrv, degree, lcv, fc, ac3, ac4);
+    }
+
+    /**
+     * Applique cette configuration au moteur donné.
+     */
+    public void appliquer(MoteurBinairoCSP moteur) {
+        moteur.configurer(mrv, degree, lcv, fc, ac3, ac4);
+    }
+
+    /**
+     * Crée un nouveau moteur déjà configuré.
+     */
+    public MoteurBinairoCSP creerMoteur() {
+        MoteurBinairoCSP moteur = new MoteurBinairoCSP();
+        appliquer(moteur);
+        return moteur;
+    }
+
+    public String getNom() {
+        return nom;
+    }
+
+    /**
+     * Liste des heuristiques actives, dans le même format que le rapport du moteur.
+     */
+    public String getDescription() {
+        return decrire(mrv, degree, lcv, fc, ac3, ac4);
+    }
+
+    private static String decrire(boolean mrv, boolean degree, boolean lcv, boolean fc, boolean ac3, boolean ac4) {
+        List<String> configs = new ArrayList<>();
+        if (mrv) configs.add("MRV");
+        if (degree) configs.add("Degree");
+        if (lcv) configs.add("LCV");
+        if (fc) configs.add("FC");
+        if (ac3) configs.add("AC-3");
+        if (ac4) configs.add("AC-4");
+        return configs.isEmpty() ? "Backtracking simple" : String.join(" + ", configs);
+    }
+
+    @Override
+    public String toString() {
+        return nom;
+    }
+}
@@ -0,0 +1,201 @@
+package binairo.recherche;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Événements JDK Flight Recorder des recherches (catégorie « Binairo »).
+ *
+ * Hors enregistrement, un événement ne coûte qu'un test : les méthodes ci-dessous
+ * n'écrivent rien si le type n'est pas activé, et les points chauds (retours,
+ * propagation) ne les appellent qu'au-delà d'un seuil. Pour un diagnostic :
+ * {@code java -XX:StartFlightRecording=filename=binairo.jfr ...}, puis
+ * {@code jfr print --categories Binairo binairo.jfr}.
+ */
+public final class EvenementsRecherche {
+
+    /**
+     * Un retour en arrière sur un sous-arbre d'au moins ce nombre de nœuds est signalé.
+     */
+    public static final long SEUIL_RETOUR_PROFOND = 1000;
+
+    /**
+     * Une propagation plus longue que ce délai (en nanosecondes) est signalée.
+     */
+    public static final long SEUIL_PROPAGATION_LONGUE_NANOS = 1_000_000;
+
+    private EvenementsRecherche() { }
+
+    @Name("binairo.DebutRecherche")
+    @Label("Début de recherche")
+    @Category("Binairo")
+    @StackTrace(false)
+    static final class DebutRecherche extends Event {
+        @Label("Moteur")
+        String moteur;
+        @Label("Taille")
+        int taille;
+    }
+
+    @Name("binairo.Recherche")
+    @Label("Recherche")
+    @Description("Une recherche complète, de son début à sa fin")
+    @Category("Binairo")
+    @StackTrace(false)
+    static final class Recherche extends Event {
+        @Label("Moteur")
+        String moteur;
+        @Label("Taille")
+        int taille;
+        @Label("Nœuds")
+        long noeuds;
+        @Label("Décisions")
+        long decisions;
+        @Label("Retours")
+        long retours;
+        @Label("Échecs de domaine")
+        long echecsDomaine;
+        @Label("Interrompue")
+        boolean interrompue;
+    }
+
+    @Name("binairo.Redemarrage")
+    @Label("Redémarrage")
+    @Description("Recherche abandonnée puis relancée (budget de nœuds épuisé, réparation élargie)")
+    @Category("Binairo")
+    static final class Redemarrage extends Event {
+        @Label("Raison")
+        String raison;
+        @Label("Tentative")
+        int tentative;
+        @Label("Budget de nœuds")
+        long budget;
+    }
+
+    @Name("binairo.RetourProfond")
+    @Label("Retour profond")
+    @Description("Valeur abandonnée après l'exploration d'un grand sous-arbre")
+    @Category("Binairo")
+    @StackTrace(false)
+    static final class RetourProfond extends Event {
+        @Label("Moteur")
+        String moteur;
+        @Label("Ligne")
+        int ligne;
+        @Label("Colonne")
+        int colonne;
+        @Label("Valeur")
+        int valeur;
+        @Label("Nœuds du sous-arbre")
+        long noeuds;
+    }
+
+    @Name("binairo.SuccesCache")
+    @Label("Succès de cache")
+    @Category("Binairo")
+    @StackTrace(false)
+    static final class SuccesCache extends Event {
+        @Label("Source")
+        String source;
+        @Label("Taille")
+        int taille;
+    }
+
+    @Name("binairo.PropagationLongue")
+    @Label("Propagation longue")
+    @Category("Binairo")
+    @StackTrace(false)
+    static final class PropagationLongue extends Event {
+        @Label("Moteur")
+        String moteur;
+        @Label("Durée")
+        @Timespan(Timespan.NANOSECONDS)
+        long duree;
+        @Label("Ligne")
+        int ligne;
+        @Label("Colonne")
+        int colonne;
+    }
+
+    /**
+     * Signale le début d'une recherche et retourne l'événement qui la couvrira
+     * jusqu'à {@link #finRecherche}, ou null si l'enregistrement est inactif.
+     */
+    static Recherche debutRecherche(MoteurBinairoAbstrait moteur, int taille) {
+        DebutRecherche debut = new DebutRecherche();
+        if (debut.shouldCommit()) {
+            debut.moteur = moteur.getClass().getSimpleName();
+            debut.taille = taille;
+            debut.commit();
+        }
+        Recherche recherche = new Recherche();
+        if (!recherche.isEnabled()) return null;
+        recherche.begin();
+        recherche.moteur = moteur.getClass().getSimpleName();
+        recherche.taille = taille;
+        return recherche;
+    }
+
+    static void finRecherche(Recherche recherche, long noeuds, CompteursRecherche c, boolean interrompue) {
+        if (recherche == null) return;
+        recherche.end();
+        if (!recherche.shouldCommit()) return;
+        recherche.noeuds = noeuds;
+        recherche.decisions = c.decisions;
+        recherche.retours = c.retours;
+        recherche.echecsDomaine = c.echecsDomaine;
+        recherche.interrompue = interrompue;
+        recherche.commit();
+    }
+
+    public static void redemarrage(String raison, int tentative, long budget) {
+        Redemarrage e = new Redemarrage();
+        if (!e.shouldCommit()) return;
+        e.raison = raison;
+        e.tentative = tentative;
+        e.budget = budget;
+        e.commit();
+    }
+
+    static void retourProfond(MoteurBinairoAbstrait moteur, int ligne, int colonne, int valeur, long noeuds) {
+        RetourProfond e = new RetourProfond();
+        if (!e.shouldCommit()) return;
+        e.moteur = moteur.getClass().getSimpleName();
+        e.ligne = ligne;
+        e.colonne = colonne;
+        e.valeur = valeur;
+        e.noeuds = noeuds;
+        e.commit();
+    }
+
+    static void succesCache(String source, int taille) {
+        SuccesCache e = new SuccesCache();
+        if (!e.shouldCommit()) return;
+        e.source = source;
+        e.taille = taille;
+        e.commit();
+    }
+
+    /**
+     * Vrai si les propagations longues sont enregistrées : la recherche doit alors
+     * chronométrer ses propagations.
+     */
+    static boolean propagationsSuivies() {
+        return new PropagationLongue().isEnabled();
+    }
+
+    static void propagationLongue(MoteurBinairoAbstrait moteur, long duree, int ligne, int colonne) {
+        PropagationLongue e = new PropagationLongue();
+        if (!e.shouldCommit()) return;
+        e.moteur = moteur.getClass().getSimpleName();
+        e.duree = duree;
+        e.ligne = ligne;
+        e.colonne = colonne;
+        e.commit();
+    }
+}
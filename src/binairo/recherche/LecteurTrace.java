@@ -0,0 +1,210 @@
+package binairo.recherche;
+
+import binairo.modele.EtatBinairo;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Relecture d'une trace écrite par {@link TraceRecherche}, événement par événement.
+ *
+ * La grille est tenue à jour au fil de la lecture : une décision ou une propagation
+ * place la case, un retour annule la dernière décision et ses propagations. La pile
+ * des décisions reste bornée par la profondeur de la recherche, si bien qu'une trace
+ * de plusieurs millions d'événements se relit en mémoire constante.
+ */
+public final class LecteurTrace implements Closeable {
+
+    public enum Type { DEBUT, DECISION, PROPAGATION, RETOUR, FIN }
+
+    private final FileChannel canal;
+    private final ByteBuffer tampon = ByteBuffer.allocate(1 << 16);
+
+    private EtatBinairo depart;
+    private EtatBinairo etat;
+    private int taille;
+    // Propagations de chaque décision de la pile
+    private int[] propagations = new int[0];
+    private int profondeur;
+
+    private int ligne, colonne, valeur;
+    private long noeudsFin;
+    private int drapeauxFin;
+
+    private LecteurTrace(FileChannel canal) {
+        this.canal = canal;
+        tampon.flip();
+    }
+
+    public static LecteurTrace ouvrir(Path fichier) throws IOException {
+        LecteurTrace lecteur = new LecteurTrace(FileChannel.open(fichier, StandardOpenOption.READ));
+        try {
+            byte[] entete = new byte[TraceRecherche.ENTETE.length];
+            for (int k = 0; k < entete.length; k++) entete[k] = (byte) lecteur.lireOctet();
+            if (!Arrays.equals(entete, TraceRecherche.ENTETE)) {
+                throw new IOException("Pas une trace de recherche: " + fichier);
+            }
+        } catch (IOException ex) {
+            lecteur.close();
+            throw ex instanceof EOFException ? new IOException("Trace vide: " + fichier, ex) : ex;
+        }
+        return lecteur;
+    }
+
+    /**
+     * Lit et applique l'événement suivant.
+     * @return son type, ou null en fin de fichier
+     * @throws IOException si le fichier est tronqué au milieu d'un événement ou incohérent
+     */
+    public Type suivant() throws IOException {
+        if (!tampon.hasRemaining() && !remplir()) return null;
+        long mot = lireVarint();
+        int code = (int) (mot & 7);
+        int position = (int) (mot >>> 3);
+        switch (code) {
+            case TraceRecherche.DEBUT:
+                lireDepart();
+                return Type.DEBUT;
+            case TraceRecherche.DECISION_ZERO:
+            case TraceRecherche.DECISION_UN:
+                placer(position, code == TraceRecherche.DECISION_UN ? EtatBinairo.UN : EtatBinairo.ZERO);
+                propagations[profondeur++] = 0;
+                return Type.DECISION;
+            case TraceRecherche.PROPAGATION_ZERO:
+            case TraceRecherche.PROPAGATION_UN:
+                placer(position, code == TraceRecherche.PROPAGATION_UN ? EtatBinairo.UN : EtatBinairo.ZERO);
+                if (profondeur > 0) propagations[profondeur - 1]++;
+                return Type.PROPAGATION;
+            case TraceRecherche.RETOUR:
+                if (profondeur == 0) throw new IOException("Retour sans décision");
+                profondeur--;
+                for (int k = 0; k <= propagations[profondeur]; k++) etat.annulerCoup();
+                return Type.RETOUR;
+            case TraceRecherche.FIN:
+                noeudsFin = lireVarint();
+                drapeauxFin = (int) lireVarint();
+                return Type.FIN;
+            default:
+                throw new IOException("Événement inconnu: " + code);
+        }
+    }
+
+    /**
+     * Grille au point courant de la lecture (modifiée par la lecture : la copier pour la garder).
+     */
+    public EtatBinairo getEtat() {
+        return etat;
+    }
+
+    /**
+     * Grille de départ de la recherche en cours de lecture.
+     */
+    public EtatBinairo getDepart() {
+        return depart;
+    }
+
+    /**
+     * Nombre de décisions sur le chemin courant.
+     */
+    public int getProfondeur() {
+        return profondeur;
+    }
+
+    /**
+     * Case et valeur de la dernière décision ou propagation lue.
+     */
+    public int getLigne() {
+        return ligne;
+    }
+
+    public int getColonne() {
+        return colonne;
+    }
+
+    public int getValeur() {
+        return valeur;
+    }
+
+    /**
+     * Nœuds explorés, d'après le dernier événement FIN.
+     */
+    public long getNoeudsFin() {
+        return noeudsFin;
+    }
+
+    public boolean estResolue() {
+        return (drapeauxFin & TraceRecherche.FIN_RESOLUE) != 0;
+    }
+
+    public boolean estInterrompue() {
+        return (drapeauxFin & TraceRecherche.FIN_INTERROMPUE) != 0;
+    }
+
+    /**
+     * Dépose une copie de la grille courante pour l'affichage, si l'observateur l'attend.
+     */
+    public void publier(ObservateurRecherche observateur, long noeuds) {
+        if (observateur.estAttendu()) observateur.deposer(etat, noeuds);
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    private void lireDepart() throws IOException {
+        taille = (int) lireVarint();
+        if (taille <= 0 || taille > 64) throw new IOException("Taille invalide: " + taille);
+        EtatBinairo grille = new EtatBinairo(taille);
+        int octet = 0;
+        for (int k = 0; k < taille * taille; k++) {
+            if ((k & 3) == 0) octet = lireOctet();
+            int v = octet >>> (2 * (k & 3)) & 3;
+            if (v != 0) grille.setValeur(k / taille, k % taille, v - 1);
+        }
+        // Copies sans historique : seuls les coups rejoués s'annulent
+        depart = new EtatBinairo(grille);
+        etat = new EtatBinairo(grille);
+        propagations = new int[taille * taille + 1];
+        profondeur = 0;
+    }
+
+    private void placer(int position, int v) throws IOException {
+        if (etat == null || position >= taille * taille) throw new IOException("Case hors de la grille");
+        ligne = position / taille;
+        colonne = position % taille;
+        valeur = v;
+        etat.setValeur(ligne, colonne, v);
+    }
+
+    private long lireVarint() throws IOException {
+        long valeur = 0;
+        for (int decalage = 0; decalage < 64; decalage += 7) {
+            int octet = lireOctet();
+            valeur |= (long) (octet & 0x7F) << decalage;
+            if ((octet & 0x80) == 0) return valeur;
+        }
+        throw new IOException("Entier variable trop long");
+    }
+
+    private int lireOctet() throws IOException {
+        if (!tampon.hasRemaining() && !remplir()) throw new EOFException("Trace tronquée");
+        return tampon.get() & 0xFF;
+    }
+
+    private boolean remplir() throws IOException {
+        tampon.clear();
+        int lus;
+        do {
+            lus = canal.read(tampon);
+        } while (lus == 0);
+        tampon.flip();
+        return lus > 0;
+    }
+}
@@ -0,0 +1,31 @@
+package binairo.recherche;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Temps CPU et octets alloués du thread courant, lus par {@code ThreadMXBean}.
+ * Sur une JVM qui ne fournit pas l'une des mesures, elle vaut toujours 0.
+ */
+final class MesureRessources {
+    private static final java.lang.management.ThreadMXBean STANDARD = ManagementFactory.getThreadMXBean();
+    private static final com.sun.management.ThreadMXBean THREADS;
+    private static final boolean CPU;
+    private static final boolean ALLOCATIONS;
+
+    static {
+        THREADS = STANDARD instanceof com.sun.management.ThreadMXBean t ? t : null;
+        CPU = STANDARD.isCurrentThreadCpuTimeSupported() && STANDARD.isThreadCpuTimeEnabled();
+        ALLOCATIONS = THREADS != null && THREADS.isThreadAllocatedMemorySupported()
+                && THREADS.isThreadAllocatedMemoryEnabled();
+    }
+
+    private MesureRessources() { }
+
+    static long cpuNanos() {
+        return CPU ? STANDARD.getCurrentThreadCpuTime() : 0;
+    }
+
+    static long octetsAlloues() {
+        return ALLOCATIONS ? THREADS.getCurrentThreadAllocatedBytes() : 0;
+    }
+}
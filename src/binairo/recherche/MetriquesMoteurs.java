@@ -0,0 +1,238 @@
+package binairo.recherche;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cumuls des compteurs de recherche de tous les moteurs, publiés par JMX sous
+ * {@value #NOM_JMX}.
+ *
+ * Chaque moteur compte dans ses propres champs ({@link CompteursRecherche}) et
+ * n'ajoute ses totaux ici qu'en fin de recherche ; les cumuls sont des
+ * {@link LongAdder}, si bien que les recherches parallèles ne se disputent pas une
+ * même ligne de cache. Les temps par étape demandent deux lectures d'horloge par
+ * étape et par nœud, ce qui pèse sur le moteur rapide : ils ne sont mesurés que si
+ * le chronométrage est activé ({@link #setChronometrage(boolean)}). Les histogrammes
+ * ont des tranches en puissances de 2 (durées) et de 4 (nœuds).
+ */
+public final class MetriquesMoteurs implements MetriquesMoteursMBean {
+
+    public static final String NOM_JMX = "binairo:type=MetriquesMoteurs";
+
+    private static final MetriquesMoteurs GLOBALES = new MetriquesMoteurs();
+    private static volatile boolean enregistrees;
+
+    private volatile boolean chronometrage = Boolean.getBoolean("binairo.chronometrage");
+
+    private final LongAdder recherches = new LongAdder();
+    private final LongAdder interrompues = new LongAdder();
+    private final LongAdder noeuds = new LongAdder();
+    private final LongAdder decisions = new LongAdder();
+    private final LongAdder retours = new LongAdder();
+    private final LongAdder propagations = new LongAdder();
+    private final LongAdder echecsDomaine = new LongAdder();
+    private final LongAdder validations = new LongAdder();
+    private final LongAdder nanosSelection = new LongAdder();
+    private final LongAdder nanosOrdre = new LongAdder();
+    private final LongAdder nanosPropagation = new LongAdder();
+    private final LongAdder nanosCpu = new LongAdder();
+    private final LongAdder octetsAlloues = new LongAdder();
+
+    // 1 ms à 65 s, puis au-delà
+    private final Histogramme durees = new Histogramme(1, 2, 17);
+    // 1 à 4^12 (environ 16 millions) nœuds, puis au-delà
+    private final Histogramme tailles = new Histogramme(1, 4, 13);
+
+    MetriquesMoteurs() { }
+
+    /**
+     * Les métriques communes à tous les moteurs ; enregistrées auprès du serveur
+     * MBean de la plateforme au premier appel.
+     */
+    public static MetriquesMoteurs globales() {
+        if (!enregistrees) enregistrer();
+        return GLOBALES;
+    }
+
+    private static synchronized void enregistrer() {
+        if (enregistrees) return;
+        enregistrees = true;
+        try {
+            ObjectName nom = new ObjectName(NOM_JMX);
+            var serveur = ManagementFactory.getPlatformMBeanServer();
+            if (!serveur.isRegistered(nom)) serveur.registerMBean(GLOBALES, nom);
+        } catch (JMException | SecurityException e) {
+            // Sans JMX, les cumuls restent consultables directement
+            System.err.println("Métriques non publiées par JMX : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Ajoute les compteurs d'une recherche terminée.
+     */
+    void publier(CompteursRecherche c, long noeudsRecherche, long dureeMs, boolean interrompue) {
+        recherches.increment();
+        if (interrompue) interrompues.increment();
+        noeuds.add(noeudsRecherche);
+        decisions.add(c.decisions);
+        retours.add(c.retours);
+        propagations.add(c.propagations);
+        echecsDomaine.add(c.echecsDomaine);
+        validations.add(c.validations);
+        nanosSelection.add(c.nanosSelection);
+        nanosOrdre.add(c.nanosOrdre);
+        nanosPropagation.add(c.nanosPropagation);
+        nanosCpu.add(c.nanosCpu);
+        octetsAlloues.add(c.octetsAlloues);
+        durees.ajouter(dureeMs);
+        tailles.ajouter(noeudsRecherche);
+    }
+
+    @Override
+    public long getRecherches() {
+        return recherches.sum();
+    }
+
+    @Override
+    public long getRecherchesInterrompues() {
+        return interrompues.sum();
+    }
+
+    @Override
+    public long getNoeuds() {
+        return noeuds.sum();
+    }
+
+    @Override
+    public long getDecisions() {
+        return decisions.sum();
+    }
+
+    @Override
+    public long getRetours() {
+        return retours.sum();
+    }
+
+    @Override
+    public long getPropagations() {
+        return propagations.sum();
+    }
+
+    @Override
+    public long getEchecsDomaine() {
+        return echecsDomaine.sum();
+    }
+
+    @Override
+    public long getValidations() {
+        return validations.sum();
+    }
+
+    @Override
+    public boolean isChronometrage() {
+        return chronometrage;
+    }
+
+    @Override
+    public void setChronometrage(boolean actif) {
+        this.chronometrage = actif;
+    }
+
+    @Override
+    public long getNanosSelection() {
+        return nanosSelection.sum();
+    }
+
+    @Override
+    public long getNanosOrdre() {
+        return nanosOrdre.sum();
+    }
+
+    @Override
+    public long getNanosPropagation() {
+        return nanosPropagation.sum();
+    }
+
+    @Override
+    public long getNanosCpu() {
+        return nanosCpu.sum();
+    }
+
+    @Override
+    public long getOctetsAlloues() {
+        return octetsAlloues.sum();
+    }
+
+    @Override
+    public long[] getHistogrammeDureesMs() {
+        return durees.valeurs();
+    }
+
+    @Override
+    public long[] getBornesDureesMs() {
+        return durees.bornes.clone();
+    }
+
+    @Override
+    public long[] getHistogrammeNoeuds() {
+        return tailles.valeurs();
+    }
+
+    @Override
+    public long[] getBornesNoeuds() {
+        return tailles.bornes.clone();
+    }
+
+    @Override
+    public void reinitialiser() {
+        for (LongAdder a : new LongAdder[]{recherches, interrompues, noeuds, decisions, retours,
+                propagations, echecsDomaine, validations, nanosSelection, nanosOrdre, nanosPropagation,
+                nanosCpu, octetsAlloues}) {
+            a.reset();
+        }
+        durees.reinitialiser();
+        tailles.reinitialiser();
+    }
+
+    /**
+     * Histogramme à tranches géométriques : bornes premiere, premiere*facteur, ...,
+     * plus une dernière tranche sans borne.
+     */
+    static final class Histogramme {
+        private final long[] bornes;
+        private final LongAdder[] tranches;
+
+        Histogramme(long premiere, long facteur, int nbBornes) {
+            bornes = new long[nbBornes];
+            tranches = new LongAdder[nbBornes + 1];
+            long borne = premiere;
+            for (int k = 0; k < nbBornes; k++) {
+                bornes[k] = borne;
+                borne *= facteur;
+            }
+            for (int k = 0; k < tranches.length; k++) tranches[k] = new LongAdder();
+        }
+
+        void ajouter(long valeur) {
+            int k = 0;
+            while (k < bornes.length && valeur > bornes[k]) k++;
+            tranches[k].increment();
+        }
+
+        long[] bornes() {
+            return bornes.clone();
+        }
+
+        long[] valeurs() {
+            long[] v = new long[tranches.length];
+            for (int k = 0; k < v.length; k++) v[k] = tranches[k].sum();
+            return v;
+        }
+
+        void reinitialiser() {
+            for (LongAdder t : tranches) t.reset();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package binairo.recherche;
+
+/**
+ * Interface JMX de {@link MetriquesMoteurs} (objet {@value MetriquesMoteurs#NOM_JMX}).
+ * Toutes les valeurs sont cumulées depuis le démarrage ou la dernière remise à zéro.
+ */
+public interface MetriquesMoteursMBean {
+
+    long getRecherches();
+
+    long getRecherchesInterrompues();
+
+    long getNoeuds();
+
+    long getDecisions();
+
+    long getRetours();
+
+    long getPropagations();
+
+    long getEchecsDomaine();
+
+    long getValidations();
+
+    /**
+     * Active la mesure des temps par étape (sélection, ordre, propagation) ; sans elle
+     * les compteurs de nanosecondes n'avancent pas. Désactivée par défaut, ou selon
+     * la propriété système {@code binairo.chronometrage}.
+     */
+    boolean isChronometrage();
+
+    void setChronometrage(boolean actif);
+
+    long getNanosSelection();
+
+    long getNanosOrdre();
+
+    long getNanosPropagation();
+
+    /**
+     * Temps CPU des threads de recherche, en nanosecondes.
+     */
+    long getNanosCpu();
+
+    long getOctetsAlloues();
+
+    /**
+     * Nombre de recherches par tranche de durée ; la tranche k compte les durées
+     * inférieures ou égales à {@link #getBornesDureesMs()}[k], la dernière les autres.
+     */
+    long[] getHistogrammeDureesMs();
+
+    long[] getBornesDureesMs();
+
+    /**
+     * Nombre de recherches par tranche de nœuds explorés, sur le même principe.
+     */
+    long[] getHistogrammeNoeuds();
+
+    long[] getBornesNoeuds();
+
+    void reinitialiser();
+}
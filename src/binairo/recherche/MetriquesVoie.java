@@ -0,0 +1,147 @@
+package binairo.recherche;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métriques d'une voie de l'{@link OrdonnanceurRecherche} : profondeur de la file,
+ * tâches soumises, refusées et terminées, temps d'attente et d'exécution, et pour la
+ * voie de fond les suspensions au profit des tâches interactives.
+ *
+ * Les latences sont en microsecondes, par tranches en puissances de 2 de 16 µs à
+ * environ 67 s : un indice se compte en dizaines de microsecondes, une comparaison en
+ * secondes.
+ */
+public final class MetriquesVoie implements MetriquesVoieMBean {
+
+    private final OrdonnanceurRecherche.Voie voie;
+    private final ThreadPoolExecutor pool;
+    private final int capaciteFile;
+
+    private final LongAdder soumises = new LongAdder();
+    private final LongAdder terminees = new LongAdder();
+    private final LongAdder refusees = new LongAdder();
+    private final LongAdder nanosAttente = new LongAdder();
+    private final LongAdder nanosExecution = new LongAdder();
+    private final LongAccumulator attenteMax = new LongAccumulator(Math::max, 0);
+    private final LongAdder suspensions = new LongAdder();
+    private final LongAdder nanosSuspendus = new LongAdder();
+    private final MetriquesMoteurs.Histogramme latences = new MetriquesMoteurs.Histogramme(16, 2, 23);
+
+    MetriquesVoie(OrdonnanceurRecherche.Voie voie, ThreadPoolExecutor pool, int capaciteFile) {
+        this.voie = voie;
+        this.pool = pool;
+        this.capaciteFile = capaciteFile;
+    }
+
+    OrdonnanceurRecherche.Voie voie() {
+        return voie;
+    }
+
+    void soumise() {
+        soumises.increment();
+    }
+
+    void refusee() {
+        refusees.increment();
+    }
+
+    void terminee(long soumission, long debut, long fin) {
+        terminees.increment();
+        nanosAttente.add(debut - soumission);
+        nanosExecution.add(fin - debut);
+        attenteMax.accumulate((debut - soumission) / 1000);
+        latences.ajouter((fin - soumission) / 1000);
+    }
+
+    void suspendue(long nanos) {
+        suspensions.increment();
+        nanosSuspendus.add(nanos);
+    }
+
+    @Override
+    public String getVoie() {
+        return voie.getNom();
+    }
+
+    @Override
+    public int getThreads() {
+        return pool.getMaximumPoolSize();
+    }
+
+    @Override
+    public int getCapaciteFile() {
+        return capaciteFile;
+    }
+
+    @Override
+    public int getProfondeurFile() {
+        return pool.getQueue().size();
+    }
+
+    @Override
+    public int getTachesEnCours() {
+        return pool.getActiveCount();
+    }
+
+    @Override
+    public long getTachesSoumises() {
+        return soumises.sum();
+    }
+
+    @Override
+    public long getTachesTerminees() {
+        return terminees.sum();
+    }
+
+    @Override
+    public long getTachesRefusees() {
+        return refusees.sum();
+    }
+
+    @Override
+    public long getNanosAttente() {
+        return nanosAttente.sum();
+    }
+
+    @Override
+    public long getNanosExecution() {
+        return nanosExecution.sum();
+    }
+
+    @Override
+    public long getAttenteMaxUs() {
+        return attenteMax.get();
+    }
+
+    @Override
+    public long[] getHistogrammeLatencesUs() {
+        return latences.valeurs();
+    }
+
+    @Override
+    public long[] getBornesLatencesUs() {
+        return latences.bornes();
+    }
+
+    @Override
+    public long getSuspensions() {
+        return suspensions.sum();
+    }
+
+    @Override
+    public long getNanosSuspendus() {
+        return nanosSuspendus.sum();
+    }
+
+    @Override
+    public void reinitialiser() {
+        for (LongAdder a : new LongAdder[]{soumises, terminees, refusees, nanosAttente, nanosExecution,
+                suspensions, nanosSuspendus}) {
+            a.reset();
+        }
+        attenteMax.reset();
+        latences.reinitialiser();
+    }
+}
@@ -0,0 +1,58 @@
+package binairo.recherche;
+
+/**
+ * Interface JMX de {@link MetriquesVoie} (objets {@code binairo:type=OrdonnanceurRecherche,voie=...}).
+ * Les compteurs sont cumulés depuis le démarrage ou la dernière remise à zéro ; la
+ * profondeur de file et les tâches en cours sont des valeurs instantanées.
+ */
+public interface MetriquesVoieMBean {
+
+    String getVoie();
+
+    int getThreads();
+
+    int getCapaciteFile();
+
+    /**
+     * Tâches en attente d'un thread de la voie.
+     */
+    int getProfondeurFile();
+
+    int getTachesEnCours();
+
+    long getTachesSoumises();
+
+    long getTachesTerminees();
+
+    /**
+     * Tâches refusées parce que la file était pleine.
+     */
+    long getTachesRefusees();
+
+    long getNanosAttente();
+
+    long getNanosExecution();
+
+    /**
+     * Attente la plus longue d'une tâche dans la file, en microsecondes.
+     */
+    long getAttenteMaxUs();
+
+    /**
+     * Nombre de tâches par tranche de latence (attente plus exécution) ; la tranche k
+     * compte les latences inférieures ou égales à {@link #getBornesLatencesUs()}[k],
+     * la dernière les autres.
+     */
+    long[] getHistogrammeLatencesUs();
+
+    long[] getBornesLatencesUs();
+
+    /**
+     * Recherches de la voie de fond suspendues au profit de tâches interactives.
+     */
+    long getSuspensions();
+
+    long getNanosSuspendus();
+
+    void reinitialiser();
+}
@@ -0,0 +1,73 @@
+package binairo.recherche;
+
+import binairo.modele.EtatBinairo;
+
+/**
+ * Moteur qui consulte un {@link CacheSolutions} avant de déléguer la résolution.
+ * Le cache peut être partagé entre plusieurs moteurs (un moteur par thread).
+ * Une recherche interrompue n'est jamais mémorisée.
+ */
+public class MoteurAvecCache extends MoteurBinairoAbstrait {
+    private final MoteurBinairoAbstrait delegue;
+    private final CacheSolutions cache;
+    private boolean dernierSucces;
+
+    public MoteurAvecCache(MoteurBinairoAbstrait delegue, CacheSolutions cache) {
+        this.delegue = delegue;
+        this.cache = cache;
+    }
+
+    @Override
+    public EtatBinairo resoudre(EtatBinairo etatInitial) {
+        this.tempsDebut = System.currentTimeMillis();
+        this.interrompu = false;
+
+        CacheSolutions.Consultation c = cache.consulter(etatInitial);
+        dernierSucces = c.estTrouve();
+        if (dernierSucces) {
+            EvenementsRecherche.succesCache("CacheSolutions", etatInitial.getTaille());
+            delegue.acquitterArret();
+            this.noeudsExplores = 0;
+            this.tempsFin = System.currentTimeMillis();
+            return c.getSolution();
+        }
+
+        EtatBinairo solution = delegue.resoudre(etatInitial);
+        this.noeudsExplores = delegue.getNoeudsExplores();
+        this.interrompu = delegue.estInterrompu();
+        if (!interrompu) {
+            cache.memoriser(etatInitial, solution);
+        }
+        this.tempsFin = System.currentTimeMillis();
+        return solution;
+    }
+
+    /**
+     * Compteurs de la recherche déléguée ; tous nuls après un succès du cache.
+     */
+    @Override
+    public CompteursRecherche getCompteurs() {
+        return dernierSucces ? compteurs : delegue.getCompteurs();
+    }
+
+    @Override
+    public void annuler() {
+        delegue.annuler();
+    }
+
+    @Override
+    public void setDelaiMaximal(long millis) {
+        delegue.setDelaiMaximal(millis);
+    }
+
+    /**
+     * Vrai si la dernière résolution a été servie par le cache.
+     */
+    public boolean estDernierSucces() {
+        return dernierSucces;
+    }
+
+    public CacheSolutions getCache() {
+        return cache;
+    }
+}
@@ -10,6 +10,28 @@ public abstract class MoteurBinairoAbstrait {
     protected long noeudsExplores;
     protected long tempsDebut;
     protected long tempsFin;
+    protected final CompteursRecherche compteurs = new CompteursRecherche();
+
+    // Arrêt coopératif : demandé par un autre thread ou par dépassement du délai
+    private volatile boolean arretDemande;
+    private long delaiMaximalNanos = Long.MAX_VALUE;
+    private long echeanceNanos = Long.MAX_VALUE;
+    protected boolean interrompu;
+    // Suspensions au profit des tâches interactives (OrdonnanceurRecherche)
+    private boolean preemptible;
+    private long nanosSuspendus;
+    private EvenementsRecherche.Recherche evenement;
+    // Mesure des temps par étape, fixée au début de chaque recherche
+    private boolean chronometrer;
+    private long cpuDebut;
+    private long octetsDebut;
+
+    static {
+        // Enregistrement JMX et lecture des mesures par thread prêts avant la première
+        // recherche, dont la durée et la latence vue par l'appelant ne les incluent pas
+        MetriquesMoteurs.globales();
+        MesureRessources.cpuNanos();
+    }
 
     public MoteurBinairoAbstrait() {
         this.noeudsExplores = 0;
@@ -26,7 +48,148 @@ public abstract class MoteurBinairoAbstrait {
         return noeudsExplores;
     }
 
+    /**
+     * Durée de la dernière recherche en millisecondes, suspensions exclues.
+     */
     public long getTempsExecution() {
-        return tempsFin - tempsDebut;
+        return tempsFin - tempsDebut - nanosSuspendus / 1_000_000;
+    }
+
+    /**
+     * Temps pendant lequel la dernière recherche, lancée depuis la voie de fond de
+     * l'{@link OrdonnanceurRecherche}, a été suspendue au profit de tâches interactives
+     * (en nanosecondes).
+     */
+    public long getTempsSuspendu() {
+        return nanosSuspendus;
+    }
+
+    /**
+     * Temps CPU de la dernière recherche, en nanosecondes (0 si la JVM ne le mesure pas).
+     */
+    public long getTempsCpu() {
+        return getCompteurs().getNanosCpu();
+    }
+
+    /**
+     * Octets alloués pendant la dernière recherche (0 si la JVM ne les mesure pas).
+     */
+    public long getOctetsAlloues() {
+        return getCompteurs().getOctetsAlloues();
+    }
+
+    /**
+     * Compteurs détaillés de la dernière recherche (décisions, retours, temps par étape...).
+     */
+    public CompteursRecherche getCompteurs() {
+        return compteurs;
+    }
+
+    /**
+     * Demande l'arrêt de la recherche en cours (peut être appelé depuis un autre thread).
+     * La recherche s'arrête au prochain nœud et retourne null. Une demande faite avant
+     * le début de la recherche vaut pour elle : l'arrêt n'est réarmé qu'en fin de recherche.
+     */
+    public void annuler() {
+        arretDemande = true;
+    }
+
+    /**
+     * Limite la durée des prochaines recherches. Une valeur négative ou nulle supprime la limite.
+     */
+    public void setDelaiMaximal(long millis) {
+        this.delaiMaximalNanos = millis <= 0 ? Long.MAX_VALUE : millis * 1_000_000L;
+    }
+
+    /**
+     * Indique si la dernière recherche a été arrêtée (annulation, délai ou interruption du thread)
+     * avant d'avoir pu conclure.
+     */
+    public boolean estInterrompu() {
+        return interrompu;
+    }
+
+    /**
+     * À appeler au début de chaque recherche : calcule l'échéance et remet les compteurs
+     * à zéro. Une annulation déjà demandée est conservée.
+     */
+    protected void preparerArret() {
+        compteurs.reinitialiser();
+        interrompu = false;
+        preemptible = OrdonnanceurRecherche.estPreemptible();
+        nanosSuspendus = 0;
+        echeanceNanos = delaiMaximalNanos == Long.MAX_VALUE
+                ? Long.MAX_VALUE : System.nanoTime() + delaiMaximalNanos;
+    }
+
+    /**
+     * À appeler au début de chaque recherche : remet la durée et les nœuds à zéro,
+     * prépare l'arrêt ({@link #preparerArret()}) et signale le début à JFR.
+     * Les mesures de départ sont prises en dernier : la première recherche d'une JVM
+     * enregistre le MBean des métriques et initialise JFR et {@code ThreadMXBean}, ce
+     * qui ne doit pas compter dans sa durée.
+     */
+    protected void commencerRecherche(int taille) {
+        noeudsExplores = 0;
+        evenement = EvenementsRecherche.debutRecherche(this, taille);
+        chronometrer = MetriquesMoteurs.globales().isChronometrage()
+                || EvenementsRecherche.propagationsSuivies();
+        octetsDebut = MesureRessources.octetsAlloues();
+        cpuDebut = MesureRessources.cpuNanos();
+        tempsDebut = System.currentTimeMillis();
+        preparerArret();
+    }
+
+    /**
+     * Horloge des temps par étape : {@link System#nanoTime()} si le chronométrage est
+     * actif pour cette recherche, 0 sinon (l'appel coûte cher dans les moteurs rapides).
+     */
+    protected long horloge() {
+        return chronometrer ? System.nanoTime() : 0;
+    }
+
+    /**
+     * À appeler à la fin de chaque recherche : réarme l'annulation, fixe la durée, le
+     * temps CPU et les octets alloués, et ajoute les compteurs
+     * aux {@link MetriquesMoteurs#globales() métriques globales} et à l'événement JFR.
+     */
+    protected void terminerRecherche() {
+        acquitterArret();
+        compteurs.nanosCpu = MesureRessources.cpuNanos() - cpuDebut;
+        compteurs.octetsAlloues = MesureRessources.octetsAlloues() - octetsDebut;
+        tempsFin = System.currentTimeMillis();
+        MetriquesMoteurs.globales().publier(compteurs, noeudsExplores, getTempsExecution(), interrompu);
+        EvenementsRecherche.finRecherche(evenement, noeudsExplores, compteurs, interrompu);
+        evenement = null;
+    }
+
+    boolean estArretDemande() {
+        return arretDemande;
+    }
+
+    /**
+     * Consomme une annulation en attente, pour une recherche conclue sans ce moteur
+     * (succès d'un cache devant lui).
+     */
+    void acquitterArret() {
+        arretDemande = false;
+    }
+
+    /**
+     * Point de contrôle appelé à chaque nœud de la recherche ; une recherche de la voie
+     * de fond peut s'y suspendre pendant l'exécution d'une tâche interactive.
+     */
+    protected boolean doitArreter() {
+        if (interrompu) return true;
+        if (preemptible && OrdonnanceurRecherche.preemptionDemandee()) {
+            long pause = OrdonnanceurRecherche.ceder(this);
+            nanosSuspendus += pause;
+            if (echeanceNanos != Long.MAX_VALUE) echeanceNanos += pause;
+        }
+        if (arretDemande || Thread.currentThread().isInterrupted()
+                || (echeanceNanos != Long.MAX_VALUE && System.nanoTime() > echeanceNanos)) {
+            interrompu = true;
+        }
+        return interrompu;
     }
 }
@@ -1,6 +1,8 @@
 package binairo.recherche;
 
+import binairo.modele.Deduction;
 import binairo.modele.EtatBinairo;
+import binairo.modele.GrilleBinaire;
 import java.util.*;
 
 /**
@@ -16,6 +18,8 @@ public class MoteurBinairoCSP extends MoteurBinairoAbstrait {
     private boolean utiliserAC4 = false;
 
     private List<String> rapportComparaison = new ArrayList<>();
+    private ObservateurRecherche observateur;
+    private TraceRecherche trace;
 
     public MoteurBinairoCSP() { }
 
@@ -28,38 +32,110 @@ public class MoteurBinairoCSP extends MoteurBinairoAbstrait {
         this.utiliserAC4 = ac4;
     }
 
+    /**
+     * Publie l'avancement de {@link #resoudre} pour un affichage en direct ;
+     * null (par défaut) pour ne rien publier.
+     */
+    public void setObservateur(ObservateurRecherche observateur) {
+        this.observateur = observateur;
+    }
+
+    /**
+     * Enregistre les décisions, propagations et retours de {@link #resoudre} dans une
+     * trace ; null (par défaut) pour ne rien enregistrer. La trace reste à fermer par
+     * l'appelant.
+     */
+    public void setTrace(TraceRecherche trace) {
+        this.trace = trace;
+    }
+
     @Override
     public EtatBinairo resoudre(EtatBinairo etatInitial) {
-        this.tempsDebut = System.currentTimeMillis();
-        this.noeudsExplores = 0;
+        commencerRecherche(etatInitial.getTaille());
         this.rapportComparaison.clear();
 
         rapportComparaison.add("Configuration: " + getConfigurationString());
 
+        if (trace != null) trace.debut(etatInitial);
+
         // Utiliser une approche simplifiée et robuste
         EtatBinairo solution = backtrackingOptimise(new EtatBinairo(etatInitial));
         
-        this.tempsFin = System.currentTimeMillis();
+        terminerRecherche();
+        if (trace != null) trace.fin(solution != null, interrompu, noeudsExplores);
 
         rapportComparaison.add("Temps d'exécution: " + getTempsExecution() + " ms");
         rapportComparaison.add("Nœuds explorés: " + noeudsExplores);
         rapportComparaison.add("Solution trouvée: " + (solution != null));
+        if (interrompu) rapportComparaison.add("Recherche interrompue");
 
         return solution;
     }
 
+    /**
+     * Compte les solutions de la grille, en s'arrêtant dès que la limite est atteinte
+     * (une limite de 2 suffit pour tester l'unicité).
+     * Si la recherche est interrompue, le nombre retourné est un minorant.
+     */
+    public long compterSolutions(EtatBinairo etatInitial, long limite) {
+        commencerRecherche(etatInitial.getTaille());
+
+        long nb = valide(etatInitial) ? compterRecursif(new EtatBinairo(etatInitial), limite, 0) : 0;
+
+        terminerRecherche();
+        return nb;
+    }
+
+    private long compterRecursif(EtatBinairo etat, long limite, long dejaTrouvees) {
+        if (etat.estComplet()) {
+            return valide(etat) ? 1 : 0;
+        }
+        if (doitArreter()) return 0;
+
+        this.noeudsExplores++;
+
+        long debut = horloge();
+        int[] pos = selectionnerVariableOptimisee(etat);
+        long finSelection = horloge();
+        compteurs.nanosSelection += finSelection - debut;
+        if (pos[0] == -1) return 0;
+
+        List<Integer> valeurs = ordonnerValeursOptimise(etat, pos[0], pos[1]);
+        compteurs.nanosOrdre += horloge() - finSelection;
+
+        long trouvees = 0;
+        for (int val : valeurs) {
+            etat.setValeur(pos[0], pos[1], val);
+            compteurs.decisions++;
+            if (valide(etat)) {
+                trouvees += compterRecursif(etat, limite, dejaTrouvees + trouvees);
+            }
+            etat.annulerCoup();
+            compteurs.retours++;
+            if (dejaTrouvees + trouvees >= limite) break;
+        }
+        return trouvees;
+    }
+
     /**
      * Backtracking optimisé avec gestion robuste des heuristiques.
      */
     private EtatBinairo backtrackingOptimise(EtatBinairo etat) {
         if (etat.estComplet()) {
-            return etat.estValide() ? etat : null;
+            return valide(etat) ? etat : null;
         }
+        if (doitArreter()) return null;
 
         this.noeudsExplores++;
+        if (observateur != null && observateur.estAttendu()) {
+            observateur.deposer(etat, noeudsExplores);
+        }
 
         // Sélection de variable optimisée
+        long debut = horloge();
         int[] pos = selectionnerVariableOptimisee(etat);
+        long finSelection = horloge();
+        compteurs.nanosSelection += finSelection - debut;
         if (pos[0] == -1) return null;
 
         int ligne = pos[0];
@@ -67,12 +143,16 @@ public class MoteurBinairoCSP extends MoteurBinairoAbstrait {
 
         // Ordre des valeurs optimisé
         List<Integer> valeurs = ordonnerValeursOptimise(etat, ligne, col);
+        compteurs.nanosOrdre += horloge() - finSelection;
 
         for (int val : valeurs) {
             etat.setValeur(ligne, col, val);
+            compteurs.decisions++;
+            if (trace != null) trace.decision(ligne, col, val);
 
-            if (etat.estValide()) {
+            if (valide(etat)) {
                 boolean propagationOk = true;
+                long debutPropagation = utiliserFC ? horloge() : 0;
 
                 // Forward Checking léger et robuste
                 if (utiliserFC) {
@@ -80,22 +160,45 @@ public class MoteurBinairoCSP extends MoteurBinairoAbstrait {
                 }
 
                 // AC-3 seulement si FC est activé (plus stable)
+                int propagees = 0;
                 if (propagationOk && utiliserAC3 && utiliserFC) {
-                    propagationOk = ac3Robuste(etat);
+                    propagees = ac3Robuste(etat);
+                    propagationOk = propagees >= 0;
+                }
+                if (utiliserFC) {
+                    long duree = horloge() - debutPropagation;
+                    compteurs.nanosPropagation += duree;
+                    if (!propagationOk) compteurs.echecsDomaine++;
+                    else compteurs.propagations += propagees;
+                    if (duree >= EvenementsRecherche.SEUIL_PROPAGATION_LONGUE_NANOS) {
+                        EvenementsRecherche.propagationLongue(this, duree, ligne, col);
+                    }
                 }
 
                 if (propagationOk) {
+                    long noeudsAvant = noeudsExplores;
                     EtatBinairo result = backtrackingOptimise(etat);
                     if (result != null) return result;
+                    for (int k = 0; k < propagees; k++) etat.annulerCoup();
+                    if (noeudsExplores - noeudsAvant >= EvenementsRecherche.SEUIL_RETOUR_PROFOND) {
+                        EvenementsRecherche.retourProfond(this, ligne, col, val, noeudsExplores - noeudsAvant);
+                    }
                 }
             }
 
             etat.annulerCoup();
+            compteurs.retours++;
+            if (trace != null) trace.retour();
         }
 
         return null;
     }
 
+    private boolean valide(EtatBinairo etat) {
+        compteurs.validations++;
+        return etat.estValide();
+    }
+
     /**
      * Sélection de variable optimisée - évite les calculs coûteux inutiles.
      */
@@ -187,7 +290,7 @@ public class MoteurBinairoCSP extends MoteurBinairoAbstrait {
         int count = 0;
         for (int val = 0; val <= 1; val++) {
             etat.setValeur(ligne, colonne, val);
-            if (etat.estValide()) {
+            if (valide(etat)) {
                 count++;
             }
             etat.annulerCoup();
@@ -212,7 +315,7 @@ public class MoteurBinairoCSP extends MoteurBinairoAbstrait {
             etat.setValeur(ligne, colonne, val);
             int impact = 0;
             
-            if (etat.estValide()) {
+            if (valide(etat)) {
                 // Évaluer l'impact sur les cases adjacentes
                 impact = evaluerImpactLCV(etat, ligne, colonne);
             } else {
@@ -272,7 +375,7 @@ public class MoteurBinairoCSP extends MoteurBinairoAbstrait {
                 boolean aUnePossibilite = false;
                 for (int val = 0; val <= 1; val++) {
                     etat.setValeur(ligne, j, val);
-                    if (etat.estValide()) {
+                    if (valide(etat)) {
                         aUnePossibilite = true;
                     }
                     etat.annulerCoup();
@@ -288,7 +391,7 @@ public class MoteurBinairoCSP extends MoteurBinairoAbstrait {
                 boolean aUnePossibilite = false;
                 for (int val = 0; val <= 1; val++) {
                     etat.setValeur(i, colonne, val);
-                    if (etat.estValide()) {
+                    if (valide(etat)) {
                         aUnePossibilite = true;
                     }
                     etat.annulerCoup();
@@ -302,75 +405,30 @@ public class MoteurBinairoCSP extends MoteurBinairoAbstrait {
     }
 
     /**
-     * AC-3 robuste - version simplifiée et plus stable.
+     * AC-3 sur les contraintes de ligne : les cases qui n'ont plus qu'une valeur possible
+     * (paires, sandwichs, équilibre, unicité) sont placées, avec toutes leurs conséquences,
+     * en une passe de la file de propagation de l'état
+     * ({@link EtatBinairo#getDeductionsPropagees()}).
+     * @return nombre de cases placées, à annuler par l'appelant, ou -1 en cas de
+     *         contradiction, règle enfreinte ou case forcée aux deux valeurs (rien n'est
+     *         alors placé)
      */
-    private boolean ac3Robuste(EtatBinairo etat) {
-        // Implémentation simplifiée d'AC-3 qui évite de supprimer trop de valeurs
-        int taille = etat.getTaille();
-        boolean changement;
-        int iterations = 0;
-        
-        do {
-            changement = false;
-            iterations++;
-            
-            // Limiter les itérations pour éviter les boucles infinies
-            if (iterations > taille * taille * 2) {
-                break;
-            }
-            
-            for (int i = 0; i < taille; i++) {
-                for (int j = 0; j < taille; j++) {
-                    if (etat.getValeur(i, j) == EtatBinairo.VIDE) {
-                        for (int k = 0; k < taille; k++) {
-                            if (k != j && etat.getValeur(i, k) == EtatBinairo.VIDE) {
-                                if (reviserArcRobuste(etat, i, j, i, k)) {
-                                    changement = true;
-                                }
-                            }
-                            if (k != i && etat.getValeur(k, j) == EtatBinairo.VIDE) {
-                                if (reviserArcRobuste(etat, i, j, k, j)) {
-                                    changement = true;
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        } while (changement);
-        
-        return true; // AC-3 robuste ne déclare jamais d'échec prématuré
-    }
-
-    /**
-     * Révision d'arc robuste - ne supprime que les valeurs clairement invalides.
-     */
-    private boolean reviserArcRobuste(EtatBinairo etat, int xi, int xj, int yi, int yj) {
-        // Version simplifiée : seulement vérifier la consistance basique
-        // Ne pas supprimer de valeurs pour éviter les faux négatifs
-        
-        for (int valX = 0; valX <= 1; valX++) {
-            boolean aUnSupport = false;
-            
-            for (int valY = 0; valY <= 1; valY++) {
-                etat.setValeur(xi, xj, valX);
-                etat.setValeur(yi, yj, valY);
-                
-                if (etat.estValide()) {
-                    aUnSupport = true;
-                }
-                
-                etat.annulerCoup();
-                etat.annulerCoup();
-                
-                if (aUnSupport) break;
-            }
-            
-            // Dans la version robuste, on ne supprime pas les valeurs
-            // même si elles n'ont pas de support immédiat
+    private int ac3Robuste(EtatBinairo etat) {
+        if (!GrilleBinaire.supporte(etat.getTaille())) return 0;
+        List<Deduction> deductions = etat.getDeductionsPropagees();
+        // Domaine vide : une case ne peut recevoir ni 0 ni 1
+        if (etat.aContradictionPropagee()) return -1;
+        int placees = 0;
+        for (Deduction d : deductions) {
+            etat.setValeur(d.getLigne(), d.getColonne(), d.getValeur());
+            placees++;
+            if (trace != null) trace.propagation(d.getLigne(), d.getColonne(), d.getValeur());
         }
-        
-        return false; // Pas de changement dans les domaines
+        if (!valide(etat)) {
+            for (int k = 0; k < placees; k++) etat.annulerCoup();
+            return -1;
+        }
+        return placees;
     }
 
     private String getConfigurationString() {
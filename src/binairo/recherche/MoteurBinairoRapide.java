@@ -0,0 +1,365 @@
+package binairo.recherche;
+
+import binairo.modele.EtatBinairo;
+import binairo.modele.GrilleBinaire;
+import binairo.modele.ReglesLigne;
+
+import java.util.SplittableRandom;
+
+/**
+ * Moteur de résolution par propagation sur masques de bits ({@link GrilleBinaire}).
+ *
+ * À chaque nœud, les lignes modifiées sont propagées jusqu'au point fixe :
+ * triplets, équilibre, et unicité (une ligne à deux cases vides ne peut pas être
+ * complétée comme une ligne déjà complète). La variable choisie est la première case
+ * vide de la ligne la plus remplie. Grilles de taille paire jusqu'à 64.
+ *
+ * Avec {@link #setAleatoire(SplittableRandom)}, l'ordre des valeurs est tiré au hasard,
+ * ce qui permet de produire des grilles complètes aléatoires.
+ *
+ * Dans les {@link #getCompteurs() compteurs}, les cases placées et les contradictions
+ * des essais du sondage comptent comme celles de la propagation.
+ */
+public class MoteurBinairoRapide extends MoteurBinairoAbstrait {
+    private SplittableRandom aleatoire;
+    private long limiteNoeuds = Long.MAX_VALUE;
+    private boolean sondage;
+
+    // État de la recherche en cours
+    private int taille;
+    private GrilleBinaire[] sauvegardes;
+    private int[] file;
+    private boolean[] enFile;
+    private int nbFile;
+    private GrilleBinaire solution;
+    private GrilleBinaire essai;
+    private long nbSolutions;
+    private long limiteSolutions;
+
+    /**
+     * Ordre des valeurs aléatoire (null pour l'ordre 0 puis 1).
+     */
+    public void setAleatoire(SplittableRandom aleatoire) {
+        this.aleatoire = aleatoire;
+    }
+
+    /**
+     * Nombre maximal de nœuds par recherche ; au-delà la recherche est interrompue
+     * ({@link #estInterrompu()}). Sert aux redémarrages des recherches aléatoires.
+     */
+    public void setLimiteNoeuds(long limiteNoeuds) {
+        this.limiteNoeuds = limiteNoeuds <= 0 ? Long.MAX_VALUE : limiteNoeuds;
+    }
+
+    /**
+     * Active le sondage à chaque nœud : chaque valeur de chaque case vide est essayée
+     * avec propagation, et une valeur qui échoue force l'autre ; la propagation anticipe
+     * aussi dans chaque ligne. Plus cher par nœud,
+     * mais il évite les longues explorations de sous-arbres sans solution qui rendent
+     * les grandes grilles (au-delà de 24) inaccessibles à la recherche seule.
+     */
+    public void setSondage(boolean sondage) {
+        this.sondage = sondage;
+    }
+
+    @Override
+    public EtatBinairo resoudre(EtatBinairo etatInitial) {
+        GrilleBinaire g = resoudre(GrilleBinaire.depuis(etatInitial));
+        return g == null ? null : g.versEtat();
+    }
+
+    /**
+     * Résout directement une grille compacte (non modifiée).
+     * @return une solution ou null
+     */
+    public GrilleBinaire resoudre(GrilleBinaire depart) {
+        lancer(depart, 1);
+        return solution;
+    }
+
+    /**
+     * Compte les solutions, en s'arrêtant à la limite (2 suffit pour tester l'unicité).
+     * Si la recherche est interrompue, le nombre retourné est un minorant.
+     */
+    public long compterSolutions(EtatBinairo etatInitial, long limite) {
+        return compterSolutions(GrilleBinaire.depuis(etatInitial), limite);
+    }
+
+    public long compterSolutions(GrilleBinaire depart, long limite) {
+        lancer(depart, limite);
+        return nbSolutions;
+    }
+
+    private void lancer(GrilleBinaire depart, long limite) {
+        commencerRecherche(depart.getTaille());
+
+        preparer(depart.getTaille());
+        viderFile();
+        this.solution = null;
+        this.nbSolutions = 0;
+        this.limiteSolutions = limite;
+
+        GrilleBinaire g = new GrilleBinaire(depart);
+        for (int k = 0; k < 2 * taille; k++) {
+            enfiler(k);
+        }
+        if (propager(g) && (!sondage || sonder(g))) {
+            rechercher(g, 0);
+        }
+
+        terminerRecherche();
+    }
+
+    private void preparer(int nouvelleTaille) {
+        if (sauvegardes != null && taille == nouvelleTaille) return;
+        taille = nouvelleTaille;
+        sauvegardes = new GrilleBinaire[taille * taille + 1];
+        essai = new GrilleBinaire(taille);
+        file = new int[2 * taille];
+        enFile = new boolean[2 * taille];
+        nbFile = 0;
+    }
+
+    /**
+     * Recherche en profondeur ; retourne vrai quand il faut s'arrêter
+     * (limite de solutions atteinte ou interruption).
+     */
+    private boolean rechercher(GrilleBinaire g, int profondeur) {
+        if (g.estComplete()) {
+            nbSolutions++;
+            if (solution == null) solution = new GrilleBinaire(g);
+            return nbSolutions >= limiteSolutions;
+        }
+        if (doitArreter()) return true;
+        if (noeudsExplores >= limiteNoeuds) {
+            interrompu = true;
+            return true;
+        }
+
+        this.noeudsExplores++;
+
+        long debut = horloge();
+        int[] pos = choisirCase(g);
+        compteurs.nanosSelection += horloge() - debut;
+        int i = pos[0], j = pos[1];
+
+        GrilleBinaire sauvegarde = sauvegardes[profondeur];
+        if (sauvegarde == null) {
+            sauvegarde = sauvegardes[profondeur] = new GrilleBinaire(g);
+        } else {
+            sauvegarde.restaurer(g);
+        }
+
+        int premiere = aleatoire != null ? tirerValeur(g, i, j) : EtatBinairo.ZERO;
+        for (int essai = 0; essai < 2; essai++) {
+            int valeur = essai == 0 ? premiere : 1 - premiere;
+            g.placer(i, j, valeur);
+            compteurs.decisions++;
+            enfiler(i);
+            enfiler(taille + j);
+            debut = horloge();
+            boolean coherente = propager(g) && (!sondage || sonder(g));
+            long duree = horloge() - debut;
+            compteurs.nanosPropagation += duree;
+            if (duree >= EvenementsRecherche.SEUIL_PROPAGATION_LONGUE_NANOS) {
+                EvenementsRecherche.propagationLongue(this, duree, i, j);
+            }
+            long noeudsAvant = noeudsExplores;
+            if (coherente && rechercher(g, profondeur + 1)) return true;
+            g.restaurer(sauvegarde);
+            compteurs.retours++;
+            if (noeudsExplores - noeudsAvant >= EvenementsRecherche.SEUIL_RETOUR_PROFOND) {
+                EvenementsRecherche.retourProfond(this, i, j, valeur, noeudsExplores - noeudsAvant);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Valeur à essayer en premier dans une recherche aléatoire : tirée avec une
+     * probabilité proportionnelle aux places qui lui restent dans la ligne et la colonne
+     * de la case. Un tirage uniforme épuise une valeur trop tôt dans les colonnes et
+     * les grandes grilles (au-delà de 32) ne se terminent alors plus.
+     */
+    private int tirerValeur(GrilleBinaire g, int i, int j) {
+        int demi = taille / 2;
+        long unsLigne = g.masqueUns(i), unsColonne = g.masqueUns(taille + j);
+        long poidsUn = (long) (demi - Long.bitCount(unsLigne)) * (demi - Long.bitCount(unsColonne));
+        long poidsZero = (long) (demi - Long.bitCount(g.masqueRemplies(i) & ~unsLigne))
+                * (demi - Long.bitCount(g.masqueRemplies(taille + j) & ~unsColonne));
+        if (poidsUn + poidsZero <= 0) return aleatoire.nextInt(2);
+        return aleatoire.nextLong(poidsUn + poidsZero) < poidsUn ? EtatBinairo.UN : EtatBinairo.ZERO;
+    }
+
+    /**
+     * Sondage jusqu'au point fixe (voir {@link #setSondage(boolean)}).
+     * @return faux si une case n'admet aucune des deux valeurs
+     */
+    private boolean sonder(GrilleBinaire g) {
+        boolean change = true;
+        while (change && !g.estComplete()) {
+            change = false;
+            for (int i = 0; i < taille; i++) {
+                long vides = g.getPlein() & ~g.masqueRemplies(i);
+                while (vides != 0) {
+                    int j = Long.numberOfTrailingZeros(vides);
+                    vides &= vides - 1;
+                    if (g.get(i, j) != EtatBinairo.VIDE) continue;
+                    for (int valeur = 0; valeur <= 1; valeur++) {
+                        essai.restaurer(g);
+                        essai.placer(i, j, valeur);
+                        enfiler(i);
+                        enfiler(taille + j);
+                        if (!propager(essai)) {
+                            g.placer(i, j, 1 - valeur);
+                            enfiler(i);
+                            enfiler(taille + j);
+                            if (!propager(g)) return false;
+                            change = true;
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Première case vide de la ligne (ou colonne) qui a le moins de cases vides.
+     */
+    private int[] choisirCase(GrilleBinaire g) {
+        long plein = g.getPlein();
+        int meilleure = -1, minVides = Integer.MAX_VALUE;
+        for (int k = 0; k < 2 * taille; k++) {
+            int vides = Long.bitCount(plein & ~g.masqueRemplies(k));
+            if (vides > 0 && vides < minVides) {
+                minVides = vides;
+                meilleure = k;
+                if (vides == 1) break;
+            }
+        }
+        int premiere = Long.numberOfTrailingZeros(plein & ~g.masqueRemplies(meilleure));
+        return meilleure < taille ? new int[]{meilleure, premiere} : new int[]{premiere, meilleure - taille};
+    }
+
+    // --- Propagation ---
+
+    private void enfiler(int k) {
+        if (!enFile[k]) {
+            enFile[k] = true;
+            file[nbFile++] = k;
+        }
+    }
+
+    private void viderFile() {
+        while (nbFile > 0) {
+            enFile[file[--nbFile]] = false;
+        }
+    }
+
+    /**
+     * Propage les lignes en file jusqu'au point fixe.
+     * @return faux si une contradiction est détectée
+     */
+    private boolean propager(GrilleBinaire g) {
+        while (nbFile > 0) {
+            int k = file[--nbFile];
+            enFile[k] = false;
+            if (!propagerLigne(g, k)) {
+                compteurs.echecsDomaine++;
+                viderFile();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean propagerLigne(GrilleBinaire g, int k) {
+        long remplies = g.masqueRemplies(k);
+        long uns = g.masqueUns(k);
+        long zeros = remplies & ~uns;
+        long vides = g.getPlein() & ~remplies;
+
+        if (!ReglesLigne.estCoherente(uns, remplies, taille)) return false;
+        if (vides == 0) return !g.estDupliquee(k);
+
+        long versZero = ReglesLigne.interdites(uns, vides, taille);
+        long versUn = ReglesLigne.interdites(zeros, vides, taille);
+
+        // Unicité : avec deux cases vides (un 0 et un 1 à placer), la ligne ne doit pas
+        // devenir identique à une ligne complète compatible
+        if (Long.bitCount(vides) == 2 && Long.bitCount(uns) == taille / 2 - 1) {
+            int debut = k < taille ? 0 : taille;
+            for (int autre = debut; autre < debut + taille; autre++) {
+                if (autre != k && g.masqueRemplies(autre) == g.getPlein()
+                        && (g.masqueUns(autre) & remplies) == uns) {
+                    long unsAutre = g.masqueUns(autre);
+                    versZero |= vides & unsAutre;
+                    versUn |= vides & ~unsAutre;
+                }
+            }
+        }
+
+        if ((versZero & versUn) != 0) return false;
+
+        // Avec le sondage, et sans déduction directe, anticipation dans la ligne seule :
+        // une valeur supposée qui mène à une contradiction force l'autre
+        if (sondage && (versZero | versUn) == 0 && Long.bitCount(vides) > 2) {
+            for (long reste = vides; reste != 0; reste &= reste - 1) {
+                long bit = reste & -reste;
+                if (meneAContradiction(g, k, uns, remplies | bit)) versUn |= bit;
+                if (meneAContradiction(g, k, uns | bit, remplies | bit)) versZero |= bit;
+            }
+            if ((versZero & versUn) != 0) return false;
+        }
+
+        placerMasque(g, k, versZero, EtatBinairo.ZERO);
+        placerMasque(g, k, versUn, EtatBinairo.UN);
+        return true;
+    }
+
+    /**
+     * Propage triplets et équilibre dans une ligne hypothétique ; une ligne complétée
+     * identique à une ligne complète existante est aussi une contradiction.
+     */
+    private boolean meneAContradiction(GrilleBinaire g, int k, long uns, long remplies) {
+        long plein = g.getPlein();
+        while (true) {
+            if (!ReglesLigne.estCoherente(uns, remplies, taille)) return true;
+            long vides = plein & ~remplies;
+            if (vides == 0) return egaleLigneComplete(g, k, uns);
+            long versZero = ReglesLigne.interdites(uns, vides, taille);
+            long versUn = ReglesLigne.interdites(remplies & ~uns, vides, taille);
+            if ((versZero & versUn) != 0) return true;
+            if ((versZero | versUn) == 0) return false;
+            remplies |= versZero | versUn;
+            uns |= versUn;
+        }
+    }
+
+    private boolean egaleLigneComplete(GrilleBinaire g, int k, long uns) {
+        int debut = k < taille ? 0 : taille;
+        for (int autre = debut; autre < debut + taille; autre++) {
+            if (autre != k && g.masqueRemplies(autre) == g.getPlein() && g.masqueUns(autre) == uns) return true;
+        }
+        return false;
+    }
+
+    private void placerMasque(GrilleBinaire g, int k, long masque, int valeur) {
+        if (masque == 0) return;
+        compteurs.propagations += Long.bitCount(masque);
+        enfiler(k);
+        while (masque != 0) {
+            int pos = Long.numberOfTrailingZeros(masque);
+            masque &= masque - 1;
+            if (k < taille) {
+                g.placer(k, pos, valeur);
+                enfiler(taille + pos);
+            } else {
+                g.placer(pos, k - taille, valeur);
+                enfiler(pos);
+            }
+        }
+    }
+}
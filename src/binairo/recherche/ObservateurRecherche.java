@@ -0,0 +1,66 @@
+package binairo.recherche;
+
+import binairo.modele.EtatBinairo;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Boîte à une place entre une recherche en cours et son affichage.
+ *
+ * L'afficheur relève la boîte à son rythme ({@link #relever()}, une trentaine de fois
+ * par seconde) ; le moteur n'y dépose une copie de sa grille que lorsqu'elle a été
+ * relevée depuis le dépôt précédent. Le coût par nœud se limite donc à une lecture
+ * volatile, et au plus une copie est faite par relevé, quelle que soit la vitesse de
+ * la recherche. Aucun verrou : un seul producteur et un seul consommateur.
+ */
+public final class ObservateurRecherche {
+
+    /**
+     * Grille de la recherche à un instant donné.
+     */
+    public static final class Instantane {
+        private final EtatBinairo etat;
+        private final long noeuds;
+
+        Instantane(EtatBinairo etat, long noeuds) {
+            this.etat = etat;
+            this.noeuds = noeuds;
+        }
+
+        public EtatBinairo getEtat() {
+            return etat;
+        }
+
+        public long getNoeuds() {
+            return noeuds;
+        }
+    }
+
+    private final AtomicReference<Instantane> boite = new AtomicReference<>();
+    private volatile boolean attendu = true;
+
+    /**
+     * Côté moteur : vrai si l'afficheur attend un nouvel instantané.
+     */
+    boolean estAttendu() {
+        return attendu;
+    }
+
+    /**
+     * Côté moteur : dépose une copie de la grille (sans historique).
+     */
+    void deposer(EtatBinairo etat, long noeuds) {
+        attendu = false;
+        boite.set(new Instantane(new EtatBinairo(etat), noeuds));
+    }
+
+    /**
+     * Côté afficheur : retire le dernier instantané déposé, ou null si la recherche
+     * n'a pas avancé depuis le relevé précédent.
+     */
+    public Instantane relever() {
+        Instantane instantane = boite.getAndSet(null);
+        attendu = true;
+        return instantane;
+    }
+}
@@ -0,0 +1,279 @@
+package binairo.recherche;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ordonnanceur des calculs de recherche en deux voies de priorité, chacune servie par
+ * un pool de threads borné avec une file bornée (une soumission de trop est refusée
+ * par {@link RejectedExecutionException}).
+ *
+ * Préemption coopérative et bornée : chaque tâche interactive en cours d'exécution
+ * suspend une recherche lancée depuis la voie de fond, la première à passer par un point
+ * de contrôle ({@link MoteurBinairoAbstrait#doitArreter()}), qui reprend à la fin de la
+ * tâche. Les autres recherches de fond continuent : une résolution ou une génération
+ * interactive longue ne prend que le processeur qu'elle occupe, et une tâche encore en
+ * file n'en prend aucun. Le temps suspendu n'est compté ni dans le délai maximal ni dans
+ * la durée de la recherche. La voie d'un thread passe aux threads qu'il crée : les pools
+ * d'un banc d'essai lancé en fond cèdent la place eux aussi. Une tâche interactive ne doit
+ * donc pas attendre le résultat d'une tâche de fond.
+ *
+ * Métriques de chaque voie publiées par JMX ({@link MetriquesVoie}) pour
+ * l'{@link #global() ordonnanceur global}.
+ */
+public final class OrdonnanceurRecherche {
+
+    public static final String NOM_JMX = "binairo:type=OrdonnanceurRecherche";
+
+    public enum Voie {
+        /** Calculs attendus par l'utilisateur : indices, vérifications, résolutions isolées. */
+        INTERACTIVE("interactive", Thread.NORM_PRIORITY),
+        /** Calculs de masse : comparaisons, réserve de grilles, traitements par lots. */
+        FOND("fond", Thread.MIN_PRIORITY);
+
+        private final String nom;
+        private final int priorite;
+
+        Voie(String nom, int priorite) {
+            this.nom = nom;
+            this.priorite = priorite;
+        }
+
+        public String getNom() {
+            return nom;
+        }
+    }
+
+    public static final int CAPACITE_INTERACTIVE = 64;
+    public static final int CAPACITE_FOND = 256;
+    // Une recherche suspendue revérifie son annulation à cette période
+    private static final long PAUSE_MAX_MS = 50;
+
+    // Tâches interactives en cours d'exécution, tous ordonnanceurs confondus : les
+    // processeurs sont communs
+    private static final AtomicInteger INTERACTIVES = new AtomicInteger();
+    // Recherches de fond suspendues, au plus une par tâche interactive ; modifié sous PREEMPTION
+    private static final AtomicInteger SUSPENDUES = new AtomicInteger();
+    private static final Object PREEMPTION = new Object();
+    // Voie du thread courant, transmise aux threads qu'il crée
+    private static final InheritableThreadLocal<MetriquesVoie> VOIE_COURANTE = new InheritableThreadLocal<>();
+
+    private static OrdonnanceurRecherche global;
+
+    private final ThreadPoolExecutor interactive;
+    private final ThreadPoolExecutor fond;
+    private final MetriquesVoie metriquesInteractive;
+    private final MetriquesVoie metriquesFond;
+
+    /**
+     * @param threadsInteractifs threads de la voie interactive
+     * @param threadsFond        threads de la voie de fond
+     */
+    public OrdonnanceurRecherche(int threadsInteractifs, int threadsFond) {
+        if (threadsInteractifs < 1 || threadsFond < 1) {
+            throw new IllegalArgumentException("Nombre de threads invalide");
+        }
+        interactive = creerPool(threadsInteractifs, CAPACITE_INTERACTIVE);
+        fond = creerPool(threadsFond, CAPACITE_FOND);
+        metriquesInteractive = new MetriquesVoie(Voie.INTERACTIVE, interactive, CAPACITE_INTERACTIVE);
+        metriquesFond = new MetriquesVoie(Voie.FOND, fond, CAPACITE_FOND);
+        interactive.setThreadFactory(fabrique(metriquesInteractive));
+        fond.setThreadFactory(fabrique(metriquesFond));
+    }
+
+    private static ThreadPoolExecutor creerPool(int threads, int capacite) {
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacite));
+    }
+
+    private static ThreadFactory fabrique(MetriquesVoie metriques) {
+        AtomicInteger numero = new AtomicInteger();
+        Voie voie = metriques.voie();
+        return r -> {
+            Thread t = new Thread(() -> {
+                VOIE_COURANTE.set(metriques);
+                r.run();
+            }, "recherche-" + voie.getNom() + "-" + numero.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(voie.priorite);
+            return t;
+        };
+    }
+
+    /**
+     * L'ordonnanceur commun de l'application : deux threads interactifs, un thread de fond
+     * par processeur (au moins deux, la réserve de grilles en occupe un par moments).
+     * Ses métriques sont enregistrées auprès du serveur MBean de la plateforme à la création.
+     */
+    public static synchronized OrdonnanceurRecherche global() {
+        if (global == null) {
+            global = new OrdonnanceurRecherche(2, Math.max(2, Runtime.getRuntime().availableProcessors()));
+            global.enregistrer();
+        }
+        return global;
+    }
+
+    private void enregistrer() {
+        try {
+            var serveur = ManagementFactory.getPlatformMBeanServer();
+            for (MetriquesVoie m : new MetriquesVoie[]{metriquesInteractive, metriquesFond}) {
+                ObjectName nom = new ObjectName(NOM_JMX + ",voie=" + m.getVoie());
+                if (!serveur.isRegistered(nom)) serveur.registerMBean(m, nom);
+            }
+        } catch (JMException | SecurityException e) {
+            System.err.println("Métriques de l'ordonnanceur non publiées par JMX : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Soumet un calcul sur une voie.
+     * @throws RejectedExecutionException si la file de la voie est pleine ou l'ordonnanceur arrêté
+     */
+    public <T> Future<T> soumettre(Voie voie, Callable<T> calcul) {
+        Tache<T> tache = new Tache<>(calcul, metriques(voie));
+        tache.soumettre(pool(voie));
+        return tache;
+    }
+
+    public Future<?> soumettre(Voie voie, Runnable calcul) {
+        return soumettre(voie, () -> {
+            calcul.run();
+            return null;
+        });
+    }
+
+    /**
+     * Vue {@link Executor} d'une voie, pour les classes qui reçoivent un exécuteur.
+     */
+    public Executor executeur(Voie voie) {
+        return r -> soumettre(voie, r);
+    }
+
+    public MetriquesVoie getMetriques(Voie voie) {
+        return metriques(voie);
+    }
+
+    /**
+     * Arrête les deux voies : les tâches en cours sont interrompues, celles en file annulées.
+     */
+    public void arreter() {
+        for (ThreadPoolExecutor pool : new ThreadPoolExecutor[]{interactive, fond}) {
+            for (Runnable tache : pool.shutdownNow()) {
+                ((Future<?>) tache).cancel(false);
+            }
+        }
+    }
+
+    private ThreadPoolExecutor pool(Voie voie) {
+        return voie == Voie.INTERACTIVE ? interactive : fond;
+    }
+
+    private MetriquesVoie metriques(Voie voie) {
+        return voie == Voie.INTERACTIVE ? metriquesInteractive : metriquesFond;
+    }
+
+    /**
+     * Tâche mesurée : attente depuis la soumission, puis exécution. Une tâche interactive
+     * suspend une recherche de fond pendant son exécution, annulée ou non : le calcul
+     * occupe son processeur jusqu'à son retour.
+     */
+    private static final class Tache<T> extends FutureTask<T> {
+        private final MetriquesVoie metriques;
+        private final boolean interactive;
+        private long soumission;
+
+        Tache(Callable<T> calcul, MetriquesVoie metriques) {
+            super(calcul);
+            this.metriques = metriques;
+            this.interactive = metriques.voie() == Voie.INTERACTIVE;
+        }
+
+        void soumettre(ThreadPoolExecutor pool) {
+            soumission = System.nanoTime();
+            try {
+                pool.execute(this);
+            } catch (RejectedExecutionException ex) {
+                metriques.refusee();
+                throw ex;
+            }
+            metriques.soumise();
+        }
+
+        @Override
+        public void run() {
+            long debut = System.nanoTime();
+            if (interactive) INTERACTIVES.incrementAndGet();
+            try {
+                super.run();
+            } finally {
+                if (interactive) liberer();
+                metriques.terminee(soumission, debut, System.nanoTime());
+            }
+        }
+    }
+
+    private static void liberer() {
+        INTERACTIVES.decrementAndGet();
+        synchronized (PREEMPTION) {
+            PREEMPTION.notifyAll();
+        }
+    }
+
+    // --- Points de contrôle des moteurs ---
+
+    /**
+     * Vrai si les recherches du thread courant cèdent la place aux tâches interactives.
+     */
+    static boolean estPreemptible() {
+        MetriquesVoie voie = VOIE_COURANTE.get();
+        return voie != null && voie.voie() == Voie.FOND;
+    }
+
+    /**
+     * Vrai si des tâches interactives en cours n'ont pas encore chacune leur recherche de
+     * fond suspendue.
+     */
+    static boolean preemptionDemandee() {
+        return INTERACTIVES.get() > SUSPENDUES.get();
+    }
+
+    /**
+     * Suspend la recherche du thread courant si une tâche interactive en cours n'a pas
+     * encore la sienne, jusqu'à ce que les suspensions dépassent les tâches interactives,
+     * sauf annulation du moteur ou interruption du thread. Les recherches en trop
+     * reprennent une à une, les autres restent suspendues.
+     * @return la durée de la suspension, en nanosecondes
+     */
+    static long ceder(MoteurBinairoAbstrait moteur) {
+        long debut = System.nanoTime();
+        synchronized (PREEMPTION) {
+            if (SUSPENDUES.get() >= INTERACTIVES.get()) return 0;
+            SUSPENDUES.incrementAndGet();
+            try {
+                while (SUSPENDUES.get() <= INTERACTIVES.get() && !moteur.estArretDemande()) {
+                    PREEMPTION.wait(PAUSE_MAX_MS);
+                }
+            } catch (InterruptedException ex) {
+                // Vue par le point de contrôle qui suit
+                Thread.currentThread().interrupt();
+            } finally {
+                SUSPENDUES.decrementAndGet();
+            }
+        }
+        long duree = System.nanoTime() - debut;
+        MetriquesVoie voie = VOIE_COURANTE.get();
+        if (voie != null) voie.suspendue(duree);
+        return duree;
+    }
+}
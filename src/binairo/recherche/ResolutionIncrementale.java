@@ -0,0 +1,161 @@
+package binairo.recherche;
+
+import binairo.modele.EtatBinairo;
+import binairo.modele.GrilleBinaire;
+
+/**
+ * Résolution répétée d'une grille modifiée case par case, en repartant de la
+ * dernière solution trouvée.
+ *
+ * <ul>
+ *   <li>si la solution en cache s'accorde avec toutes les cases remplies, elle est
+ *       rendue telle quelle ;</li>
+ *   <li>sinon les lignes et colonnes des cases en désaccord (élargies d'un rayon
+ *       croissant : 0, 1, 2 puis 4) sont libérées, toutes les autres cases gardent leur
+ *       valeur en cache, et cette grille presque pleine est résolue avec un budget de
+ *       nœuds ;</li>
+ *   <li>en dernier recours, la grille est résolue depuis zéro par le moteur donné.</li>
+ * </ul>
+ * Une réparation réussie est une vraie solution : les indices de la grille ne sont
+ * jamais remplacés par le cache. Seule la conclusion "pas de solution" demande la
+ * recherche complète.
+ *
+ * Une instance n'est pas partagée entre threads ; une recherche s'abandonne en
+ * interrompant son thread (le résultat est alors null).
+ */
+public class ResolutionIncrementale {
+
+    public enum Mode { CACHE, REPARATION, COMPLETE }
+
+    private static final int[] RAYONS = {0, 1, 2, 4};
+    private static final int BUDGET_REPARATION_PAR_CASE = 4;
+
+    private final MoteurBinairoAbstrait moteurComplet;
+    private final MoteurBinairoRapide reparateur = new MoteurBinairoRapide();
+    private GrilleBinaire solution;
+    private Mode dernierMode;
+
+    /**
+     * @param moteurComplet moteur utilisé quand la réparation échoue (et pour les
+     *                      tailles non prises en charge par {@link GrilleBinaire})
+     */
+    public ResolutionIncrementale(MoteurBinairoAbstrait moteurComplet) {
+        this.moteurComplet = moteurComplet;
+        this.reparateur.setSondage(true);
+    }
+
+    /**
+     * @return une solution compatible avec les cases remplies de la grille, ou null
+     *         (pas de solution, ou recherche interrompue)
+     */
+    public EtatBinairo resoudre(EtatBinairo grille) {
+        int taille = grille.getTaille();
+        if (GrilleBinaire.supporte(taille) && solution != null && solution.getTaille() == taille) {
+            GrilleBinaire g = GrilleBinaire.depuis(grille);
+            GrilleBinaire reparee = reparer(g);
+            if (reparee != null) {
+                solution = reparee;
+                return reparee.versEtat();
+            }
+            if (Thread.currentThread().isInterrupted()) return null;
+            EvenementsRecherche.redemarrage("réparation sans solution, recherche complète", RAYONS.length, 0);
+        }
+
+        dernierMode = Mode.COMPLETE;
+        EtatBinairo resultat = moteurComplet.resoudre(grille);
+        if (resultat != null && GrilleBinaire.supporte(taille)) {
+            solution = GrilleBinaire.depuis(resultat);
+        }
+        return resultat;
+    }
+
+    /**
+     * Comment la dernière solution a été obtenue.
+     */
+    public Mode getDernierMode() {
+        return dernierMode;
+    }
+
+    /**
+     * Fournit une solution connue par ailleurs (elle doit être complète et valide).
+     */
+    public void setSolution(EtatBinairo solution) {
+        this.solution = solution == null || !GrilleBinaire.supporte(solution.getTaille())
+                ? null : GrilleBinaire.depuis(solution);
+    }
+
+    /**
+     * Oublie la solution en cache (nouvelle grille sans rapport avec la précédente).
+     */
+    public void oublier() {
+        solution = null;
+    }
+
+    private GrilleBinaire reparer(GrilleBinaire g) {
+        int taille = g.getTaille();
+        long plein = g.getPlein();
+
+        // Cases remplies en désaccord avec le cache, par ligne
+        long[] ecarts = new long[taille];
+        boolean accord = true;
+        for (int i = 0; i < taille; i++) {
+            ecarts[i] = g.masqueRemplies(i) & (g.masqueUns(i) ^ solution.masqueUns(i));
+            accord &= ecarts[i] == 0;
+        }
+        if (accord) {
+            EvenementsRecherche.succesCache("ResolutionIncrementale", taille);
+            dernierMode = Mode.CACHE;
+            return new GrilleBinaire(solution);
+        }
+
+        long budget = (long) BUDGET_REPARATION_PAR_CASE * taille * taille;
+        reparateur.setLimiteNoeuds(budget);
+        for (int tentative = 0; tentative < RAYONS.length; tentative++) {
+            int rayon = RAYONS[tentative];
+            long lignesLibres = 0, colonnesLibres = 0;
+            for (int i = 0; i < taille; i++) {
+                if (ecarts[i] == 0) continue;
+                lignesLibres |= voisinage(1L << i, rayon);
+                for (long reste = ecarts[i]; reste != 0; reste &= reste - 1) {
+                    colonnesLibres |= voisinage(reste & -reste, rayon);
+                }
+            }
+            lignesLibres &= plein;
+            colonnesLibres &= plein;
+            if (lignesLibres == plein || colonnesLibres == plein) break;
+
+            // Les indices de la grille, complétés par le cache hors des lignes et colonnes libres
+            GrilleBinaire depart = new GrilleBinaire(g);
+            for (int i = 0; i < taille; i++) {
+                if ((lignesLibres >>> i & 1) != 0) continue;
+                long aRemplir = plein & ~colonnesLibres & ~g.masqueRemplies(i);
+                long uns = solution.masqueUns(i);
+                for (; aRemplir != 0; aRemplir &= aRemplir - 1) {
+                    int j = Long.numberOfTrailingZeros(aRemplir);
+                    depart.placer(i, j, (uns >>> j & 1) != 0 ? EtatBinairo.UN : EtatBinairo.ZERO);
+                }
+            }
+            if (!depart.estValide()) continue;
+
+            GrilleBinaire resultat = reparateur.resoudre(depart);
+            if (resultat != null) {
+                dernierMode = Mode.REPARATION;
+                return resultat;
+            }
+            if (Thread.currentThread().isInterrupted()) return null;
+            EvenementsRecherche.redemarrage("réparation élargie", tentative + 1, budget);
+        }
+        return null;
+    }
+
+    /**
+     * Le bit donné étendu de {@code rayon} positions de chaque côté.
+     */
+    private static long voisinage(long bit, int rayon) {
+        long masque = bit;
+        for (int d = 1; d <= rayon; d++) {
+            masque |= bit << d | bit >>> d;
+        }
+        return masque;
+    }
+}
@@ -0,0 +1,147 @@
+package binairo.recherche;
+
+import binairo.modele.EtatBinairo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Enregistrement binaire compact d'une recherche du moteur CSP, relu par
+ * {@link LecteurTrace}.
+ *
+ * Format : l'en-tête {@code BTR1}, puis pour chaque recherche une suite d'événements,
+ * chacun un entier variable (7 bits par octet, bit de poids fort = suite) valant
+ * {@code case << 3 | code}, où {@code case = ligne * taille + colonne} :
+ * <ul>
+ *   <li>DEBUT, suivi de la taille (entier variable) et des cases de la grille de
+ *       départ, 2 bits par case (0 vide, 1 zéro, 2 un), 4 cases par octet ;</li>
+ *   <li>DECISION_ZERO, DECISION_UN : valeur essayée sur une case choisie ;</li>
+ *   <li>PROPAGATION_ZERO, PROPAGATION_UN : case placée par propagation ;</li>
+ *   <li>RETOUR : annule la dernière décision et les propagations qui l'ont suivie ;</li>
+ *   <li>FIN, suivi des nœuds explorés et d'un drapeau (1 résolue, 2 interrompue).</li>
+ * </ul>
+ * Jusqu'au 10x10, un événement tient en 1 ou 2 octets. Les écritures passent par un
+ * tampon de 64 Ko vidé dans un {@link FileChannel}. Une erreur d'écriture arrête
+ * l'enregistrement sans interrompre la recherche ; elle est levée par {@link #close()}.
+ *
+ * Une trace n'est pas partagée entre threads.
+ */
+public final class TraceRecherche implements Closeable {
+
+    static final byte[] ENTETE = {'B', 'T', 'R', '1'};
+
+    static final int DEBUT = 0;
+    static final int DECISION_ZERO = 1;
+    static final int DECISION_UN = 2;
+    static final int PROPAGATION_ZERO = 3;
+    static final int PROPAGATION_UN = 4;
+    static final int RETOUR = 5;
+    static final int FIN = 6;
+
+    static final int FIN_RESOLUE = 1;
+    static final int FIN_INTERROMPUE = 2;
+
+    private static final int TAILLE_TAMPON = 1 << 16;
+
+    private final FileChannel canal;
+    private final ByteBuffer tampon = ByteBuffer.allocate(TAILLE_TAMPON);
+    private IOException erreur;
+    private int taille;
+
+    private TraceRecherche(FileChannel canal) {
+        this.canal = canal;
+        tampon.put(ENTETE);
+    }
+
+    /**
+     * Crée (ou remplace) le fichier de trace.
+     */
+    public static TraceRecherche ouvrir(Path fichier) throws IOException {
+        return new TraceRecherche(FileChannel.open(fichier, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+    }
+
+    void debut(EtatBinairo depart) {
+        taille = depart.getTaille();
+        ecrire(DEBUT);
+        ecrireVarint(taille);
+        int octet = 0, k = 0;
+        for (int i = 0; i < taille; i++) {
+            for (int j = 0; j < taille; j++) {
+                int v = depart.getValeur(i, j);
+                octet |= (v == EtatBinairo.VIDE ? 0 : v + 1) << (2 * (k & 3));
+                if ((++k & 3) == 0) {
+                    ecrireOctet(octet);
+                    octet = 0;
+                }
+            }
+        }
+        if ((k & 3) != 0) ecrireOctet(octet);
+    }
+
+    void decision(int ligne, int colonne, int valeur) {
+        ecrireVarint((long) (ligne * taille + colonne) << 3 | (valeur == EtatBinairo.UN ? DECISION_UN : DECISION_ZERO));
+    }
+
+    void propagation(int ligne, int colonne, int valeur) {
+        ecrireVarint((long) (ligne * taille + colonne) << 3
+                | (valeur == EtatBinairo.UN ? PROPAGATION_UN : PROPAGATION_ZERO));
+    }
+
+    void retour() {
+        ecrire(RETOUR);
+    }
+
+    void fin(boolean resolue, boolean interrompue, long noeuds) {
+        ecrire(FIN);
+        ecrireVarint(noeuds);
+        ecrireVarint((resolue ? FIN_RESOLUE : 0) | (interrompue ? FIN_INTERROMPUE : 0));
+    }
+
+    /**
+     * Vide le tampon et ferme le fichier.
+     * @throws IOException la première erreur d'écriture rencontrée, le cas échéant
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            vider();
+        } finally {
+            canal.close();
+        }
+        if (erreur != null) throw erreur;
+    }
+
+    private void ecrire(int code) {
+        if (tampon.remaining() < 1) vider();
+        tampon.put((byte) code);
+    }
+
+    private void ecrireOctet(int octet) {
+        if (tampon.remaining() < 1) vider();
+        tampon.put((byte) octet);
+    }
+
+    private void ecrireVarint(long valeur) {
+        if (tampon.remaining() < 10) vider();
+        while ((valeur & ~0x7FL) != 0) {
+            tampon.put((byte) (valeur & 0x7F | 0x80));
+            valeur >>>= 7;
+        }
+        tampon.put((byte) valeur);
+    }
+
+    private void vider() {
+        tampon.flip();
+        try {
+            while (erreur == null && tampon.hasRemaining()) canal.write(tampon);
+        } catch (IOException ex) {
+            erreur = ex;
+        }
+        tampon.clear();
+    }
+}
@@ -0,0 +1,180 @@
+package binairo.serveur;
+
+import binairo.generation.GenerateurGrilles;
+import binairo.modele.EtatBinairo;
+import binairo.modele.GrilleBinaire;
+import binairo.recherche.MoteurBinairoRapide;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Contrôle de bout en bout de {@link CoordinateurRecherche} avec deux
+ * {@link TravailleurRecherche} lancés dans des JVM séparées (classpath courant, port libre
+ * quelconque sur localhost). Les résolutions et comptages répartis sont comparés à ceux de
+ * {@link MoteurBinairoRapide} sur la même grille. Un travailleur est ensuite tué au milieu
+ * d'un comptage : ses préfixes doivent revenir à l'autre et le compte rester exact. Sans
+ * aucun travailleur, le coordinateur doit échouer.
+ * Code de sortie 1 si une vérification échoue.
+ *
+ * Usage : ControleRepartition [--graine G]
+ */
+public class ControleRepartition {
+    private static final Pattern ECOUTE = Pattern.compile(":(\\d+)\\s*$");
+    // Petit budget : les sous-arbres reviennent redécoupés
+    private static final long BUDGET = 2000;
+    private static final long LIMITE_COMPTAGE = 20_000;
+
+    private int echecs;
+
+    public static void main(String[] args) throws Exception {
+        long graine = 1;
+        if (args.length == 2 && args[0].equals("--graine")) {
+            graine = Long.parseLong(args[1]);
+        } else if (args.length != 0) {
+            System.err.println("Usage: ControleRepartition [--graine G]");
+            System.exit(2);
+        }
+
+        ControleRepartition controle = new ControleRepartition();
+        List<Process> travailleurs = new ArrayList<>();
+        try {
+            List<InetSocketAddress> adresses = new ArrayList<>();
+            for (int k = 0; k < 2; k++) {
+                Process p = lancerTravailleur();
+                travailleurs.add(p);
+                adresses.add(new InetSocketAddress("127.0.0.1", lirePort(p)));
+            }
+            controle.executer(adresses, travailleurs, graine);
+        } finally {
+            for (Process p : travailleurs) p.destroyForcibly();
+        }
+        System.out.println(controle.echecs == 0 ? "Répartition : tous les contrôles passent"
+                : "Répartition : " + controle.echecs + " contrôle(s) en échec");
+        System.exit(controle.echecs == 0 ? 0 : 1);
+    }
+
+    private void executer(List<InetSocketAddress> adresses, List<Process> travailleurs, long graine)
+            throws Exception {
+        CoordinateurRecherche coordinateur = new CoordinateurRecherche(adresses, 2, BUDGET);
+        MoteurBinairoRapide reference = new MoteurBinairoRapide();
+        GenerateurGrilles generateur = new GenerateurGrilles(graine);
+        SplittableRandom aleatoire = new SplittableRandom(graine);
+
+        for (int taille : new int[]{6, 8, 10, 12, 14}) {
+            // Énoncé à solution unique, puis grille à peine entamée : nombreuses solutions
+            EtatBinairo enonce = generateur.generer(taille, GenerateurGrilles.indicesParDefaut(taille)).getEnonce();
+            verifierResolution(taille + "x" + taille, coordinateur.resoudre(enonce), enonce,
+                    reference.resoudre(new EtatBinairo(enonce)) != null);
+            EtatBinairo partielle = entamer(generateur.genererSolution(taille), taille, aleatoire);
+            long attendu = reference.compterSolutions(new EtatBinairo(partielle), LIMITE_COMPTAGE);
+            long obtenu = coordinateur.compterSolutions(partielle, LIMITE_COMPTAGE);
+            verifier("comptage " + taille + "x" + taille + " : " + obtenu + " pour " + attendu
+                    + " (" + coordinateur.getDecoupes() + " découpes)", obtenu == attendu);
+        }
+        // Valide en l'état, mais la case (0, 2) ne peut être ni 0 ni 1
+        EtatBinairo impossible = EtatBinairo.depuisTexte("00.11.\n......\n......\n......\n......\n......");
+        verifierResolution("grille sans solution", coordinateur.resoudre(impossible), impossible,
+                reference.resoudre(new EtatBinairo(impossible)) != null);
+
+        // Un travailleur tué en plein comptage complet : ses préfixes reviennent à l'autre
+        CoordinateurRecherche repli = new CoordinateurRecherche(adresses, 2, CoordinateurRecherche.BUDGET_PAR_DEFAUT);
+        EtatBinairo debut = EtatBinairo.depuisTexte("010110" + ".".repeat(58));
+        long attendu = reference.compterSolutions(new EtatBinairo(debut), Long.MAX_VALUE);
+        CompletableFuture<Long> comptage = CompletableFuture.supplyAsync(() -> {
+            try {
+                return repli.compterSolutions(debut, Long.MAX_VALUE);
+            } catch (IOException | InterruptedException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        Thread.sleep(100);
+        boolean enCours = !comptage.isDone();
+        travailleurs.get(0).destroyForcibly().waitFor();
+        verifier("travailleur tué pendant le comptage", enCours);
+        try {
+            long obtenu = comptage.get(60, TimeUnit.SECONDS);
+            verifier("comptage 8x8 après la perte : " + obtenu + " pour " + attendu, obtenu == attendu);
+        } catch (ExecutionException | TimeoutException ex) {
+            verifier("comptage 8x8 après la perte : " + ex, false);
+        }
+
+        // Plus aucun travailleur : le travail échoue au lieu d'attendre
+        travailleurs.get(1).destroyForcibly().waitFor();
+        boolean echoue;
+        try {
+            repli.resoudre(debut);
+            echoue = false;
+        } catch (IOException ex) {
+            echoue = true;
+        }
+        verifier("échec sans travailleur", echoue);
+    }
+
+    /**
+     * Garde environ un quart des cases d'une solution.
+     */
+    private static EtatBinairo entamer(GrilleBinaire solution, int taille, SplittableRandom aleatoire) {
+        GrilleBinaire partielle = new GrilleBinaire(solution);
+        for (int i = 0; i < taille; i++) {
+            for (int j = 0; j < taille; j++) {
+                if (aleatoire.nextInt(4) != 0) partielle.effacer(i, j);
+            }
+        }
+        return partielle.versEtat();
+    }
+
+    private void verifierResolution(String nom, EtatBinairo solution, EtatBinairo grille, boolean resoluble) {
+        boolean ok = (solution != null) == resoluble;
+        if (solution != null) {
+            ok &= solution.estComplet() && solution.estValide();
+            for (int i = 0; i < grille.getTaille(); i++) {
+                for (int j = 0; j < grille.getTaille(); j++) {
+                    int valeur = grille.getValeur(i, j);
+                    ok &= valeur == EtatBinairo.VIDE || valeur == solution.getValeur(i, j);
+                }
+            }
+        }
+        verifier("résolution " + nom + (resoluble ? "" : " (aucune)"), ok);
+    }
+
+    private void verifier(String nom, boolean ok) {
+        if (!ok) echecs++;
+        System.out.println((ok ? "ok      " : "ÉCHEC   ") + nom);
+    }
+
+    private static Process lancerTravailleur() throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                TravailleurRecherche.class.getName(), "--port", "0")
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+    }
+
+    /**
+     * Port annoncé par le travailleur sur sa sortie d'erreur ; la suite de cette sortie
+     * est recopiée sur celle du contrôle.
+     */
+    private static int lirePort(Process travailleur) throws IOException {
+        BufferedReader erreurs = new BufferedReader(new InputStreamReader(travailleur.getErrorStream()));
+        String ligne = erreurs.readLine();
+        Matcher m = ECOUTE.matcher(ligne == null ? "" : ligne);
+        if (!m.find()) throw new IOException("Travailleur non démarré : " + ligne);
+        Thread recopie = new Thread(() -> erreurs.lines().forEach(System.err::println), "recopie-travailleur");
+        recopie.setDaemon(true);
+        recopie.start();
+        return Integer.parseInt(m.group(1));
+    }
+}
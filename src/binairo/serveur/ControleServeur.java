@@ -0,0 +1,126 @@
+package binairo.serveur;
+
+import binairo.modele.EtatBinairo;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contrôle de bout en bout de {@link ServeurBinairo} sur localhost (port libre quelconque) :
+ * réponses 200, 400, 405, 503, 504 et 500, et place du limiteur gardée par un calcul
+ * abandonné à l'échéance jusqu'à sa fin.
+ * Le serveur contrôlé n'admet qu'une requête à la fois ; des points d'accès propres au
+ * contrôle bloquent, ralentissent ou échouent à la demande.
+ * Code de sortie 1 si une vérification échoue.
+ *
+ * Usage : ControleServeur
+ */
+public class ControleServeur {
+    private static final String GRILLE_6 = "1..0..\n......\n.0....\n...1..\n....0.\n1.....";
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final String base;
+    private int echecs;
+
+    private ControleServeur(int port) {
+        this.base = "http://127.0.0.1:" + port;
+    }
+
+    public static void main(String[] args) throws Exception {
+        CountDownLatch bloqueEntree = new CountDownLatch(1), bloqueSortie = new CountDownLatch(1);
+        ServeurBinairo serveur = new ServeurBinairo(new InetSocketAddress("127.0.0.1", 0), 1, 5, null);
+        serveur.ajouterPointAcces("/panne", requete -> {
+            throw new IllegalStateException("panne simulée");
+        });
+        serveur.ajouterPointAcces("/bloque", requete -> {
+            bloqueEntree.countDown();
+            bloqueSortie.await();
+            return new ServeurBinairo.Reponse(200, "{}");
+        });
+        // Calcul qui ignore l'interruption, comme un indice sur une grande grille
+        serveur.ajouterPointAcces("/lent", serveur.avecEcheance(requete -> {
+            long fin = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(800);
+            while (System.nanoTime() < fin) Thread.onSpinWait();
+            return new ServeurBinairo.Reponse(200, "{}");
+        }));
+        serveur.demarrer();
+        ControleServeur controle = new ControleServeur(serveur.getPort());
+        try {
+            controle.executer(bloqueEntree, bloqueSortie);
+        } finally {
+            serveur.arreter();
+        }
+        System.out.println(controle.echecs == 0 ? "Serveur : tous les contrôles passent"
+                : "Serveur : " + controle.echecs + " contrôle(s) en échec");
+        System.exit(controle.echecs == 0 ? 0 : 1);
+    }
+
+    private void executer(CountDownLatch bloqueEntree, CountDownLatch bloqueSortie) throws Exception {
+        HttpResponse<String> r = poster("/resoudre", GRILLE_6);
+        verifier("/resoudre", r, 200, "\"resolu\":true");
+        String solution = r.body().replaceAll(".*\"solution\":\"([01]+)\".*", "$1");
+        verifier("/resoudre : solution valide", EtatBinairo.depuisTexte(solution).estValide()
+                && EtatBinairo.depuisTexte(solution).estComplet());
+        verifier("/resoudre 20x20 (moteur rapide)", poster("/resoudre", ".".repeat(400)), 200, "\"resolu\":true");
+        verifier("/indice", poster("/indice", GRILLE_6), 200, "\"indice\"");
+        verifier("/valider", poster("/valider", "111...\n......\n......\n......\n......\n......"),
+                200, "\"valide\":false");
+        verifier("/compter", poster("/compter?limite=2", GRILLE_6), 200, "\"solutions\":");
+        verifier("grille mal formée", poster("/valider", "1.."), 400, "erreur");
+        verifier("méthode GET", client.send(HttpRequest.newBuilder(URI.create(base + "/valider")).GET().build(),
+                HttpResponse.BodyHandlers.ofString()), 405, "POST");
+        verifier("délai dépassé", poster("/compter?limite=1000000&delai=50", ".".repeat(400)), 504, "délai");
+        verifier("erreur inattendue", poster("/panne", GRILLE_6), 500, "panne simulée");
+
+        // Limiteur plein : une requête en cours, la suivante est rejetée
+        CompletableFuture<HttpResponse<String>> bloquee = posterAsync("/bloque", GRILLE_6);
+        if (!bloqueEntree.await(5, TimeUnit.SECONDS)) throw new IllegalStateException("/bloque n'a pas démarré");
+        verifier("serveur saturé", poster("/valider", GRILLE_6), 503, "saturé");
+        bloqueSortie.countDown();
+        verifier("requête bloquée puis libérée", bloquee.get(5, TimeUnit.SECONDS), 200, "{}");
+
+        // Un calcul abandonné à l'échéance garde sa place jusqu'à sa fin
+        verifier("calcul lent à l'échéance", poster("/lent?delai=100", GRILLE_6), 504, "délai");
+        verifier("place gardée par le calcul abandonné", poster("/valider", GRILLE_6), 503, "saturé");
+        int code = 0;
+        for (long fin = System.nanoTime() + TimeUnit.SECONDS.toNanos(5); code != 200 && System.nanoTime() < fin; ) {
+            Thread.sleep(50);
+            code = poster("/valider", GRILLE_6).statusCode();
+        }
+        verifier("place rendue à la fin du calcul", code == 200);
+    }
+
+    private HttpResponse<String> poster(String chemin, String corps) throws IOException, InterruptedException {
+        return client.send(requete(chemin, corps), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private CompletableFuture<HttpResponse<String>> posterAsync(String chemin, String corps) {
+        return client.sendAsync(requete(chemin, corps), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest requete(String chemin, String corps) {
+        return HttpRequest.newBuilder(URI.create(base + chemin))
+                .timeout(Duration.ofSeconds(10))
+                .POST(HttpRequest.BodyPublishers.ofString(corps))
+                .build();
+    }
+
+    private void verifier(String nom, HttpResponse<String> reponse, int code, String extrait) {
+        boolean ok = reponse.statusCode() == code && reponse.body().contains(extrait);
+        if (!ok) nom += " : attendu " + code + " avec " + extrait + ", reçu " + reponse.statusCode() + " " + reponse.body();
+        verifier(nom, ok);
+    }
+
+    private void verifier(String nom, boolean ok) {
+        if (!ok) echecs++;
+        System.out.println((ok ? "ok      " : "ÉCHEC   ") + nom);
+    }
+}
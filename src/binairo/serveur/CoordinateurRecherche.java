@@ -0,0 +1,390 @@
+package binairo.serveur;
+
+import binairo.modele.EtatBinairo;
+import binairo.modele.GrilleBinaire;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Résolution et comptage répartis sur des processus {@link TravailleurRecherche}.
+ *
+ * L'espace de recherche est découpé en préfixes : la grille avec quelques cases
+ * supplémentaires fixées, chaque préfixe étant un sous-arbre indépendant. Au départ,
+ * la racine est découpée jusqu'à {@link #TACHES_PAR_CONNEXION} sous-arbres par
+ * connexion. Chaque connexion prend le prochain préfixe de la file et l'envoie à
+ * son travailleur avec un budget de nœuds. Un sous-arbre qui dépasse son budget
+ * revient et il est redécoupé en deux. Les moitiés passent en tête de file, si bien
+ * que les gros sous-arbres se répartissent entre les connexions libres.
+ *
+ * En résolution, la première solution termine le travail. En comptage, les nombres
+ * des sous-arbres s'additionnent jusqu'à la limite. Dans les deux cas, les connexions
+ * sont fermées dès la fin, ce qui interrompt les calculs en cours. Si un travailleur
+ * tombe, son préfixe est rendu à la file. Le travail n'échoue que si plus aucune
+ * connexion ne répond.
+ *
+ * Usage : CoordinateurRecherche --travailleurs hote:port,hote:port [--connexions N]
+ *                               [--budget noeuds] [--compter limite] grille
+ * La grille est un fichier texte au format {@link EtatBinairo#depuisTexte(String)}.
+ * Un travailleur calcule une tâche à la fois par connexion : --connexions (par défaut
+ * {@link #CONNEXIONS_PAR_DEFAUT}) est à régler sur le nombre de cœurs des travailleurs.
+ */
+public class CoordinateurRecherche {
+
+    public static final int TACHES_PAR_CONNEXION = 4;
+    public static final int CONNEXIONS_PAR_DEFAUT = 4;
+    public static final long BUDGET_PAR_DEFAUT = 20_000;
+
+    private final List<InetSocketAddress> travailleurs;
+    private final int connexionsParTravailleur;
+    private final long budget;
+
+    // Statistiques du dernier travail
+    private long noeuds;
+    private int tachesEnvoyees;
+    private int decoupes;
+
+    /**
+     * @param connexionsParTravailleur tâches menées en parallèle sur chaque travailleur
+     *                                 (un cœur chacune)
+     * @param budget                   nœuds par tâche avant redécoupage
+     */
+    public CoordinateurRecherche(List<InetSocketAddress> travailleurs, int connexionsParTravailleur, long budget) {
+        if (travailleurs.isEmpty() || connexionsParTravailleur < 1 || budget < 1) {
+            throw new IllegalArgumentException("Paramètres du coordinateur invalides");
+        }
+        this.travailleurs = new ArrayList<>(travailleurs);
+        this.connexionsParTravailleur = connexionsParTravailleur;
+        this.budget = budget;
+    }
+
+    /**
+     * @return une solution, ou null si la grille n'en a pas
+     * @throws IOException si aucun travailleur ne répond, ou si l'un d'eux signale une erreur
+     */
+    public EtatBinairo resoudre(EtatBinairo grille) throws IOException, InterruptedException {
+        Travail travail = executer(grille, false, 1);
+        return travail.solution;
+    }
+
+    /**
+     * Nombre de solutions, en s'arrêtant dès que la limite est atteinte.
+     */
+    public long compterSolutions(EtatBinairo grille, long limite) throws IOException, InterruptedException {
+        Travail travail = executer(grille, true, limite);
+        return Math.min(travail.total, limite);
+    }
+
+    public long getNoeuds() {
+        return noeuds;
+    }
+
+    public int getTachesEnvoyees() {
+        return tachesEnvoyees;
+    }
+
+    public int getDecoupes() {
+        return decoupes;
+    }
+
+    /**
+     * État d'un travail, partagé par les threads de connexion (verrou : l'objet lui-même).
+     */
+    private static final class Travail {
+        final boolean comptage;
+        final long limite;
+        final Deque<GrilleBinaire> file = new ArrayDeque<>();
+        // Préfixes non encore conclus : en file ou en cours de calcul
+        int restants;
+        int connexionsActives;
+        boolean termine;
+        EtatBinairo solution;
+        long total;
+        long noeuds;
+        int envoyees;
+        int decoupes;
+        IOException erreur;
+
+        Travail(boolean comptage, long limite) {
+            this.comptage = comptage;
+            this.limite = limite;
+        }
+
+        synchronized void terminer() {
+            termine = true;
+            notifyAll();
+        }
+    }
+
+    private Travail executer(EtatBinairo grille, boolean comptage, long limite)
+            throws IOException, InterruptedException {
+        if (!GrilleBinaire.supporte(grille.getTaille())) {
+            throw new IllegalArgumentException("Taille non prise en charge: " + grille.getTaille());
+        }
+        Travail travail = new Travail(comptage, limite);
+        travail.file.add(GrilleBinaire.depuis(grille));
+        int nbConnexions = travailleurs.size() * connexionsParTravailleur;
+        decouperRacine(travail.file, nbConnexions * TACHES_PAR_CONNEXION);
+        travail.restants = travail.file.size();
+        if (travail.restants == 0) travail.termine = true;
+
+        List<Socket> sockets = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        try {
+            for (InetSocketAddress adresse : travailleurs) {
+                for (int c = 0; c < connexionsParTravailleur; c++) {
+                    Socket socket = new Socket();
+                    try {
+                        socket.connect(adresse, 5000);
+                    } catch (IOException ex) {
+                        System.err.println("Travailleur " + adresse + " injoignable: " + ex.getMessage());
+                        socket.close();
+                        continue;
+                    }
+                    sockets.add(socket);
+                }
+            }
+            if (sockets.isEmpty()) throw new IOException("Aucun travailleur joignable");
+            travail.connexionsActives = sockets.size();
+            for (Socket socket : sockets) {
+                Thread t = new Thread(() -> servir(travail, socket), "coordinateur-" + socket.getRemoteSocketAddress());
+                t.setDaemon(true);
+                threads.add(t);
+                t.start();
+            }
+
+            synchronized (travail) {
+                while (!travail.termine) travail.wait();
+            }
+        } finally {
+            travail.terminer();
+            // Fermer les connexions interrompt les calculs encore en cours chez les travailleurs
+            for (Socket socket : sockets) {
+                try {
+                    socket.close();
+                } catch (IOException ex) {
+                    // Déjà fermée
+                }
+            }
+            for (Thread t : threads) t.join();
+        }
+
+        noeuds = travail.noeuds;
+        tachesEnvoyees = travail.envoyees;
+        decoupes = travail.decoupes;
+        if (travail.erreur != null) throw travail.erreur;
+        return travail;
+    }
+
+    /**
+     * Boucle d'une connexion : envoie les préfixes de la file un par un et traite les réponses.
+     */
+    private void servir(Travail travail, Socket socket) {
+        GrilleBinaire prefixe = null;
+        try (BufferedReader entree = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                StandardCharsets.UTF_8));
+             Writer sortie = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(),
+                     StandardCharsets.UTF_8))) {
+            socket.setTcpNoDelay(true);
+            while (true) {
+                synchronized (travail) {
+                    while (!travail.termine && travail.file.isEmpty()) travail.wait();
+                    if (travail.termine) return;
+                    prefixe = travail.file.pollFirst();
+                    travail.envoyees++;
+                }
+                String ligne = prefixe.versEtat().toLigne();
+                sortie.write(travail.comptage
+                        ? "COMPTER " + budget + " " + travail.limite + " " + ligne
+                        : "RESOUDRE " + budget + " " + ligne);
+                sortie.write('\n');
+                sortie.flush();
+
+                String reponse = entree.readLine();
+                if (reponse == null) throw new IOException("connexion fermée par le travailleur");
+                recevoir(travail, prefixe, reponse);
+                prefixe = null;
+            }
+        } catch (IOException ex) {
+            synchronized (travail) {
+                if (travail.termine) return;
+                System.err.println("Travailleur " + socket.getRemoteSocketAddress() + " perdu: " + ex.getMessage());
+                // Le préfixe en cours revient aux autres connexions
+                if (prefixe != null) travail.file.addFirst(prefixe);
+                if (--travail.connexionsActives == 0) {
+                    travail.erreur = new IOException("Plus aucun travailleur disponible", ex);
+                    travail.termine = true;
+                }
+                travail.notifyAll();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void recevoir(Travail travail, GrilleBinaire prefixe, String reponse) throws IOException {
+        try {
+            appliquer(travail, prefixe, reponse);
+        } catch (RuntimeException ex) {
+            throw new IOException("Réponse invalide: " + reponse, ex);
+        }
+    }
+
+    private static void appliquer(Travail travail, GrilleBinaire prefixe, String reponse) throws IOException {
+        String[] champs = reponse.split(" ", 3);
+        synchronized (travail) {
+            if (travail.termine) return;
+            switch (champs[0]) {
+                case "SOLUTION":
+                    travail.noeuds += Long.parseLong(champs[1]);
+                    travail.solution = EtatBinairo.depuisTexte(champs[2]);
+                    travail.termine = true;
+                    break;
+                case "AUCUNE":
+                    travail.noeuds += Long.parseLong(champs[1]);
+                    travail.restants--;
+                    break;
+                case "COMPTE":
+                    travail.noeuds += Long.parseLong(champs[1]);
+                    travail.total += Long.parseLong(champs[2]);
+                    travail.restants--;
+                    if (travail.total >= travail.limite) travail.termine = true;
+                    break;
+                case "DECOUPER": {
+                    travail.noeuds += Long.parseLong(champs[1]);
+                    List<GrilleBinaire> moities = decouper(prefixe);
+                    for (int k = moities.size() - 1; k >= 0; k--) travail.file.addFirst(moities.get(k));
+                    travail.restants += moities.size() - 1;
+                    travail.decoupes++;
+                    break;
+                }
+                case "ERREUR":
+                    travail.erreur = new IOException("Erreur du travailleur:" + reponse.substring("ERREUR".length()));
+                    travail.termine = true;
+                    break;
+                default:
+                    throw new IOException("Réponse inattendue: " + reponse);
+            }
+            if (travail.restants == 0) travail.termine = true;
+            travail.notifyAll();
+        }
+    }
+
+    /**
+     * Découpe la file en largeur jusqu'à obtenir au moins {@code cible} préfixes.
+     */
+    private static void decouperRacine(Deque<GrilleBinaire> file, int cible) {
+        int sansDecoupe = 0;
+        while (file.size() < cible && sansDecoupe < file.size()) {
+            GrilleBinaire g = file.pollFirst();
+            List<GrilleBinaire> moities = decouper(g);
+            if (moities.size() == 1 && moities.get(0) == g) {
+                file.addLast(g);
+                sansDecoupe++;
+            } else {
+                file.addAll(moities);
+                sansDecoupe = 0;
+            }
+        }
+    }
+
+    /**
+     * Les deux sous-arbres d'un préfixe, sur la première case vide de la ligne (ou
+     * colonne) la plus remplie ; les moitiés déjà invalides sont écartées. Un préfixe
+     * complet est rendu tel quel.
+     */
+    static List<GrilleBinaire> decouper(GrilleBinaire g) {
+        List<GrilleBinaire> moities = new ArrayList<>(2);
+        int taille = g.getTaille();
+        long plein = g.getPlein();
+        int meilleure = -1, minVides = Integer.MAX_VALUE;
+        for (int k = 0; k < 2 * taille; k++) {
+            int vides = Long.bitCount(plein & ~g.masqueRemplies(k));
+            if (vides > 0 && vides < minVides) {
+                minVides = vides;
+                meilleure = k;
+            }
+        }
+        if (meilleure < 0) {
+            moities.add(g);
+            return moities;
+        }
+        int premiere = Long.numberOfTrailingZeros(plein & ~g.masqueRemplies(meilleure));
+        int i = meilleure < taille ? meilleure : premiere;
+        int j = meilleure < taille ? premiere : meilleure - taille;
+        for (int valeur = EtatBinairo.ZERO; valeur <= EtatBinairo.UN; valeur++) {
+            GrilleBinaire moitie = new GrilleBinaire(g);
+            moitie.placer(i, j, valeur);
+            if (moitie.ligneValide(i) && moitie.ligneValide(taille + j)) moities.add(moitie);
+        }
+        return moities;
+    }
+
+    public static void main(String[] args) {
+        List<InetSocketAddress> travailleurs = new ArrayList<>();
+        int connexions = CONNEXIONS_PAR_DEFAUT;
+        long budget = BUDGET_PAR_DEFAUT;
+        long limite = 0;
+        String fichier = null;
+
+        try {
+            for (int k = 0; k < args.length; k++) {
+                switch (args[k]) {
+                    case "--travailleurs":
+                        for (String t : args[++k].split(",")) {
+                            int deuxPoints = t.lastIndexOf(':');
+                            travailleurs.add(new InetSocketAddress(t.substring(0, deuxPoints),
+                                    Integer.parseInt(t.substring(deuxPoints + 1))));
+                        }
+                        break;
+                    case "--connexions": connexions = Integer.parseInt(args[++k]); break;
+                    case "--budget": budget = Long.parseLong(args[++k]); break;
+                    case "--compter": limite = Long.parseLong(args[++k]); break;
+                    default: fichier = args[k];
+                }
+            }
+            if (fichier == null || travailleurs.isEmpty()) {
+                throw new IllegalArgumentException("grille ou travailleurs manquants");
+            }
+        } catch (RuntimeException ex) {
+            System.err.println("Erreur: " + ex.getMessage());
+            System.err.println("Usage: CoordinateurRecherche --travailleurs hote:port,hote:port [--connexions N]"
+                    + " [--budget noeuds] [--compter limite] grille");
+            System.exit(2);
+            return;
+        }
+
+        try {
+            EtatBinairo grille = EtatBinairo.depuisTexte(
+                    new String(Files.readAllBytes(Paths.get(fichier)), StandardCharsets.UTF_8).trim());
+            CoordinateurRecherche coordinateur = new CoordinateurRecherche(travailleurs, connexions, budget);
+            long debut = System.nanoTime();
+            if (limite > 0) {
+                System.out.println(coordinateur.compterSolutions(grille, limite));
+            } else {
+                EtatBinairo solution = coordinateur.resoudre(grille);
+                System.out.println(solution != null ? solution.toLigne() : "NON_RESOLU");
+            }
+            System.err.printf(Locale.ROOT, "%.3f s, %d nœuds, %d tâches, %d redécoupages%n",
+                    (System.nanoTime() - debut) / 1e9, coordinateur.getNoeuds(),
+                    coordinateur.getTachesEnvoyees(), coordinateur.getDecoupes());
+        } catch (IOException | IllegalArgumentException | InterruptedException ex) {
+            System.err.println("Erreur: " + ex.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,406 @@
+package binairo.serveur;
+
+import binairo.modele.EtatBinairo;
+import binairo.recherche.BudgetsTaille;
+import binairo.recherche.CacheSolutions;
+import binairo.recherche.ConfigurationCSP;
+import binairo.recherche.MoteurAvecCache;
+import binairo.recherche.MoteurBinairoAbstrait;
+import binairo.recherche.MoteurBinairoCSP;
+import binairo.recherche.MoteurBinairoRapide;
+import binairo.recherche.OrdonnanceurRecherche;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service HTTP local exposant les moteurs de résolution (sans dépendance externe).
+ *
+ * Points d'accès (POST, corps = grille au format texte de {@link EtatBinairo#depuisTexte(String)}) :
+ *  - /resoudre : solution de la grille
+ *  - /indice   : coup forcé ({@link EtatBinairo#getSuggestion()})
+ *  - /valider  : règles violées ({@link EtatBinairo#getViolations()})
+ *  - /compter  : nombre de solutions, borné par le paramètre "limite"
+ *
+ * Paramètres de requête : "delai" (ms, échéance de la requête), "config" (heuristiques
+ * du moteur CSP des petites grilles, voir {@link ConfigurationCSP#depuisTexte(String)}),
+ * "limite" (pour /compter). Les grandes grilles passent par le moteur rapide, comme dans
+ * l'interface ({@link BudgetsTaille}).
+ * /resoudre et /compter passent l'échéance au moteur ; /indice et /valider s'exécutent
+ * sur la voie interactive de l'{@link OrdonnanceurRecherche#global() ordonnanceur} et
+ * répondent 504 à l'échéance ; le calcul abandonné se termine en arrière-plan en gardant
+ * sa place du limiteur de concurrence, si bien que ces calculs restent bornés.
+ * Une erreur inattendue donne un 500.
+ *
+ * Chaque requête s'exécute sur un thread virtuel quand la JVM le permet (Java 21+),
+ * sinon sur un pool borné. Un limiteur de concurrence rejette l'excédent (503)
+ * plutôt que de laisser la file d'attente s'allonger.
+ * Les solutions de /resoudre peuvent être servies par un {@link CacheSolutions} partagé.
+ */
+public class ServeurBinairo {
+
+    public static final long DELAI_PAR_DEFAUT_MS = 2000;
+    public static final long DELAI_MAXIMAL_MS = 30000;
+    public static final long LIMITE_COMPTAGE_PAR_DEFAUT = 1000;
+
+    private final HttpServer serveur;
+    private final ExecutorService executor;
+    private final Semaphore limiteur;
+    // Attente maximale d'une place libre avant de rejeter la requête
+    private final long attenteMaxMs;
+    // Cache des solutions, ou null
+    private final CacheSolutions cache;
+
+    public ServeurBinairo(int port, int concurrenceMax) throws IOException {
+        this(new InetSocketAddress("127.0.0.1", port), concurrenceMax, 5, null);
+    }
+
+    public ServeurBinairo(InetSocketAddress adresse, int concurrenceMax, long attenteMaxMs,
+                          CacheSolutions cache) throws IOException {
+        this.cache = cache;
+        this.limiteur = new Semaphore(concurrenceMax);
+        this.attenteMaxMs = attenteMaxMs;
+        this.executor = creerExecutor(concurrenceMax);
+        this.serveur = HttpServer.create(adresse, 1024);
+        this.serveur.setExecutor(executor);
+
+        serveur.createContext("/resoudre", new Traitement(this::resoudre));
+        serveur.createContext("/indice", new Traitement(avecEcheance(this::indice)));
+        serveur.createContext("/valider", new Traitement(avecEcheance(this::valider)));
+        serveur.createContext("/compter", new Traitement(this::compter));
+    }
+
+    /**
+     * Threads virtuels si disponibles (recherchés par réflexion pour compiler en Java 17),
+     * sinon pool fixe : les requêtes en excès n'y font que recevoir un 503.
+     */
+    private static ExecutorService creerExecutor(int concurrenceMax) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            return Executors.newFixedThreadPool(concurrenceMax * 2, r -> {
+                Thread t = new Thread(r, "serveur-binairo");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    public void demarrer() {
+        serveur.start();
+    }
+
+    public void arreter() {
+        serveur.stop(0);
+        executor.shutdownNow();
+    }
+
+    public int getPort() {
+        return serveur.getAddress().getPort();
+    }
+
+    // --- Points d'accès ---
+
+    /**
+     * Requête décodée : grille, paramètres et échéance absolue (System.nanoTime).
+     */
+    static class Requete {
+        final EtatBinairo grille;
+        final Map<String, String> parametres;
+        final long echeanceNanos;
+        // Place du limiteur passée à un calcul abandonné, qui la rendra en finissant
+        boolean placeCedee;
+
+        Requete(EtatBinairo grille, Map<String, String> parametres, long echeanceNanos) {
+            this.grille = grille;
+            this.parametres = parametres;
+            this.echeanceNanos = echeanceNanos;
+        }
+
+        /**
+         * Moteur CSP configuré par "config" pour les petites grilles, moteur rapide avec
+         * sondage au-delà ({@link BudgetsTaille#parMoteurCSP}), limité à l'échéance.
+         */
+        MoteurBinairoAbstrait creerMoteur() {
+            MoteurBinairoAbstrait moteur;
+            if (BudgetsTaille.parMoteurCSP(grille.getTaille())) {
+                String config = parametres.get("config");
+                moteur = (config == null ? ConfigurationCSP.parDefaut()
+                        : ConfigurationCSP.depuisTexte(config)).creerMoteur();
+            } else {
+                moteur = BudgetsTaille.moteurRapide();
+            }
+            moteur.setDelaiMaximal(Math.max(1, TimeUnit.NANOSECONDS.toMillis(echeanceNanos - System.nanoTime())));
+            return moteur;
+        }
+    }
+
+    /**
+     * Réponse : code HTTP et corps JSON.
+     */
+    static class Reponse {
+        final int code;
+        final String json;
+
+        Reponse(int code, String json) {
+            this.code = code;
+            this.json = json;
+        }
+    }
+
+    interface Action {
+        Reponse executer(Requete requete) throws InterruptedException;
+    }
+
+    /**
+     * Point d'accès supplémentaire (contrôles de {@link ControleServeur}).
+     */
+    void ajouterPointAcces(String chemin, Action action) {
+        serveur.createContext(chemin, new Traitement(action));
+    }
+
+    // États d'un calcul de avecEcheance
+    private static final int EN_FILE = 0, EN_COURS = 1, FINI = 2, ABANDONNE = 3;
+
+    /**
+     * Exécute une action sans moteur (donc sans arrêt coopératif) sur la voie interactive,
+     * en ne l'attendant que jusqu'à l'échéance de la requête. Un calcul abandonné en
+     * cours d'exécution garde la place du limiteur jusqu'à sa fin ; abandonné avant de
+     * démarrer, il ne s'exécute pas.
+     */
+    Action avecEcheance(Action action) {
+        return requete -> {
+            AtomicInteger etat = new AtomicInteger(EN_FILE);
+            Future<Reponse> calcul;
+            try {
+                calcul = OrdonnanceurRecherche.global().soumettre(OrdonnanceurRecherche.Voie.INTERACTIVE, () -> {
+                    if (!etat.compareAndSet(EN_FILE, EN_COURS)) return null;
+                    try {
+                        return action.executer(requete);
+                    } finally {
+                        if (!etat.compareAndSet(EN_COURS, FINI)) limiteur.release();
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                return new Reponse(503, erreur("serveur saturé"));
+            }
+            try {
+                return calcul.get(requete.echeanceNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException | InterruptedException ex) {
+                // Avant le démarrage, le calcul n'aura pas lieu ; pendant, il rendra la place
+                if (!etat.compareAndSet(EN_FILE, ABANDONNE)) {
+                    requete.placeCedee = etat.compareAndSet(EN_COURS, ABANDONNE);
+                }
+                calcul.cancel(true);
+                if (ex instanceof InterruptedException) throw (InterruptedException) ex;
+                return delaiDepasse();
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof RuntimeException) throw (RuntimeException) ex.getCause();
+                throw new IllegalStateException(ex.getCause());
+            }
+        };
+    }
+
+    private Reponse resoudre(Requete requete) {
+        MoteurBinairoAbstrait moteur = requete.creerMoteur();
+        if (cache != null) moteur = new MoteurAvecCache(moteur, cache);
+        EtatBinairo solution = moteur.resoudre(requete.grille);
+        if (moteur.estInterrompu()) return delaiDepasse();
+
+        return new Reponse(200, "{\"resolu\":" + (solution != null)
+                + ",\"solution\":" + (solution != null ? chaine(solution.toLigne()) : "null")
+                + ",\"noeuds\":" + moteur.getNoeudsExplores()
+                + ",\"tempsMs\":" + moteur.getTempsExecution()
+                + ",\"cpuMs\":" + moteur.getTempsCpu() / 1_000_000
+                + ",\"octetsAlloues\":" + moteur.getOctetsAlloues() + "}");
+    }
+
+    private Reponse indice(Requete requete) {
+        int[] suggestion = requete.grille.getSuggestion();
+        if (suggestion == null) return new Reponse(200, "{\"indice\":null}");
+        return new Reponse(200, "{\"indice\":{\"ligne\":" + suggestion[0]
+                + ",\"colonne\":" + suggestion[1] + ",\"valeur\":" + suggestion[2] + "}}");
+    }
+
+    private Reponse valider(Requete requete) {
+        List<String> violations = requete.grille.getViolations();
+        StringBuilder json = new StringBuilder();
+        json.append("{\"valide\":").append(violations.isEmpty())
+            .append(",\"complet\":").append(requete.grille.estComplet())
+            .append(",\"violations\":[");
+        for (int k = 0; k < violations.size(); k++) {
+            if (k > 0) json.append(',');
+            json.append(chaine(violations.get(k)));
+        }
+        return new Reponse(200, json.append("]}").toString());
+    }
+
+    private Reponse compter(Requete requete) {
+        long limite = Long.parseLong(requete.parametres.getOrDefault("limite",
+                String.valueOf(LIMITE_COMPTAGE_PAR_DEFAUT)));
+        if (limite < 1) throw new IllegalArgumentException("limite doit être positive");
+
+        MoteurBinairoAbstrait moteur = requete.creerMoteur();
+        long nb = moteur instanceof MoteurBinairoRapide
+                ? ((MoteurBinairoRapide) moteur).compterSolutions(requete.grille, limite)
+                : ((MoteurBinairoCSP) moteur).compterSolutions(requete.grille, limite);
+        if (moteur.estInterrompu()) return delaiDepasse();
+
+        return new Reponse(200, "{\"solutions\":" + nb
+                + ",\"limiteAtteinte\":" + (nb >= limite)
+                + ",\"noeuds\":" + moteur.getNoeudsExplores()
+                + ",\"tempsMs\":" + moteur.getTempsExecution()
+                + ",\"cpuMs\":" + moteur.getTempsCpu() / 1_000_000
+                + ",\"octetsAlloues\":" + moteur.getOctetsAlloues() + "}");
+    }
+
+    private static Reponse delaiDepasse() {
+        return new Reponse(504, erreur("délai dépassé"));
+    }
+
+    // --- Transport HTTP ---
+
+    /**
+     * Décode la requête, applique le limiteur de concurrence et sérialise la réponse.
+     */
+    private class Traitement implements HttpHandler {
+        private final Action action;
+
+        Traitement(Action action) {
+            this.action = action;
+        }
+
+        @Override
+        public void handle(HttpExchange echange) throws IOException {
+            long arrivee = System.nanoTime();
+            Reponse reponse;
+            try {
+                reponse = traiter(echange, arrivee);
+            } catch (IllegalArgumentException ex) {
+                reponse = new Reponse(400, erreur(ex.getMessage()));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                reponse = new Reponse(503, erreur("serveur en arrêt"));
+            } catch (RuntimeException ex) {
+                reponse = new Reponse(500, erreur("erreur interne : " + ex));
+            }
+
+            byte[] corps = reponse.json.getBytes(StandardCharsets.UTF_8);
+            echange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            if (reponse.code == 503) echange.getResponseHeaders().set("Retry-After", "1");
+            echange.sendResponseHeaders(reponse.code, corps.length);
+            try (OutputStream os = echange.getResponseBody()) {
+                os.write(corps);
+            }
+        }
+
+        private Reponse traiter(HttpExchange echange, long arrivee) throws IOException, InterruptedException {
+            if (!"POST".equals(echange.getRequestMethod())) {
+                return new Reponse(405, erreur("méthode non autorisée, utiliser POST"));
+            }
+
+            Map<String, String> parametres = lireParametres(echange.getRequestURI().getRawQuery());
+            long delai = Math.min(DELAI_MAXIMAL_MS, Long.parseLong(
+                    parametres.getOrDefault("delai", String.valueOf(DELAI_PAR_DEFAUT_MS))));
+            if (delai < 1) throw new IllegalArgumentException("delai doit être positif");
+            EtatBinairo grille = EtatBinairo.depuisTexte(lireCorps(echange.getRequestBody()));
+
+            if (!limiteur.tryAcquire(attenteMaxMs, TimeUnit.MILLISECONDS)) {
+                return new Reponse(503, erreur("serveur saturé"));
+            }
+            Requete requete = new Requete(grille, parametres, arrivee + delai * 1_000_000L);
+            try {
+                if (System.nanoTime() >= requete.echeanceNanos) return delaiDepasse();
+                return action.executer(requete);
+            } finally {
+                if (!requete.placeCedee) limiteur.release();
+            }
+        }
+    }
+
+    private static String lireCorps(InputStream is) throws IOException {
+        ByteArrayOutputStream tampon = new ByteArrayOutputStream();
+        byte[] bloc = new byte[4096];
+        int n;
+        while ((n = is.read(bloc)) > 0) {
+            tampon.write(bloc, 0, n);
+            // 64x64 cases avec séparateurs tient largement dans cette limite
+            if (tampon.size() > 65536) throw new IllegalArgumentException("grille trop grande");
+        }
+        return tampon.toString(StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, String> lireParametres(String requete) {
+        Map<String, String> parametres = new HashMap<>();
+        if (requete == null) return parametres;
+        for (String paire : requete.split("&")) {
+            int egal = paire.indexOf('=');
+            if (egal > 0) {
+                parametres.put(URLDecoder.decode(paire.substring(0, egal), StandardCharsets.UTF_8),
+                        URLDecoder.decode(paire.substring(egal + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parametres;
+    }
+
+    private static String erreur(String message) {
+        return "{\"erreur\":" + chaine(message) + "}";
+    }
+
+    private static String chaine(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int k = 0; k < s.length(); k++) {
+            char c = s.charAt(k);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                default:
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = 8080;
+        int concurrence = Runtime.getRuntime().availableProcessors() * 2;
+        int tailleCache = 0;
+        for (int k = 0; k < args.length; k++) {
+            switch (args[k]) {
+                case "--port": port = Integer.parseInt(args[++k]); break;
+                case "--concurrence": concurrence = Integer.parseInt(args[++k]); break;
+                case "--cache": tailleCache = Integer.parseInt(args[++k]); break;
+                default:
+                    System.err.println("Usage: ServeurBinairo [--port N] [--concurrence N] [--cache N]");
+                    System.exit(2);
+            }
+        }
+
+        ServeurBinairo serveur = new ServeurBinairo(new InetSocketAddress("127.0.0.1", port), concurrence, 5,
+                tailleCache > 0 ? new CacheSolutions(tailleCache) : null);
+        serveur.demarrer();
+        System.err.println("Serveur Binairo à l'écoute sur http://127.0.0.1:" + serveur.getPort());
+    }
+}
@@ -0,0 +1,164 @@
+package binairo.serveur;
+
+import binairo.modele.EtatBinairo;
+import binairo.modele.GrilleBinaire;
+import binairo.recherche.MoteurBinairoRapide;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Processus de calcul pour {@link CoordinateurRecherche} : résout ou compte les
+ * solutions des sous-arbres reçus par socket, avec le moteur rapide (sondage en résolution).
+ *
+ * Protocole texte (UTF-8, une ligne par message, grilles au format
+ * {@link EtatBinairo#toLigne()}), une tâche à la fois par connexion :
+ * <pre>
+ *   → RESOUDRE budget grille          ← SOLUTION noeuds grille | AUCUNE noeuds
+ *   → COMPTER budget limite grille    ← COMPTE noeuds nombre
+ *                                     ← DECOUPER noeuds   (budget de nœuds épuisé)
+ *                                     ← ERREUR message
+ * </pre>
+ * Un sous-arbre qui dépasse son budget est rendu au coordinateur, qui le redécoupe.
+ * La fermeture de la connexion annule la tâche en cours (arrêt anticipé).
+ *
+ * Usage : TravailleurRecherche [--port N] [--adresse ip]
+ */
+public class TravailleurRecherche {
+
+    private final ServerSocket serveur;
+    private final ExecutorService connexions = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "travailleur-connexion");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public TravailleurRecherche(InetSocketAddress adresse) throws IOException {
+        this.serveur = new ServerSocket();
+        this.serveur.bind(adresse);
+    }
+
+    /**
+     * Accepte les connexions sur un thread qui garde la JVM en vie jusqu'à {@link #arreter()}.
+     */
+    public void demarrer() {
+        new Thread(() -> {
+            while (!serveur.isClosed()) {
+                try {
+                    Socket socket = serveur.accept();
+                    connexions.execute(() -> servir(socket));
+                } catch (IOException ex) {
+                    // Fermeture du serveur
+                }
+            }
+        }, "travailleur-accueil").start();
+    }
+
+    public void arreter() throws IOException {
+        serveur.close();
+        connexions.shutdownNow();
+    }
+
+    public int getPort() {
+        return serveur.getLocalPort();
+    }
+
+    /**
+     * Lit les tâches d'une connexion ; chacune est calculée sur un thread à part pour
+     * que la fin de la connexion puisse l'interrompre.
+     */
+    private void servir(Socket socket) {
+        ExecutorService calcul = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "travailleur-calcul");
+            t.setDaemon(true);
+            return t;
+        });
+        try (socket;
+             BufferedReader entree = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                     StandardCharsets.UTF_8));
+             Writer sortie = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(),
+                     StandardCharsets.UTF_8))) {
+            socket.setTcpNoDelay(true);
+            MoteurBinairoRapide moteur = new MoteurBinairoRapide();
+            String ligne;
+            while ((ligne = entree.readLine()) != null) {
+                String tache = ligne;
+                calcul.execute(() -> repondre(sortie, traiter(moteur, tache)));
+            }
+        } catch (IOException ex) {
+            // Connexion coupée par le coordinateur
+        } finally {
+            calcul.shutdownNow();
+        }
+    }
+
+    private static void repondre(Writer sortie, String reponse) {
+        // Après une interruption, le coordinateur n'attend plus de réponse
+        if (reponse == null) return;
+        try {
+            sortie.write(reponse);
+            sortie.write('\n');
+            sortie.flush();
+        } catch (IOException ex) {
+            // Connexion fermée entre-temps
+        }
+    }
+
+    private static String traiter(MoteurBinairoRapide moteur, String tache) {
+        try {
+            String[] champs = tache.split(" ");
+            boolean comptage = champs[0].equals("COMPTER");
+            if (!comptage && !champs[0].equals("RESOUDRE") || champs.length != (comptage ? 4 : 3)) {
+                return "ERREUR tâche inconnue";
+            }
+            // Le sondage élague bien la résolution, mais coûte plus qu'il ne rapporte en énumération
+            moteur.setSondage(!comptage);
+            moteur.setLimiteNoeuds(Long.parseLong(champs[1]));
+            GrilleBinaire grille = GrilleBinaire.depuis(EtatBinairo.depuisTexte(champs[champs.length - 1]));
+
+            if (comptage) {
+                long nombre = moteur.compterSolutions(grille, Long.parseLong(champs[2]));
+                if (Thread.currentThread().isInterrupted()) return null;
+                if (moteur.estInterrompu()) return "DECOUPER " + moteur.getNoeudsExplores();
+                return "COMPTE " + moteur.getNoeudsExplores() + " " + nombre;
+            }
+            GrilleBinaire solution = moteur.resoudre(grille);
+            if (Thread.currentThread().isInterrupted()) return null;
+            if (solution != null) {
+                return "SOLUTION " + moteur.getNoeudsExplores() + " " + solution.versEtat().toLigne();
+            }
+            return (moteur.estInterrompu() ? "DECOUPER " : "AUCUNE ") + moteur.getNoeudsExplores();
+        } catch (RuntimeException ex) {
+            return "ERREUR " + ex.getMessage();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = 7070;
+        String adresse = "127.0.0.1";
+        for (int k = 0; k < args.length; k++) {
+            switch (args[k]) {
+                case "--port": port = Integer.parseInt(args[++k]); break;
+                case "--adresse": adresse = args[++k]; break;
+                default:
+                    System.err.println("Usage: TravailleurRecherche [--port N] [--adresse ip]");
+                    System.exit(2);
+            }
+        }
+        TravailleurRecherche travailleur = new TravailleurRecherche(
+                new InetSocketAddress(InetAddress.getByName(adresse), port));
+        travailleur.demarrer();
+        System.err.println("Travailleur à l'écoute sur " + adresse + ":" + travailleur.getPort());
+    }
+}